@@ -0,0 +1,97 @@
+package com.example.cms_be.config;
+
+import java.lang.reflect.Field;
+import java.util.Map;
+
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.SequenceGenerator;
+import jakarta.persistence.Table;
+import jakarta.persistence.metamodel.EntityType;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Entities draw ids from pooled sequences (allocationSize ids per round trip) so Hibernate can
+ * batch inserts, which it refuses to do for IDENTITY columns. Tables created before the switch
+ * already hold ids handed out by their identity column, so each sequence is created if missing
+ * and moved past MAX(id) before the first insert; a sequence that is already ahead is left alone.
+ * Entities that stay on IDENTITY (the outbox, whose relay order must follow insert order) get a
+ * column default again if their table was created while they were on a pooled sequence.
+ */
+@Component
+@DependsOn("entityManagerFactory")
+@Slf4j
+@RequiredArgsConstructor
+public class IdSequenceInitializer implements InitializingBean {
+
+    private final JdbcTemplate jdbcTemplate;
+    private final EntityManagerFactory entityManagerFactory;
+
+    @Override
+    public void afterPropertiesSet() {
+        for (EntityType<?> entity : entityManagerFactory.getMetamodel().getEntities()) {
+            Class<?> type = entity.getJavaType();
+            Table table = type.getAnnotation(Table.class);
+            Field id = idFieldOf(type);
+            if (table == null || id == null) {
+                continue;
+            }
+            SequenceGenerator generator = id.getAnnotation(SequenceGenerator.class);
+            GeneratedValue generatedValue = id.getAnnotation(GeneratedValue.class);
+            if (generator != null) {
+                sync(table.name(), generator.sequenceName(), generator.allocationSize());
+            } else if (generatedValue != null && generatedValue.strategy() == GenerationType.IDENTITY) {
+                ensureIdentityDefault(table.name());
+            }
+        }
+    }
+
+    private void sync(String table, String sequence, int allocationSize) {
+        jdbcTemplate.execute("CREATE SEQUENCE IF NOT EXISTS " + sequence + " START WITH 1 INCREMENT BY " + allocationSize);
+        jdbcTemplate.execute("ALTER SEQUENCE " + sequence + " INCREMENT BY " + allocationSize);
+
+        long maxId = jdbcTemplate.queryForObject("SELECT COALESCE(MAX(id), 0) FROM " + table, Long.class);
+        Map<String, Object> state = jdbcTemplate.queryForMap("SELECT last_value, is_called FROM " + sequence);
+        long lastValue = ((Number) state.get("last_value")).longValue();
+        boolean called = Boolean.TRUE.equals(state.get("is_called"));
+
+        // The pooled optimizer treats a fetched value as the top of a block of allocationSize ids
+        long nextBlockTop = called ? lastValue + allocationSize : lastValue;
+        if (nextBlockTop - allocationSize + 1 <= maxId) {
+            jdbcTemplate.queryForObject("SELECT setval(?::regclass, ?, false)", Long.class, sequence, maxId + allocationSize);
+            log.info("Sequence {} moved past existing ids of {} (max id {})", sequence, table, maxId);
+        }
+    }
+
+    private void ensureIdentityDefault(String table) {
+        Map<String, Object> column = jdbcTemplate.queryForMap(
+                "SELECT column_default, is_identity FROM information_schema.columns " +
+                "WHERE table_schema = current_schema() AND table_name = ? AND column_name = 'id'", table);
+        if (column.get("column_default") != null || "YES".equals(column.get("is_identity"))) {
+            return;
+        }
+        String sequence = table + "_id_seq";
+        jdbcTemplate.execute("CREATE SEQUENCE IF NOT EXISTS " + sequence + " OWNED BY " + table + ".id");
+        long maxId = jdbcTemplate.queryForObject("SELECT COALESCE(MAX(id), 0) FROM " + table, Long.class);
+        jdbcTemplate.queryForObject("SELECT setval(?::regclass, ?, false)", Long.class, sequence, maxId + 1);
+        jdbcTemplate.execute("ALTER TABLE " + table + " ALTER COLUMN id SET DEFAULT nextval('" + sequence + "')");
+        log.info("Column {}.id generates its ids again from {} (max id {})", table, sequence, maxId);
+    }
+
+    private Field idFieldOf(Class<?> type) {
+        for (Field field : type.getDeclaredFields()) {
+            if (field.isAnnotationPresent(Id.class)) {
+                return field;
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,50 @@
+package com.example.cms_be.config;
+
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+import com.zaxxer.hikari.HikariDataSource;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * JDBC batching for bulk writes (questions, enrollments, setup steps). Values set explicitly
+ * under spring.jpa.properties win over the defaults here.
+ */
+@Configuration
+@Slf4j
+public class JpaBatchingConfig {
+
+    @Bean
+    public HibernatePropertiesCustomizer jdbcBatchingCustomizer(@Value("${app.jpa.batch-size:50}") int batchSize) {
+        return properties -> {
+            properties.putIfAbsent(AvailableSettings.STATEMENT_BATCH_SIZE, batchSize);
+            properties.putIfAbsent(AvailableSettings.ORDER_INSERTS, true);
+            properties.putIfAbsent(AvailableSettings.ORDER_UPDATES, true);
+            properties.putIfAbsent(AvailableSettings.BATCH_VERSIONED_DATA, true);
+        };
+    }
+
+    // PgJDBC rewrites a batch of single-row INSERTs into multi-row INSERT statements
+    @Bean
+    public static BeanPostProcessor rewriteBatchedInsertsPostProcessor(Environment environment) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessBeforeInitialization(Object bean, String beanName) {
+                if (bean instanceof HikariDataSource dataSource
+                        && dataSource.getJdbcUrl() != null
+                        && dataSource.getJdbcUrl().startsWith("jdbc:postgresql:")
+                        && environment.getProperty("app.datasource.rewrite-batched-inserts", Boolean.class, true)) {
+                    dataSource.addDataSourceProperty("reWriteBatchedInserts", "true");
+                    log.info("reWriteBatchedInserts enabled for datasource {}", beanName);
+                }
+                return bean;
+            }
+        };
+    }
+}
@@ -1,6 +1,8 @@
 package com.example.cms_be.config;
 
 import com.example.cms_be.dto.lab.LabSessionReadyEvent;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.apache.kafka.clients.consumer.ConsumerConfig;
 import org.apache.kafka.common.serialization.StringDeserializer;
 import org.springframework.beans.factory.annotation.Value;
@@ -10,9 +12,16 @@ import org.springframework.kafka.annotation.EnableKafka;
 import org.springframework.kafka.config.ConcurrentKafkaListenerContainerFactory;
 import org.springframework.kafka.core.ConsumerFactory;
 import org.springframework.kafka.core.DefaultKafkaConsumerFactory;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.core.MicrometerConsumerListener;
+import org.springframework.kafka.listener.ContainerProperties;
+import org.springframework.kafka.listener.DeadLetterPublishingRecoverer;
+import org.springframework.kafka.listener.DefaultErrorHandler;
 import org.springframework.kafka.support.serializer.ErrorHandlingDeserializer;
 import org.springframework.kafka.support.serializer.JsonDeserializer;
 
+import org.springframework.util.backoff.FixedBackOff;
+
 import java.util.HashMap;
 import java.util.Map;
 
@@ -23,6 +32,28 @@ public class KafkaConsumerConfig {
     @Value("${spring.kafka.bootstrap-servers:localhost:9092}")
     private String bootstrapServers;
 
+    // Listener threads per topic; only useful up to the topic's partition count
+    @Value("${app.kafka.consumer.validation-responses.concurrency:3}")
+    private int validationResponsesConcurrency;
+
+    @Value("${app.kafka.consumer.validation-responses.max-poll-records:500}")
+    private int validationResponsesMaxPollRecords;
+
+    @Value("${app.kafka.consumer.validation-responses.retry-interval-ms:1000}")
+    private long validationResponsesRetryIntervalMs;
+
+    @Value("${app.kafka.consumer.validation-responses.max-retries:3}")
+    private long validationResponsesMaxRetries;
+
+    @Value("${app.kafka.consumer.lab-session-ready.concurrency:3}")
+    private int labSessionReadyConcurrency;
+
+    private final MeterRegistry meterRegistry;
+
+    public KafkaConsumerConfig(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
     @Bean
     public ConsumerFactory<String, String> consumerFactory() {
         Map<String, Object> props = new HashMap<>();
@@ -31,7 +62,7 @@ public class KafkaConsumerConfig {
         props.put(ConsumerConfig.KEY_DESERIALIZER_CLASS_CONFIG, StringDeserializer.class);
         props.put(ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG, StringDeserializer.class);
         props.put(ConsumerConfig.AUTO_OFFSET_RESET_CONFIG, "earliest");
-        return new DefaultKafkaConsumerFactory<>(props);
+        return withMetrics(new DefaultKafkaConsumerFactory<>(props));
     }
 
     @Bean
@@ -42,6 +73,37 @@ public class KafkaConsumerConfig {
         return factory;
     }
 
+    @Bean
+    public ConsumerFactory<String, String> validationResponseConsumerFactory() {
+        Map<String, Object> props = new HashMap<>();
+        props.put(ConsumerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
+        props.put(ConsumerConfig.GROUP_ID_CONFIG, "cms-validation-group");
+        props.put(ConsumerConfig.KEY_DESERIALIZER_CLASS_CONFIG, StringDeserializer.class);
+        props.put(ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG, StringDeserializer.class);
+        props.put(ConsumerConfig.AUTO_OFFSET_RESET_CONFIG, "earliest");
+        props.put(ConsumerConfig.MAX_POLL_RECORDS_CONFIG, validationResponsesMaxPollRecords);
+        return withMetrics(new DefaultKafkaConsumerFactory<>(props));
+    }
+
+    // Batch mode: the listener gets everything returned by one poll and applies it in one transaction.
+    // The listener reports a bad record by index (BatchListenerFailedException): the records before
+    // it are committed, it is retried a few times and then published to <topic>.DLT.
+    @Bean
+    public ConcurrentKafkaListenerContainerFactory<String, String> validationResponseBatchListenerContainerFactory(
+            KafkaTemplate<String, String> outboxKafkaTemplate) {
+        ConcurrentKafkaListenerContainerFactory<String, String> factory =
+            new ConcurrentKafkaListenerContainerFactory<>();
+        factory.setConsumerFactory(validationResponseConsumerFactory());
+        factory.setBatchListener(true);
+        factory.setConcurrency(validationResponsesConcurrency);
+        DefaultErrorHandler errorHandler = new DefaultErrorHandler(
+                new DeadLetterPublishingRecoverer(outboxKafkaTemplate),
+                new FixedBackOff(validationResponsesRetryIntervalMs, validationResponsesMaxRetries));
+        errorHandler.addNotRetryableExceptions(JsonProcessingException.class);
+        factory.setCommonErrorHandler(errorHandler);
+        return factory;
+    }
+
     @Bean
     public ConsumerFactory<String, LabSessionReadyEvent> labSessionReadyConsumerFactory() {
         Map<String, Object> props = new HashMap<>();
@@ -55,7 +117,7 @@ public class KafkaConsumerConfig {
         props.put(JsonDeserializer.USE_TYPE_INFO_HEADERS, false);
         props.put(JsonDeserializer.VALUE_DEFAULT_TYPE, LabSessionReadyEvent.class.getName());
         props.put(ConsumerConfig.AUTO_OFFSET_RESET_CONFIG, "earliest");
-        return new DefaultKafkaConsumerFactory<>(props);
+        return withMetrics(new DefaultKafkaConsumerFactory<>(props));
     }
 
     @Bean
@@ -63,6 +125,35 @@ public class KafkaConsumerConfig {
         ConcurrentKafkaListenerContainerFactory<String, LabSessionReadyEvent> factory =
             new ConcurrentKafkaListenerContainerFactory<>();
         factory.setConsumerFactory(labSessionReadyConsumerFactory());
+        factory.setConcurrency(labSessionReadyConcurrency);
+        return factory;
+    }
+
+    // Broadcast consumption for WebSocket fan-out: each node uses its own throwaway group,
+    // starts from the latest offset and never commits, so restarts leave no state behind.
+    @Bean
+    public ConsumerFactory<String, String> labSessionEventBroadcastConsumerFactory() {
+        Map<String, Object> props = new HashMap<>();
+        props.put(ConsumerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
+        props.put(ConsumerConfig.KEY_DESERIALIZER_CLASS_CONFIG, StringDeserializer.class);
+        props.put(ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG, StringDeserializer.class);
+        props.put(ConsumerConfig.AUTO_OFFSET_RESET_CONFIG, "latest");
+        props.put(ConsumerConfig.ENABLE_AUTO_COMMIT_CONFIG, false);
+        return withMetrics(new DefaultKafkaConsumerFactory<>(props));
+    }
+
+    @Bean
+    public ConcurrentKafkaListenerContainerFactory<String, String> labSessionEventBroadcastContainerFactory() {
+        ConcurrentKafkaListenerContainerFactory<String, String> factory =
+            new ConcurrentKafkaListenerContainerFactory<>();
+        factory.setConsumerFactory(labSessionEventBroadcastConsumerFactory());
+        factory.getContainerProperties().setAckMode(ContainerProperties.AckMode.MANUAL);
+        return factory;
+    }
+
+    // Binds the Kafka client metrics (records-lag-max, fetch rates, ...) of every consumer to Micrometer
+    private <V> ConsumerFactory<String, V> withMetrics(DefaultKafkaConsumerFactory<String, V> factory) {
+        factory.addListener(new MicrometerConsumerListener<>(meterRegistry));
         return factory;
     }
 }
\ No newline at end of file
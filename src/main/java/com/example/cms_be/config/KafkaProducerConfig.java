@@ -1,10 +1,7 @@
 package com.example.cms_be.config;
 
 
-import com.example.cms_be.dto.lab.LabSessionCleanupRequest;
 import com.example.cms_be.dto.lab.LabTestRequest;
-import com.example.cms_be.dto.lab.UserLabSessionRequest;
-import com.example.cms_be.dto.lab.ValidationRequest;
 
 import org.apache.kafka.clients.producer.ProducerConfig;
 import org.apache.kafka.common.serialization.StringSerializer;
@@ -25,12 +22,45 @@ public class KafkaProducerConfig {
     @Value("${spring.kafka.bootstrap-servers:localhost:9092}")
     private String bootstrapServers;
 
+    @Value("${app.kafka.producer.linger-ms:10}")
+    private int lingerMs;
+
+    @Value("${app.kafka.producer.batch-size:65536}")
+    private int batchSize;
+
+    @Value("${app.kafka.producer.compression-type:lz4}")
+    private String compressionType;
+
+    @Value("${app.kafka.producer.delivery-timeout-ms:30000}")
+    private int deliveryTimeoutMs;
+
+    @Value("${app.kafka.producer.request-timeout-ms:10000}")
+    private int requestTimeoutMs;
+
+    @Value("${app.kafka.producer.max-block-ms:2000}")
+    private long maxBlockMs;
+
     private Map<String, Object> getCommonProducerProps() {
         Map<String, Object> configProps = new HashMap<>();
         configProps.put(ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
         configProps.put(ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG, StringSerializer.class);
         configProps.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, JsonSerializer.class);
         configProps.put(JsonSerializer.ADD_TYPE_INFO_HEADERS, false);
+
+        // Batching: wait a few ms so bursts (e.g. a whole class starting labs) share requests
+        configProps.put(ProducerConfig.LINGER_MS_CONFIG, lingerMs);
+        configProps.put(ProducerConfig.BATCH_SIZE_CONFIG, batchSize);
+        configProps.put(ProducerConfig.COMPRESSION_TYPE_CONFIG, compressionType);
+
+        // Idempotent producer: broker-side retries can't duplicate or reorder records per partition
+        configProps.put(ProducerConfig.ENABLE_IDEMPOTENCE_CONFIG, true);
+        configProps.put(ProducerConfig.ACKS_CONFIG, "all");
+        configProps.put(ProducerConfig.MAX_IN_FLIGHT_REQUESTS_PER_CONNECTION, 5);
+
+        // Retries are bounded by delivery.timeout.ms; send() never blocks a caller longer than max.block.ms
+        configProps.put(ProducerConfig.DELIVERY_TIMEOUT_MS_CONFIG, deliveryTimeoutMs);
+        configProps.put(ProducerConfig.REQUEST_TIMEOUT_MS_CONFIG, requestTimeoutMs);
+        configProps.put(ProducerConfig.MAX_BLOCK_MS_CONFIG, maxBlockMs);
         return configProps;
     }
 
@@ -44,31 +74,16 @@ public class KafkaProducerConfig {
         return new KafkaTemplate<>(labTestRequestProducerFactory());
     }
 
+    // Outbox rows already hold the JSON body, so the relay sends them as plain strings
     @Bean
-    public ProducerFactory<String, UserLabSessionRequest> userLabSessionRequestProducerFactory() {
-        return new DefaultKafkaProducerFactory<>(getCommonProducerProps());
-    }
-
-    @Bean
-    public KafkaTemplate<String, UserLabSessionRequest> userLabSessionKafkaTemplate() {
-        return new KafkaTemplate<>(userLabSessionRequestProducerFactory());
-    }
-
-    @Bean
-    public ProducerFactory<String, ValidationRequest> validationRequestProducerFactory() {
-        return new DefaultKafkaProducerFactory<>(getCommonProducerProps());
-    }
-    @Bean
-    public KafkaTemplate<String, ValidationRequest> validationRequestKafkaTemplate() {
-        return new KafkaTemplate<>(validationRequestProducerFactory());
-    }
-     @Bean
-    public ProducerFactory<String, LabSessionCleanupRequest> cleanupRequestProducerFactory() {
-        return new DefaultKafkaProducerFactory<>(getCommonProducerProps());
+    public ProducerFactory<String, String> outboxProducerFactory() {
+        Map<String, Object> configProps = getCommonProducerProps();
+        configProps.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, StringSerializer.class);
+        return new DefaultKafkaProducerFactory<>(configProps);
     }
 
     @Bean
-    public KafkaTemplate<String, LabSessionCleanupRequest> cleanupRequestKafkaTemplate() {
-        return new KafkaTemplate<>(cleanupRequestProducerFactory());
+    public KafkaTemplate<String, String> outboxKafkaTemplate() {
+        return new KafkaTemplate<>(outboxProducerFactory());
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,87 @@
+package com.example.cms_be.config;
+
+import java.util.List;
+
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.example.cms_be.constant.LabSessionStatus;
+import com.example.cms_be.dto.lab.LabSessionCleanupRequest;
+import com.example.cms_be.kafka.LabSessionCleanupProducer;
+import com.example.cms_be.service.LabCapacityService;
+import com.example.cms_be.service.LabTemplateCache;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Database-level invariant "at most one non-completed session per (course_user, lab)".
+ * Partial indexes cannot be expressed with JPA's @Index, so it is created here right after
+ * Hibernate has updated the schema and before any request is served. Session creation relies
+ * on it through INSERT ... ON CONFLICT.
+ */
+@Component
+@DependsOn("entityManagerFactory")
+@Slf4j
+@RequiredArgsConstructor
+public class LabSessionConstraintInitializer implements InitializingBean {
+
+    public static final String ACTIVE_SESSION_INDEX = "uq_uls_active_course_user_lab";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final LabSessionCleanupProducer cleanupProducer;
+    private final LabCapacityService labCapacityService;
+    private final LabTemplateCache labTemplateCache;
+
+    private record CompletedDuplicate(Integer id, Integer labId, String vmName, String namespace, String previousStatus) {}
+
+    @Override
+    public void afterPropertiesSet() {
+        // Duplicates created before the index existed would make CREATE UNIQUE INDEX fail;
+        // the newest session of each pair is kept, older ones are completed. Their VMs are
+        // torn down through the cleanup outbox in the same transaction.
+        List<CompletedDuplicate> resolved = transactionTemplate.execute(status -> completeDuplicates());
+        if (resolved != null && !resolved.isEmpty()) {
+            log.warn("Completed {} duplicate active lab sessions before creating {}", resolved.size(), ACTIVE_SESSION_INDEX);
+        }
+        jdbcTemplate.execute("CREATE UNIQUE INDEX IF NOT EXISTS " + ACTIVE_SESSION_INDEX +
+                " ON user_lab_sessions (course_user_id, lab_id) WHERE status <> 'COMPLETED'");
+    }
+
+    private List<CompletedDuplicate> completeDuplicates() {
+        List<CompletedDuplicate> resolved = jdbcTemplate.query(
+                "WITH dup AS (" +
+                "  SELECT id, status FROM user_lab_sessions " +
+                "  WHERE status <> 'COMPLETED' AND id NOT IN (" +
+                "    SELECT DISTINCT ON (course_user_id, lab_id) id FROM user_lab_sessions " +
+                "    WHERE status <> 'COMPLETED' ORDER BY course_user_id, lab_id, created_at DESC, id DESC" +
+                "  ) FOR UPDATE" +
+                ") " +
+                "UPDATE user_lab_sessions uls SET status = 'COMPLETED', expires_at = now(), version = uls.version + 1 " +
+                "FROM dup, labs l " +
+                "WHERE uls.id = dup.id AND l.id = uls.lab_id " +
+                "RETURNING uls.id, uls.lab_id, uls.vm_name, l.namespace, dup.status",
+                (rs, rowNum) -> new CompletedDuplicate(rs.getInt(1), rs.getInt(2), rs.getString(3), rs.getString(4), rs.getString(5)));
+
+        List<CompletedDuplicate> withVm = resolved.stream()
+                .filter(duplicate -> LabSessionStatus.of(duplicate.previousStatus()).holdsCapacity())
+                .toList();
+        if (withVm.isEmpty()) {
+            return resolved;
+        }
+        cleanupProducer.sendCleanupRequests(withVm.stream()
+                .map(duplicate -> LabSessionCleanupRequest.builder()
+                        .labSessionId(duplicate.id())
+                        .vmName(duplicate.vmName() != null ? duplicate.vmName() : "vm-" + duplicate.id())
+                        .namespace(duplicate.namespace())
+                        .build())
+                .toList());
+        withVm.forEach(duplicate ->
+                labCapacityService.releaseAfterCommit(labTemplateCache.get(duplicate.labId()).instanceType()));
+        return resolved;
+    }
+}
@@ -0,0 +1,51 @@
+package com.example.cms_be.config;
+
+import java.util.List;
+
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Trigram (pg_trgm) GIN indexes behind the keyword searches of the listing endpoints. They let
+ * PostgreSQL answer {@code ILIKE '%keyword%'} from the index instead of scanning the table.
+ * Expression indexes must match the expressions used in the repository queries exactly.
+ */
+@Component
+@DependsOn("entityManagerFactory")
+@Slf4j
+@RequiredArgsConstructor
+public class SearchIndexInitializer implements InitializingBean {
+
+    private static final List<String> INDEXES = List.of(
+            "CREATE INDEX IF NOT EXISTS idx_labs_title_trgm ON labs USING gin (title gin_trgm_ops)",
+            "CREATE INDEX IF NOT EXISTS idx_courses_title_trgm ON courses USING gin (title gin_trgm_ops)",
+            "CREATE INDEX IF NOT EXISTS idx_users_username_trgm ON users USING gin (username gin_trgm_ops)",
+            "CREATE INDEX IF NOT EXISTS idx_users_full_name_trgm ON users USING gin "
+                    + "((COALESCE(first_name, '') || ' ' || COALESCE(last_name, '')) gin_trgm_ops)",
+            "CREATE INDEX IF NOT EXISTS idx_questions_question_trgm ON questions USING gin (question gin_trgm_ops)"
+    );
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Override
+    public void afterPropertiesSet() {
+        try {
+            jdbcTemplate.execute("CREATE EXTENSION IF NOT EXISTS pg_trgm");
+        } catch (Exception e) {
+            log.error("Could not enable pg_trgm, keyword search will not work until it is installed: {}", e.getMessage());
+            return;
+        }
+        for (String ddl : INDEXES) {
+            try {
+                jdbcTemplate.execute(ddl);
+            } catch (Exception e) {
+                log.error("Failed to create search index ({}): {}", ddl, e.getMessage());
+            }
+        }
+    }
+}
@@ -0,0 +1,128 @@
+package com.example.cms_be.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordingStream;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnThreading;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.kafka.config.ConcurrentKafkaListenerContainerFactory;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Extra wiring for {@code spring.threads.virtual.enabled=true}. Boot already switches Tomcat and
+ * the {@code @Scheduled} scheduler to virtual threads; this covers what it does not:
+ * our own Kafka listener factories, the connection pool (which becomes the real concurrency
+ * limit once request threads are cheap) and reporting of pinned carrier threads.
+ */
+@Configuration
+@ConditionalOnThreading(Threading.VIRTUAL)
+@Slf4j
+public class VirtualThreadConfig {
+
+    @Bean
+    public static BeanPostProcessor virtualThreadKafkaListenerPostProcessor() {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof ConcurrentKafkaListenerContainerFactory<?, ?> factory) {
+                    SimpleAsyncTaskExecutor executor = new SimpleAsyncTaskExecutor(beanName + "-");
+                    executor.setVirtualThreads(true);
+                    factory.getContainerProperties().setListenerTaskExecutor(executor);
+                }
+                return bean;
+            }
+        };
+    }
+
+    // Thousands of virtual request threads would otherwise queue on the pool for the full
+    // default 30s; keep the pool sized for the database and fail fast when it is saturated.
+    @Bean
+    public static BeanPostProcessor virtualThreadHikariPostProcessor(Environment environment) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessBeforeInitialization(Object bean, String beanName) {
+                if (bean instanceof HikariDataSource dataSource) {
+                    int maxPoolSize = environment.getProperty("app.datasource.virtual-threads.max-pool-size",
+                            Integer.class, Math.max(10, Runtime.getRuntime().availableProcessors() * 4));
+                    long connectionTimeoutMs = environment.getProperty("app.datasource.virtual-threads.connection-timeout-ms",
+                            Long.class, 5000L);
+                    dataSource.setMaximumPoolSize(maxPoolSize);
+                    dataSource.setMinimumIdle(maxPoolSize);
+                    dataSource.setConnectionTimeout(connectionTimeoutMs);
+                    log.info("Hikari pool sized for virtual threads: maximumPoolSize={}, connectionTimeout={}ms",
+                            maxPoolSize, connectionTimeoutMs);
+                }
+                return bean;
+            }
+        };
+    }
+
+    @Bean
+    public PinnedThreadMonitor pinnedThreadMonitor(MeterRegistry meterRegistry,
+                                                   @Value("${app.virtual-threads.pinned-threshold-ms:20}") long thresholdMs) {
+        return new PinnedThreadMonitor(meterRegistry, Duration.ofMillis(thresholdMs));
+    }
+
+    /**
+     * Streams the JFR {@code jdk.VirtualThreadPinned} event, emitted when a virtual thread blocks
+     * while pinned to its carrier (typically inside a {@code synchronized} block), and logs the
+     * offending frames so the path can be moved to a {@code ReentrantLock}.
+     */
+    @Slf4j
+    public static class PinnedThreadMonitor implements InitializingBean, DisposableBean {
+
+        private static final int LOGGED_FRAMES = 8;
+
+        private final MeterRegistry meterRegistry;
+        private final Duration threshold;
+        private RecordingStream recordingStream;
+
+        public PinnedThreadMonitor(MeterRegistry meterRegistry, Duration threshold) {
+            this.meterRegistry = meterRegistry;
+            this.threshold = threshold;
+        }
+
+        @Override
+        public void afterPropertiesSet() {
+            recordingStream = new RecordingStream();
+            recordingStream.enable("jdk.VirtualThreadPinned").withThreshold(threshold).withStackTrace();
+            recordingStream.onEvent("jdk.VirtualThreadPinned", this::onPinned);
+            recordingStream.startAsync();
+            log.info("Virtual thread pinning monitor started (threshold={}ms)", threshold.toMillis());
+        }
+
+        private void onPinned(RecordedEvent event) {
+            meterRegistry.counter("jvm.threads.virtual.pinned").increment();
+            String frames = "";
+            if (event.getStackTrace() != null) {
+                List<RecordedFrame> top = event.getStackTrace().getFrames().stream().limit(LOGGED_FRAMES).toList();
+                frames = top.stream()
+                        .map(frame -> frame.getMethod().getType().getName() + "." + frame.getMethod().getName()
+                                + ":" + frame.getLineNumber())
+                        .collect(Collectors.joining("\n\tat "));
+            }
+            log.warn("Virtual thread pinned for {}ms:\n\tat {}", event.getDuration().toMillis(), frames);
+        }
+
+        @Override
+        public void destroy() {
+            if (recordingStream != null) {
+                recordingStream.close();
+            }
+        }
+    }
+}
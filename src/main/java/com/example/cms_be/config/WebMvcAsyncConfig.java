@@ -0,0 +1,19 @@
+package com.example.cms_be.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.AsyncSupportConfigurer;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+// StreamingResponseBody exports of whole courses can outlive the container's default async timeout
+@Configuration
+public class WebMvcAsyncConfig implements WebMvcConfigurer {
+
+    @Value("${app.export.async-timeout-ms:1800000}")
+    private long asyncTimeoutMs;
+
+    @Override
+    public void configureAsyncSupport(AsyncSupportConfigurer configurer) {
+        configurer.setDefaultTimeout(asyncTimeoutMs);
+    }
+}
@@ -0,0 +1,49 @@
+package com.example.cms_be.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.messaging.simp.config.ChannelRegistration;
+import org.springframework.messaging.simp.config.MessageBrokerRegistry;
+import org.springframework.web.socket.config.annotation.EnableWebSocketMessageBroker;
+import org.springframework.web.socket.config.annotation.StompEndpointRegistry;
+import org.springframework.web.socket.config.annotation.WebSocketMessageBrokerConfigurer;
+
+import com.example.cms_be.security.jwt.StompAuthChannelInterceptor;
+
+import lombok.RequiredArgsConstructor;
+
+/**
+ * STOMP endpoint for lab status pushes. Subscriptions:
+ * /topic/lab-sessions/{labSessionId} (session status and validation results) and
+ * /topic/users/{userId}/lab-sessions (status of any of the user's sessions) and
+ * /topic/backing-images (Longhorn backing image state and download progress).
+ * The in-memory broker is per node; cross-node fan-out goes through Kafka.
+ * CONNECT needs a JWT and per-user subscriptions are checked, see {@link StompAuthChannelInterceptor}.
+ */
+@Configuration
+@EnableWebSocketMessageBroker
+@RequiredArgsConstructor
+public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
+
+    private final StompAuthChannelInterceptor stompAuthChannelInterceptor;
+
+    // Only the frontend may open the socket unless more origins are listed explicitly
+    @Value("${app.websocket.allowed-origins:${app.frontend.origin:http://localhost:3000}}")
+    private String[] allowedOrigins;
+
+    @Override
+    public void registerStompEndpoints(StompEndpointRegistry registry) {
+        registry.addEndpoint("/ws").setAllowedOriginPatterns(allowedOrigins);
+    }
+
+    @Override
+    public void configureMessageBroker(MessageBrokerRegistry registry) {
+        registry.enableSimpleBroker("/topic");
+        registry.setApplicationDestinationPrefixes("/app");
+    }
+
+    @Override
+    public void configureClientInboundChannel(ChannelRegistration registration) {
+        registration.interceptors(stompAuthChannelInterceptor);
+    }
+}
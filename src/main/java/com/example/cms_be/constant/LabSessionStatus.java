@@ -0,0 +1,47 @@
+package com.example.cms_be.constant;
+
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Lifecycle of a UserLabSession: QUEUED -> PENDING -> RUNNING -> COMPLETED, with COMPLETED
+ * reachable from every non-terminal state. The column stays a plain string; transitions are
+ * applied with conditional updates whose WHERE clause is {@link #sourcesOf(LabSessionStatus...)}.
+ */
+public enum LabSessionStatus {
+    QUEUED,
+    PENDING,
+    RUNNING,
+    COMPLETED;
+
+    public boolean canTransitionTo(LabSessionStatus target) {
+        return switch (target) {
+            case QUEUED -> false;
+            case PENDING -> this == QUEUED;
+            case RUNNING -> this == PENDING;
+            case COMPLETED -> this != COMPLETED;
+        };
+    }
+
+    // A VM is requested or running, so the session holds cluster capacity
+    public boolean holdsCapacity() {
+        return this == PENDING || this == RUNNING;
+    }
+
+    public static LabSessionStatus of(String status) {
+        return valueOf(status);
+    }
+
+    // Statuses a transition may start from, restricted to the given subset when one is passed
+    public static List<String> sourcesOf(LabSessionStatus target, LabSessionStatus... restrictTo) {
+        Set<LabSessionStatus> candidates = restrictTo.length == 0
+                ? EnumSet.allOf(LabSessionStatus.class)
+                : EnumSet.copyOf(Arrays.asList(restrictTo));
+        return candidates.stream()
+                .filter(source -> source.canTransitionTo(target))
+                .map(Enum::name)
+                .toList();
+    }
+}
@@ -0,0 +1,61 @@
+package com.example.cms_be.controller;
+
+import java.util.Map;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.example.cms_be.service.CatalogSearchService;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+@RestController
+@RequestMapping("/api/search")
+@Slf4j
+@RequiredArgsConstructor
+public class CatalogSearchController {
+
+    private static final int MAX_AUTOCOMPLETE_LIMIT = 50;
+
+    private final CatalogSearchService catalogSearchService;
+
+    @GetMapping("/autocomplete")
+    public ResponseEntity<?> autocomplete(
+            @RequestParam String type,
+            @RequestParam(name = "q") String query,
+            @RequestParam(defaultValue = "10") int limit,
+            @RequestParam(required = false) Boolean isActive,
+            @RequestParam(required = false) String roleName,
+            @RequestParam(required = false) Integer labId,
+            @RequestParam(required = false) Integer courseId,
+            @RequestParam(required = false) Integer notInCourseId
+    ) {
+        try {
+            int cappedLimit = Math.max(1, Math.min(limit, MAX_AUTOCOMPLETE_LIMIT));
+            return ResponseEntity.ok(Map.of("data", catalogSearchService.autocomplete(
+                    type, query, cappedLimit, isActive, roleName, labId, courseId, notInCourseId)));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        } catch (Exception e) {
+            log.error("Error running autocomplete for type {}: {}", type, e.getMessage());
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    @PostMapping("/rebuild")
+    public ResponseEntity<?> rebuild() {
+        try {
+            catalogSearchService.rebuild();
+            return ResponseEntity.ok(catalogSearchService.getIndexSizes());
+        } catch (Exception e) {
+            log.error("Error rebuilding catalog search index: {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(Map.of("error", e.getMessage()));
+        }
+    }
+}
@@ -1,6 +1,8 @@
 package com.example.cms_be.controller;
 
+import com.example.cms_be.constant.ExportFormat;
 import com.example.cms_be.dto.CourseDetailResponse;
+import com.example.cms_be.dto.course.BulkEnrollmentResult;
 import com.example.cms_be.dto.course.CreateCourseRequest;
 import com.example.cms_be.dto.course.DashboardDTO;
 import com.example.cms_be.dto.lab.LabDTO;
@@ -11,17 +13,19 @@ import org.springframework.web.bind.annotation.RestController;
 
 import com.example.cms_be.model.Course;
 import com.example.cms_be.model.CourseLab;
-import com.example.cms_be.model.CourseUser;
 import com.example.cms_be.model.Lab;
 import com.example.cms_be.service.CourseLabService;
 import com.example.cms_be.service.CourseService;
 import com.example.cms_be.service.CourseUserService;
 import com.example.cms_be.service.LabService;
 import com.example.cms_be.service.DashboardService;
+import com.example.cms_be.service.ExportService;
 import com.example.cms_be.service.UserService;
 
+import jakarta.persistence.EntityNotFoundException;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import java.io.InputStream;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -54,6 +58,7 @@ public class CourseController {
     private final UserService userService;
 
     private final DashboardService dashboardService;
+    private final ExportService exportService;
    @GetMapping("")
     public ResponseEntity<?> getAllCourses(
             @RequestParam(name = "page", defaultValue = "1") int page,
@@ -95,6 +100,52 @@ public class CourseController {
         List<DashboardDTO> dashboard = dashboardService.getDashboard(courseId);
         return ResponseEntity.ok(dashboard);
     }
+
+    @GetMapping("/{courseId}/dashboard/export")
+    public ResponseEntity<?> exportDashboard(
+            @PathVariable Integer courseId,
+            @RequestParam(defaultValue = "csv") String format,
+            @RequestParam(defaultValue = "false") boolean gzip
+    ) {
+        try {
+            return exportService.exportCourseDashboard(courseId, ExportFormat.of(format), gzip).toResponseEntity();
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        } catch (EntityNotFoundException e) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    @GetMapping("/{courseId}/sessions/export")
+    public ResponseEntity<?> exportSessions(
+            @PathVariable Integer courseId,
+            @RequestParam(defaultValue = "csv") String format,
+            @RequestParam(defaultValue = "false") boolean gzip
+    ) {
+        try {
+            return exportService.exportCourseSessions(courseId, ExportFormat.of(format), gzip).toResponseEntity();
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        } catch (EntityNotFoundException e) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    @PostMapping("/{courseId}/dashboard/rebuild")
+    public ResponseEntity<?> rebuildDashboard(@PathVariable Integer courseId) {
+        try {
+            int rebuilt = dashboardService.rebuildDashboard(courseId);
+            return ResponseEntity.ok(Map.of(
+                "message", "Dashboard statistics rebuilt successfully",
+                "courseId", courseId,
+                "rebuiltRows", rebuilt
+            ));
+        } catch (Exception e) {
+            log.error("Error rebuilding dashboard for course {}: {}", courseId, e.getMessage());
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                .body(Map.of("error", e.getMessage()));
+        }
+    }
     @GetMapping("/{courseId}")
     public ResponseEntity<?> getCourseById(@PathVariable Integer courseId) {
         try {
@@ -271,20 +322,51 @@ public class CourseController {
 
 
     @PostMapping("/{courseId}/users")
-    public ResponseEntity<List<CourseUser>> addUserToCourse(
+    public ResponseEntity<?> addUserToCourse(
             @PathVariable Integer courseId, 
             @RequestBody List<Integer> userIds)
     {
         try {
-            List<CourseUser> enrollments = courseUserService.createListEnrollment(courseId, userIds);
-            return ResponseEntity.status(HttpStatus.CREATED).body(enrollments);
+            BulkEnrollmentResult result = courseUserService.enrollUsers(courseId, userIds);
+            return ResponseEntity.status(HttpStatus.CREATED).body(result);
             
+        } catch (EntityNotFoundException e) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(Map.of("error", e.getMessage()));
         } catch (Exception e) {
             log.error("Error adding users to course: {}", e.getMessage());
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
         }
     }
 
+    // Roster body: one username or email per line (CSV files are read by their first column)
+    @PostMapping("/{courseId}/users/roster")
+    public ResponseEntity<?> addRosterToCourse(@PathVariable Integer courseId, InputStream roster) {
+        try {
+            BulkEnrollmentResult result = courseUserService.enrollRoster(courseId, roster);
+            return ResponseEntity.status(HttpStatus.CREATED).body(result);
+        } catch (EntityNotFoundException e) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(Map.of("error", e.getMessage()));
+        } catch (Exception e) {
+            log.error("Error enrolling roster to course {}: {}", courseId, e.getMessage());
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    @DeleteMapping("/{courseId}/users")
+    public ResponseEntity<?> removeUsersFromCourse(
+            @PathVariable Integer courseId,
+            @RequestBody List<Integer> userIds
+    ) {
+        try {
+            return ResponseEntity.ok(courseUserService.unenrollUsers(courseId, userIds));
+        } catch (EntityNotFoundException e) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(Map.of("error", e.getMessage()));
+        } catch (Exception e) {
+            log.error("Error removing users from course {}: {}", courseId, e.getMessage());
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(Map.of("error", e.getMessage()));
+        }
+    }
+
 
 
     @PatchMapping("/{courseId}")
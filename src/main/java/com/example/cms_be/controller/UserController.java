@@ -5,16 +5,20 @@ import org.springframework.web.bind.annotation.RestController;
 
 import com.example.cms_be.dto.user.CreateUserRequest;
 import com.example.cms_be.dto.user.UserDTO;
+import com.example.cms_be.dto.user.UserImportResult;
 import com.example.cms_be.model.User;
+import com.example.cms_be.service.UserImportService;
 import com.example.cms_be.service.UserService;
 
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 
+import java.io.InputStream;
 import java.util.Map;
 
 import org.springframework.data.domain.*;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.DeleteMapping;
@@ -23,6 +27,7 @@ import org.springframework.web.bind.annotation.PatchMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestParam;
 
 @Slf4j
@@ -32,6 +37,7 @@ import org.springframework.web.bind.annotation.RequestParam;
 public class UserController {
 
     private final UserService userService;
+    private final UserImportService userImportService;
 
     @GetMapping()
     public ResponseEntity<?> getAllUserWithPagination(
@@ -83,6 +89,23 @@ public class UserController {
         }
     }
 
+    // Body is streamed: text/csv with a header row, or application/x-ndjson with one object per line
+    @PostMapping("/import")
+    public ResponseEntity<?> importUsers(
+            @RequestHeader(value = HttpHeaders.CONTENT_TYPE, required = false) String contentType,
+            @RequestParam(defaultValue = "ROLE_STUDENT") String defaultRole,
+            InputStream body
+    ) {
+        boolean ndjson = contentType != null && contentType.toLowerCase().contains("json");
+        try {
+            UserImportResult result = userImportService.importUsers(body, ndjson, defaultRole);
+            return ResponseEntity.ok(result);
+        } catch (Exception e) {
+            log.error("Error importing users: {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(Map.of("error", e.getMessage()));
+        }
+    }
+
     @PatchMapping("/{userId}")
     public ResponseEntity<User> updateUser(
             @PathVariable Integer userId,
@@ -1,19 +1,25 @@
 package com.example.cms_be.controller;
 import java.nio.file.AccessDeniedException;
+import java.time.LocalDateTime;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 
-import com.example.cms_be.dto.LabSessionHistoryResponse;
+import com.example.cms_be.constant.ExportFormat;
+import com.example.cms_be.dto.LabSessionHistoryPage;
 import com.example.cms_be.dto.LabSessionStatisticResponse;
 import com.example.cms_be.dto.SubmissionDetailDTO;
 import com.example.cms_be.model.Submission;
+import com.example.cms_be.service.ExportService;
+import com.example.cms_be.service.LabCapacityService;
+import com.example.cms_be.service.LabWaitingRoomService;
 import com.example.cms_be.service.SubmissionService;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.data.domain.*;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
@@ -25,6 +31,9 @@ import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
 import com.example.cms_be.dto.CreateLabSessionRequest;
+import com.example.cms_be.dto.lab.BulkLabSessionRequest;
+import com.example.cms_be.dto.lab.BulkLabSessionResponse;
+import com.example.cms_be.dto.lab.QueueStatus;
 import com.example.cms_be.dto.lab.UserLabSessionResponse;
 import com.example.cms_be.model.UserLabSession;
 import com.example.cms_be.service.UserLabSessionService;
@@ -44,74 +53,101 @@ public class UserLabSessionController {
     
     private final UserLabSessionService userLabSessionService;
     private final SubmissionService submissionService;
+    private final LabCapacityService labCapacityService;
+    private final LabWaitingRoomService labWaitingRoomService;
+    private final ExportService exportService;
     
     @Value("${infrastructure.service.websocket.student-url}")
     private String infrastructureWebSocketUrl;
 
     private final String COMPLETED_STATUS = "COMPLETED";
+    private final String QUEUED_STATUS = "QUEUED";
+    private static final int MAX_HISTORY_PAGE_SIZE = 100;
 
 
     // history for admin
 
     @GetMapping("/admin/history")
     public ResponseEntity<?> getHistorySession(
-            @RequestParam(defaultValue = "1") int page,
+            @RequestParam(value = "userId") Integer userId,
+            @RequestParam(value = "keyword", required = false) String keyword,
+            @RequestParam(value = "from", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(value = "to", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(value = "cursor", required = false) String cursor,
             @RequestParam(defaultValue = "10") int pageSize,
-            @RequestParam(value = "userId") Integer userId, 
-            @RequestParam(value="keyword", required=false) String keyword
+            @RequestParam(defaultValue = "false") boolean includeTotal
     ) {
-        try {
-
-            Integer currentUserId = userId;
-
-            int pageNumber = page > 0 ? page - 1 : 0;
-            Pageable pageable = PageRequest.of(pageNumber, pageSize);
-
-            Page<LabSessionHistoryResponse> history = userLabSessionService.getListLabHistory(keyword,currentUserId, pageable);
-
-            Map<String, Object> response = new HashMap<>();
-            response.put("data", history.getContent());
-            response.put("currentPage", history.getNumber() + 1);
-            response.put("totalItems", history.getTotalElements());
-            response.put("totalPages", history.getTotalPages());
-
-            return ResponseEntity.ok(response);
-
-        } catch (Exception e) {
-            log.error("Error fetching history: {}", e.getMessage());
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(Map.of("error", "Lỗi server"));
-        }
+        return historyPage(userId, keyword, from, to, cursor, pageSize, includeTotal);
     }
 
-
-
-
     // history for user
 
     @GetMapping("/history")
     public ResponseEntity<?> getListLabHistory(
-            @RequestParam(defaultValue = "1") int page,
+            @RequestHeader(value = "X-User-Id") Integer userId,
+            @RequestParam(value = "keyword", required = false) String keyword,
+            @RequestParam(value = "from", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(value = "to", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(value = "cursor", required = false) String cursor,
             @RequestParam(defaultValue = "10") int pageSize,
-            @RequestParam(value="keyword", required=false) String keyword,
-            @RequestHeader(value = "X-User-Id") Integer userId
+            @RequestParam(defaultValue = "false") boolean includeTotal
     ) {
-        try {
+        return historyPage(userId, keyword, from, to, cursor, pageSize, includeTotal);
+    }
 
-            Integer currentUserId = userId;
+    @GetMapping("/admin/history/export")
+    public ResponseEntity<?> exportHistorySession(
+            @RequestParam(value = "userId") Integer userId,
+            @RequestParam(value = "keyword", required = false) String keyword,
+            @RequestParam(value = "from", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(value = "to", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(defaultValue = "csv") String format,
+            @RequestParam(defaultValue = "false") boolean gzip
+    ) {
+        return historyExport(userId, keyword, from, to, format, gzip);
+    }
+
+    @GetMapping("/history/export")
+    public ResponseEntity<?> exportLabHistory(
+            @RequestHeader(value = "X-User-Id") Integer userId,
+            @RequestParam(value = "keyword", required = false) String keyword,
+            @RequestParam(value = "from", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(value = "to", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(defaultValue = "csv") String format,
+            @RequestParam(defaultValue = "false") boolean gzip
+    ) {
+        return historyExport(userId, keyword, from, to, format, gzip);
+    }
 
-            int pageNumber = page > 0 ? page - 1 : 0;
-            Pageable pageable = PageRequest.of(pageNumber, pageSize);
+    private ResponseEntity<?> historyExport(Integer userId, String keyword, LocalDateTime from, LocalDateTime to,
+                                            String format, boolean gzip) {
+        try {
+            return exportService.exportHistory(userId, keyword, from, to, ExportFormat.of(format), gzip).toResponseEntity();
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
 
-            Page<LabSessionHistoryResponse> history = userLabSessionService.getListLabHistory(keyword,currentUserId, pageable);
+    // Keyset pagination: pass back nextCursor to get the following page
+    private ResponseEntity<?> historyPage(Integer userId, String keyword, LocalDateTime from, LocalDateTime to,
+                                          String cursor, int pageSize, boolean includeTotal) {
+        try {
+            int size = Math.min(Math.max(pageSize, 1), MAX_HISTORY_PAGE_SIZE);
+            LabSessionHistoryPage history = userLabSessionService.getListLabHistory(
+                    userId, keyword, from, to, cursor, size, includeTotal);
 
             Map<String, Object> response = new HashMap<>();
-            response.put("data", history.getContent());
-            response.put("currentPage", history.getNumber() + 1);
-            response.put("totalItems", history.getTotalElements());
-            response.put("totalPages", history.getTotalPages());
+            response.put("data", history.data());
+            response.put("nextCursor", history.nextCursor());
+            response.put("hasMore", history.hasMore());
+            if (history.totalItems() != null) {
+                response.put("totalItems", history.totalItems());
+            }
 
             return ResponseEntity.ok(response);
 
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
         } catch (Exception e) {
             log.error("Error fetching history: {}", e.getMessage());
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(Map.of("error", "Lỗi server"));
@@ -174,8 +210,18 @@ public class UserLabSessionController {
             log.warn("!!! INSECURE !!! Using userId from request body: {}", userIdFromRequest);
             
             UserLabSession session = userLabSessionService.createAndStartSession(request.labId(), userIdFromRequest);
+
+            if (QUEUED_STATUS.equals(session.getStatus())) {
+                QueueStatus queueStatus = labWaitingRoomService.getQueueStatus(session);
+                Map<String, Object> queuedResponse = new HashMap<>();
+                queuedResponse.put("sessionId", session.getId());
+                queuedResponse.put("status", session.getStatus());
+                queuedResponse.put("queuePosition", queueStatus.position());
+                queuedResponse.put("etaSeconds", queueStatus.etaSeconds());
+                return ResponseEntity.status(HttpStatus.ACCEPTED).body(queuedResponse);
+            }
             
-            String vmName = "vm-" + session.getId();
+            String vmName = session.resolveVmName();
             String socketUrl = String.format("%s?podName=%s", infrastructureWebSocketUrl, vmName);
             
             log.info("Created lab session {} with socket URL: {}", session.getId(), socketUrl);
@@ -200,6 +246,30 @@ public class UserLabSessionController {
     }
 
 
+    @GetMapping("/capacity")
+    public ResponseEntity<?> getCapacityHeadroom() {
+        try {
+            return ResponseEntity.ok(labCapacityService.getHeadroom());
+        } catch (Exception e) {
+            log.error("Error fetching lab capacity: {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(Map.of("error", "Lỗi server"));
+        }
+    }
+
+    @PostMapping("/bulk")
+    public ResponseEntity<?> createLabSessionsInBulk(@Valid @RequestBody BulkLabSessionRequest request) {
+        try {
+            BulkLabSessionResponse response = userLabSessionService.createSessionsInBulk(request.labId(), request.userIds());
+            return ResponseEntity.status(HttpStatus.ACCEPTED).body(response);
+        } catch (EntityNotFoundException e) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(Map.of("error", e.getMessage()));
+        } catch (Exception e) {
+            log.error("Failed to bulk create lab sessions for labId {}: {}", request.labId(), e.getMessage(), e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(Map.of("error", "Lỗi hệ thống."));
+        }
+    }
+
+
      @GetMapping("/{id}")
     public ResponseEntity<?> getLabSessionStatus(@PathVariable Integer id) {
         try {
@@ -211,6 +281,11 @@ public class UserLabSessionController {
             response.put("status", session.getStatus());
             response.put("podName", session.getPodName());
             response.put("expiresAt", session.getExpiresAt());
+            if (QUEUED_STATUS.equals(session.getStatus())) {
+                QueueStatus queueStatus = labWaitingRoomService.getQueueStatus(session);
+                response.put("queuePosition", queueStatus.position());
+                response.put("etaSeconds", queueStatus.etaSeconds());
+            }
 
             return ResponseEntity.ok(response);
 
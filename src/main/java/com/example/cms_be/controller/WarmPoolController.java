@@ -0,0 +1,89 @@
+package com.example.cms_be.controller;
+
+import java.util.Map;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.example.cms_be.dto.lab.WarmPoolScheduleRequest;
+import com.example.cms_be.model.LabWarmPoolSchedule;
+import com.example.cms_be.service.WarmPoolService;
+
+import jakarta.persistence.EntityNotFoundException;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+@RestController
+@RequestMapping("/api/labs/{labId}/warm-pool")
+@Slf4j
+@RequiredArgsConstructor
+public class WarmPoolController {
+
+    private final WarmPoolService warmPoolService;
+
+    @GetMapping("")
+    public ResponseEntity<?> getWarmPool(@PathVariable Integer labId) {
+        try {
+            return ResponseEntity.ok(warmPoolService.getPoolStatus(labId));
+        } catch (EntityNotFoundException e) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(Map.of("error", e.getMessage()));
+        } catch (Exception e) {
+            log.error("Error fetching warm pool of lab {}: {}", labId, e.getMessage());
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    @PutMapping("")
+    public ResponseEntity<?> setWarmPoolSize(@PathVariable Integer labId, @RequestBody Map<String, Integer> body) {
+        Integer size = body.get("size");
+        if (size == null || size < 0) {
+            return ResponseEntity.badRequest().body(Map.of("error", "size phai la so khong am"));
+        }
+        try {
+            warmPoolService.setPoolSize(labId, size);
+            return ResponseEntity.ok(warmPoolService.getPoolStatus(labId));
+        } catch (EntityNotFoundException e) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(Map.of("error", e.getMessage()));
+        } catch (Exception e) {
+            log.error("Error updating warm pool size of lab {}: {}", labId, e.getMessage());
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    @PostMapping("/schedules")
+    public ResponseEntity<?> addSchedule(@PathVariable Integer labId, @Valid @RequestBody WarmPoolScheduleRequest request) {
+        try {
+            LabWarmPoolSchedule schedule = warmPoolService.addSchedule(labId, request);
+            return ResponseEntity.status(HttpStatus.CREATED).body(schedule);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        } catch (EntityNotFoundException e) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(Map.of("error", e.getMessage()));
+        } catch (Exception e) {
+            log.error("Error adding warm pool schedule for lab {}: {}", labId, e.getMessage());
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    @DeleteMapping("/schedules/{scheduleId}")
+    public ResponseEntity<?> deleteSchedule(@PathVariable Integer labId, @PathVariable Integer scheduleId) {
+        try {
+            warmPoolService.deleteSchedule(labId, scheduleId);
+            return ResponseEntity.noContent().build();
+        } catch (EntityNotFoundException e) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(Map.of("error", e.getMessage()));
+        } catch (Exception e) {
+            log.error("Error deleting warm pool schedule {}: {}", scheduleId, e.getMessage());
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(Map.of("error", e.getMessage()));
+        }
+    }
+}
@@ -0,0 +1,9 @@
+package com.example.cms_be.dto;
+
+// Pushed to /topic/backing-images when an image appears, changes state/progress or is deleted
+public record BackingImageEvent(String type, BackingImageDTO image) {
+
+    public static final String ADDED = "ADDED";
+    public static final String UPDATED = "UPDATED";
+    public static final String DELETED = "DELETED";
+}
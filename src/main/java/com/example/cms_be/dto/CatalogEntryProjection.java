@@ -0,0 +1,10 @@
+package com.example.cms_be.dto;
+
+public interface CatalogEntryProjection {
+    Integer getId();
+    String getLabel();
+    String getSearchText();
+    Boolean getActive();
+    String getTag();
+    Integer getParentId();
+}
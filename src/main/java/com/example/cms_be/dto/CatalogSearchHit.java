@@ -0,0 +1,8 @@
+package com.example.cms_be.dto;
+
+public record CatalogSearchHit(
+        String type,
+        Integer id,
+        String label,
+        boolean active
+) {}
@@ -0,0 +1,20 @@
+package com.example.cms_be.dto;
+
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+public record ExportDownload(
+        String filename,
+        String contentType,
+        StreamingResponseBody body
+) {
+    public ResponseEntity<StreamingResponseBody> toResponseEntity() {
+        return ResponseEntity.ok()
+                .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment().filename(filename).build().toString())
+                .contentType(MediaType.parseMediaType(contentType))
+                .body(body);
+    }
+}
@@ -0,0 +1,11 @@
+package com.example.cms_be.dto;
+
+import java.util.List;
+
+// totalItems is only filled when the caller asked for it
+public record LabSessionHistoryPage(
+        List<LabSessionHistoryResponse> data,
+        String nextCursor,
+        boolean hasMore,
+        Long totalItems
+) {}
@@ -0,0 +1,12 @@
+package com.example.cms_be.dto;
+
+import java.time.LocalDateTime;
+
+public interface LabSessionHistoryProjection {
+    Integer getSessionId();
+    String getLabTitle();
+    String getStatus();
+    LocalDateTime getStartAt();
+    LocalDateTime getCompletedAt();
+    LocalDateTime getCreatedAt();
+}
@@ -7,5 +7,6 @@ public record LabSessionHistoryResponse(
         String labTitle,
         String status,
         LocalDateTime startAt,
-        LocalDateTime completedAt
-) {}
\ No newline at end of file
+        LocalDateTime completedAt,
+        LocalDateTime createdAt
+) {}
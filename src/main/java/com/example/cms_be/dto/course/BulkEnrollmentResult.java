@@ -0,0 +1,11 @@
+package com.example.cms_be.dto.course;
+
+import java.util.List;
+
+public record BulkEnrollmentResult(
+        int requested,
+        int enrolled,
+        int alreadyEnrolled,
+        List<String> notFound,
+        boolean notFoundTruncated
+) {}
@@ -0,0 +1,16 @@
+package com.example.cms_be.dto.course;
+
+import java.time.LocalDateTime;
+
+public interface DashboardProjection {
+    Integer getRank();
+    Integer getUserId();
+    String getUsername();
+    String getFirstName();
+    String getLastName();
+    Integer getTotalScore();
+    Integer getCompletedLabs();
+    Integer getTotalAttempts();
+    Double getCompletionRate();
+    LocalDateTime getLastActivityAt();
+}
@@ -0,0 +1,11 @@
+package com.example.cms_be.dto.lab;
+
+import java.util.List;
+
+import jakarta.validation.constraints.NotNull;
+
+// userIds empty or missing = every student enrolled in the lab's course
+public record BulkLabSessionRequest(
+        @NotNull Integer labId,
+        List<Integer> userIds
+) {}
@@ -0,0 +1,12 @@
+package com.example.cms_be.dto.lab;
+
+import java.util.List;
+
+public record BulkLabSessionResponse(
+        Integer labId,
+        int requested,
+        int created,
+        int queued,
+        int skipped,
+        List<BulkLabSessionResult> results
+) {}
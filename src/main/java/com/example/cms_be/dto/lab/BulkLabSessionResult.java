@@ -0,0 +1,13 @@
+package com.example.cms_be.dto.lab;
+
+public record BulkLabSessionResult(
+        Integer userId,
+        String result,
+        Integer sessionId,
+        String socketUrl
+) {
+    public static final String CREATED = "CREATED";
+    public static final String SKIPPED_ACTIVE_SESSION = "SKIPPED_ACTIVE_SESSION";
+    public static final String NOT_ENROLLED = "NOT_ENROLLED";
+    public static final String QUEUED = "QUEUED";
+}
@@ -13,6 +13,7 @@ public class CreateLabRequest{
     private Integer estimatedTime;
     private Integer instanceTypeId;
     private Boolean isActive;
+    private Boolean examMode;
 }
 
 
@@ -0,0 +1,6 @@
+package com.example.cms_be.dto.lab;
+
+public interface CreatedSessionProjection {
+    Integer getId();
+    Integer getCourseUserId();
+}
@@ -0,0 +1,7 @@
+package com.example.cms_be.dto.lab;
+
+public interface LabEnrollmentProjection {
+    Integer getCourseUserId();
+    Integer getUserId();
+    Boolean getHasActiveSession();
+}
@@ -0,0 +1,15 @@
+package com.example.cms_be.dto.lab;
+
+// Everything needed to provision a VM for a lab, built once per lab and shared by
+// every session start / admin test until the lab, its steps or instance type change.
+public record LabProvisioningTemplate(
+    Integer labId,
+    String title,
+    String namespace,
+    Integer estimatedTimeMinutes,
+    Integer instanceTypeId,
+    InstanceTypeDTO instanceType,
+    String setupStepsJson,
+    int setupStepCount
+) {
+}
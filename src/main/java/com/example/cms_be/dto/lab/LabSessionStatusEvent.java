@@ -0,0 +1,18 @@
+package com.example.cms_be.dto.lab;
+
+import java.time.LocalDateTime;
+
+// Pushed to STOMP subscribers; type is SESSION_STATUS or VALIDATION_RESULT
+public record LabSessionStatusEvent(
+        String type,
+        Integer labSessionId,
+        Integer userId,
+        Integer labId,
+        String status,
+        Integer questionId,
+        Boolean correct,
+        LocalDateTime occurredAt
+) {
+    public static final String SESSION_STATUS = "SESSION_STATUS";
+    public static final String VALIDATION_RESULT = "VALIDATION_RESULT";
+}
@@ -0,0 +1,8 @@
+package com.example.cms_be.dto.lab;
+
+// Position is 1-based; etaSeconds is null until the waiting room has admitted something
+public record QueueStatus(
+        Integer sessionId,
+        long position,
+        Long etaSeconds
+) {}
@@ -0,0 +1,9 @@
+package com.example.cms_be.dto.lab;
+
+import java.time.LocalDateTime;
+
+public interface QueuedSessionProjection {
+    Integer getId();
+    Integer getLabId();
+    LocalDateTime getQueuedAt();
+}
@@ -0,0 +1,7 @@
+package com.example.cms_be.dto.lab;
+
+public interface ReservedResourcesProjection {
+    Long getCpuCores();
+    Long getMemoryGb();
+    Long getStorageGb();
+}
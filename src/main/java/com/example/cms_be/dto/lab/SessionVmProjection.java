@@ -0,0 +1,8 @@
+package com.example.cms_be.dto.lab;
+
+public interface SessionVmProjection {
+    Integer getId();
+    Integer getLabId();
+    // Null unless a warm VM was claimed, see UserLabSession.resolveVmName()
+    String getVmName();
+}
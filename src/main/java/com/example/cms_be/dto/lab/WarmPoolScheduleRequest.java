@@ -0,0 +1,12 @@
+package com.example.cms_be.dto.lab;
+
+import java.time.LocalDateTime;
+
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotNull;
+
+public record WarmPoolScheduleRequest(
+        @NotNull LocalDateTime startsAt,
+        @NotNull LocalDateTime endsAt,
+        @NotNull @Min(0) Integer targetSize
+) {}
@@ -0,0 +1,7 @@
+package com.example.cms_be.dto.lab;
+
+public interface WarmPoolTargetProjection {
+    Integer getLabId();
+    Integer getTargetSize();
+    Long getCurrentSize();
+}
@@ -0,0 +1,7 @@
+package com.example.cms_be.dto.user;
+
+public interface UserIdentityProjection {
+    Integer getId();
+    String getUsername();
+    String getEmail();
+}
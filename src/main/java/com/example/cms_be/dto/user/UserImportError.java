@@ -0,0 +1,7 @@
+package com.example.cms_be.dto.user;
+
+public record UserImportError(
+        long line,
+        String username,
+        String error
+) {}
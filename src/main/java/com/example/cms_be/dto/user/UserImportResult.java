@@ -0,0 +1,12 @@
+package com.example.cms_be.dto.user;
+
+import java.util.List;
+
+public record UserImportResult(
+        long totalRows,
+        long created,
+        long failed,
+        List<UserImportError> errors,
+        boolean errorsTruncated,
+        long durationMs
+) {}
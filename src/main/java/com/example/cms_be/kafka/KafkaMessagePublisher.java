@@ -0,0 +1,103 @@
+package com.example.cms_be.kafka;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.SendResult;
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Single outbound path for every lab topic. Sends are asynchronous: the caller gets the
+ * delivery future back, latency and failures are recorded per topic when the broker acks,
+ * and the number of unacknowledged sends is capped so a burst cannot pile up unbounded
+ * in the producer buffer or park request threads inside {@code KafkaTemplate.send}.
+ */
+@Component
+@Slf4j
+public class KafkaMessagePublisher {
+
+    private final MeterRegistry meterRegistry;
+    private final Semaphore inFlightPermits;
+    private final long acquireTimeoutMs;
+
+    public KafkaMessagePublisher(MeterRegistry meterRegistry,
+                                 @Value("${app.kafka.producer.max-pending-sends:2000}") int maxPendingSends,
+                                 @Value("${app.kafka.producer.acquire-timeout-ms:200}") long acquireTimeoutMs) {
+        this.meterRegistry = meterRegistry;
+        this.inFlightPermits = new Semaphore(maxPendingSends);
+        this.acquireTimeoutMs = acquireTimeoutMs;
+
+        Gauge.builder("kafka.producer.pending.sends", inFlightPermits,
+                        permits -> maxPendingSends - permits.availablePermits())
+                .description("Sends handed to the producer and not yet acknowledged")
+                .register(meterRegistry);
+    }
+
+    public <V> CompletableFuture<SendResult<String, V>> publish(KafkaTemplate<String, V> template,
+                                                                String topic, String key, V payload) {
+        acquirePermit(topic);
+
+        long startNanos = System.nanoTime();
+        CompletableFuture<SendResult<String, V>> future;
+        try {
+            future = template.send(topic, key, payload);
+        } catch (RuntimeException e) {
+            inFlightPermits.release();
+            recordFailure(topic, e);
+            throw e;
+        }
+
+        return future.whenComplete((result, ex) -> {
+            inFlightPermits.release();
+            sendTimer(topic, ex == null ? "success" : "failure")
+                    .record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+            if (ex != null) {
+                recordFailure(topic, ex);
+                log.error("Kafka delivery failed: topic={}, key={}: {}", topic, key, ex.getMessage());
+            } else {
+                log.debug("Kafka delivery acked: topic={}, key={}, partition={}, offset={}",
+                        topic, key, result.getRecordMetadata().partition(), result.getRecordMetadata().offset());
+            }
+        });
+    }
+
+    private void acquirePermit(String topic) {
+        boolean acquired;
+        try {
+            acquired = inFlightPermits.tryAcquire(acquireTimeoutMs, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while waiting to publish to " + topic, e);
+        }
+        if (!acquired) {
+            meterRegistry.counter("kafka.producer.send.rejected", "topic", topic).increment();
+            throw new RuntimeException("Kafka producer is saturated, rejected message for topic " + topic);
+        }
+    }
+
+    private Timer sendTimer(String topic, String outcome) {
+        return Timer.builder("kafka.producer.send.latency")
+                .description("Time from send() until the broker acknowledged the record")
+                .tag("topic", topic)
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+
+    private void recordFailure(String topic, Throwable ex) {
+        Throwable cause = ex.getCause() != null ? ex.getCause() : ex;
+        Counter.builder("kafka.producer.send.failures")
+                .tag("topic", topic)
+                .tag("exception", cause.getClass().getSimpleName())
+                .register(meterRegistry)
+                .increment();
+    }
+}
@@ -1,31 +1,49 @@
 package com.example.cms_be.kafka;
 
 
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.kafka.core.KafkaTemplate;
 import org.springframework.stereotype.Service;
 
 import com.example.cms_be.dto.lab.LabSessionCleanupRequest;
+import com.example.cms_be.service.OutboxService;
 
 @Service
 @Slf4j
 @RequiredArgsConstructor
 public class LabSessionCleanupProducer {
 
-    private final KafkaTemplate<String, LabSessionCleanupRequest> cleanupRequestKafkaTemplate;
+    private final OutboxService outboxService;
 
     private static final String TOPIC = "lab-session-cleanup-requests";
 
+    // Written to the outbox in the caller's transaction, published by OutboxRelayScheduler
     public void sendCleanupRequest(LabSessionCleanupRequest request) {
         try {
-            cleanupRequestKafkaTemplate.send(TOPIC, request);
-            log.info("Sent cleanup request: labSessionId={}, vmName={}, namespace={}",
+            outboxService.enqueue(TOPIC, request.getVmName(), request);
+            log.info("Queued cleanup request: labSessionId={}, vmName={}, namespace={}",
                     request.getLabSessionId(), request.getVmName(), request.getNamespace());
         } catch (Exception e) {
-            log.error("Failed to send cleanup request for labSessionId={}: {}",
+            log.error("Failed to queue cleanup request for labSessionId={}: {}",
                     request.getLabSessionId(), e.getMessage(), e);
             throw new RuntimeException("Failed to send cleanup request", e);
         }
     }
-}
\ No newline at end of file
+
+    // One outbox insert batch for many VMs, keyed by VM name like the single variant
+    public void sendCleanupRequests(List<LabSessionCleanupRequest> requests) {
+        try {
+            Map<String, LabSessionCleanupRequest> requestsByVmName = new LinkedHashMap<>();
+            requests.forEach(request -> requestsByVmName.put(request.getVmName(), request));
+            outboxService.enqueueAll(TOPIC, requestsByVmName);
+            log.info("Queued {} cleanup requests", requestsByVmName.size());
+        } catch (Exception e) {
+            log.error("Failed to queue {} cleanup requests: {}", requests.size(), e.getMessage(), e);
+            throw new RuntimeException("Failed to send cleanup requests", e);
+        }
+    }
+}
@@ -0,0 +1,39 @@
+package com.example.cms_be.kafka;
+
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import com.example.cms_be.dto.lab.LabSessionStatusEvent;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Fans committed status changes out to every CMS node over a broadcast topic; each node
+ * relays them to its own WebSocket subscribers (LabSessionEventConsumer). Notifications are
+ * best effort: a lost one only means the client refreshes on its next GET.
+ */
+@Component
+@Slf4j
+@RequiredArgsConstructor
+public class LabSessionEventBroadcaster {
+
+    public static final String TOPIC = "lab-session-events";
+
+    private final KafkaTemplate<String, String> outboxKafkaTemplate;
+    private final KafkaMessagePublisher kafkaMessagePublisher;
+    private final ObjectMapper objectMapper;
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onStatusEvent(LabSessionStatusEvent event) {
+        try {
+            kafkaMessagePublisher.publish(outboxKafkaTemplate, TOPIC,
+                    String.valueOf(event.labSessionId()), objectMapper.writeValueAsString(event));
+        } catch (Exception e) {
+            log.warn("Failed to broadcast {} for session {}: {}", event.type(), event.labSessionId(), e.getMessage());
+        }
+    }
+}
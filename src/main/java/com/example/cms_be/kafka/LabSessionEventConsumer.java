@@ -0,0 +1,39 @@
+package com.example.cms_be.kafka;
+
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.stereotype.Service;
+
+import com.example.cms_be.dto.lab.LabSessionStatusEvent;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+@Service
+@Slf4j
+@RequiredArgsConstructor
+public class LabSessionEventConsumer {
+
+    private final SimpMessagingTemplate messagingTemplate;
+    private final ObjectMapper objectMapper;
+
+    // A fresh group id per node: every node receives every event and pushes it to the
+    // clients connected to it.
+    @KafkaListener(
+        topics = LabSessionEventBroadcaster.TOPIC,
+        groupId = "${app.websocket.broadcast-group-prefix:cms-ws}-#{T(java.util.UUID).randomUUID()}",
+        containerFactory = "labSessionEventBroadcastContainerFactory"
+    )
+    public void consumeLabSessionEvent(String message) {
+        try {
+            LabSessionStatusEvent event = objectMapper.readValue(message, LabSessionStatusEvent.class);
+            messagingTemplate.convertAndSend("/topic/lab-sessions/" + event.labSessionId(), event);
+            if (event.userId() != null && LabSessionStatusEvent.SESSION_STATUS.equals(event.type())) {
+                messagingTemplate.convertAndSend("/topic/users/" + event.userId() + "/lab-sessions", event);
+            }
+        } catch (Exception e) {
+            log.warn("Failed to push lab session event to WebSocket clients: {}", e.getMessage());
+        }
+    }
+}
@@ -4,18 +4,22 @@ import com.example.cms_be.dto.lab.LabTestRequest;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.SendResult;
 import org.springframework.stereotype.Service;
 
+import java.util.concurrent.CompletableFuture;
+
 @Service
 @Slf4j
 @RequiredArgsConstructor
 public class LabTestRequestProducer {
     
     private final KafkaTemplate<String, LabTestRequest> kafkaTemplate;
+    private final KafkaMessagePublisher kafkaMessagePublisher;
     private static final String TOPIC = "lab-test-requests";
     
-    public void sendLabTestRequest(LabTestRequest request) {
+    public CompletableFuture<SendResult<String, LabTestRequest>> sendLabTestRequest(LabTestRequest request) {
         log.info("Sending lab test request: testVmName={}", request.getTestVmName());
-        kafkaTemplate.send(TOPIC, request.getTestVmName(), request);
+        return kafkaMessagePublisher.publish(kafkaTemplate, TOPIC, request.getTestVmName(), request);
     }
 }
\ No newline at end of file
@@ -3,22 +3,34 @@ package com.example.cms_be.kafka;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.kafka.core.KafkaTemplate;
 import org.springframework.stereotype.Service;
 
 import com.example.cms_be.dto.lab.UserLabSessionRequest;
+import com.example.cms_be.service.OutboxService;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 
 @Service
 @Slf4j
 @RequiredArgsConstructor
 public class UserLabSessionProducer {
     
-    private final KafkaTemplate<String, UserLabSessionRequest> userLabSessionKafkaTemplate;
+    private final OutboxService outboxService;
     private static final String TOPIC = "user-lab-session-requests";
     
+    // Written to the outbox in the caller's transaction, published by OutboxRelayScheduler
     public void sendUserLabSessionRequest(UserLabSessionRequest request) {
-        log.info("Sending user lab session request to Kafka: labSessionId={}, vmName={}", 
+        log.info("Queueing user lab session request: labSessionId={}, vmName={}", 
             request.getLabSessionId(), request.getVmName());
-        userLabSessionKafkaTemplate.send(TOPIC, request.getVmName(), request);
+        outboxService.enqueue(TOPIC, request.getVmName(), request);
+    }
+
+    public void sendUserLabSessionRequests(List<UserLabSessionRequest> requests) {
+        Map<String, UserLabSessionRequest> byVmName = new LinkedHashMap<>();
+        requests.forEach(request -> byVmName.put(request.getVmName(), request));
+        log.info("Queueing {} user lab session requests", requests.size());
+        outboxService.enqueueAll(TOPIC, byVmName);
     }
 }
@@ -3,11 +3,19 @@ package com.example.cms_be.kafka;
 import com.example.cms_be.dto.lab.ValidationResponse;
 import com.example.cms_be.service.SubmissionService;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
 import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.listener.BatchListenerFailedException;
 import org.springframework.stereotype.Service;
 
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
 @Service
 @Slf4j
 @RequiredArgsConstructor
@@ -15,18 +23,54 @@ public class ValidationConsumer {
 
     private final ObjectMapper objectMapper;
     private final SubmissionService submissionService;
+    private final MeterRegistry meterRegistry;
 
-    @KafkaListener(topics = "lab-validation-responses", groupId = "cms-validation-group")
-    public void consumeValidationResponse(String message) {
-        try {
-            ValidationResponse response = objectMapper.readValue(message, ValidationResponse.class);
-            log.info("📥 Received validation response: labSessionId={}, questionId={}, isCorrect={}",
-                    response.getLabSessionId(), response.getQuestionId(), response.isCorrect());
+    @KafkaListener(
+        topics = "lab-validation-responses",
+        groupId = "cms-validation-group",
+        containerFactory = "validationResponseBatchListenerContainerFactory"
+    )
+    public void consumeValidationResponses(List<ConsumerRecord<String, String>> records) {
+        Timer recordLag = Timer.builder("kafka.consumer.record.lag")
+                .description("Time between a record being produced and this node processing it")
+                .tag("topic", "lab-validation-responses")
+                .register(meterRegistry);
 
-            submissionService.processValidationResponse(response);
+        long now = System.currentTimeMillis();
+        List<ValidationResponse> responses = new ArrayList<>(records.size());
+        for (int i = 0; i < records.size(); i++) {
+            ConsumerRecord<String, String> record = records.get(i);
+            recordLag.record(Duration.ofMillis(Math.max(0, now - record.timestamp())));
+            try {
+                responses.add(objectMapper.readValue(record.value(), ValidationResponse.class));
+            } catch (Exception e) {
+                // Apply what came before it, then let the error handler dead-letter just this record
+                apply(responses, records.size());
+                log.error("❌ Unreadable validation response at offset {}: {}", record.offset(), e.getMessage());
+                throw new BatchListenerFailedException("Unreadable validation response", e, i);
+            }
+        }
+        apply(responses, records.size());
+    }
 
+    // The batch is applied in one transaction. If that fails, responses are applied one by one
+    // to find the culprit; its index tells DefaultErrorHandler to commit the records before it
+    // and to retry (and finally dead-letter) only that record. Responses already applied are no
+    // longer PENDING and are skipped when the rest of the batch is redelivered.
+    private void apply(List<ValidationResponse> responses, int batchSize) {
+        try {
+            int updated = submissionService.processValidationResponses(responses);
+            log.info("📥 Applied {} of {} validation responses", updated, batchSize);
+            return;
         } catch (Exception e) {
-            log.error("❌ Failed to process validation response", e);
+            log.warn("Validation response batch of {} failed, applying one by one: {}", responses.size(), e.getMessage());
+        }
+        for (int i = 0; i < responses.size(); i++) {
+            try {
+                submissionService.processValidationResponses(List.of(responses.get(i)));
+            } catch (Exception e) {
+                throw new BatchListenerFailedException("Failed to apply validation response", e, i);
+            }
         }
     }
-}
\ No newline at end of file
+}
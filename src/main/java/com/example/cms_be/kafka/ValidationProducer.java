@@ -1,9 +1,9 @@
 package com.example.cms_be.kafka;
 
 import com.example.cms_be.dto.lab.ValidationRequest;
+import com.example.cms_be.service.OutboxService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.kafka.core.KafkaTemplate;
 import org.springframework.stereotype.Service;
 
 @Service
@@ -11,18 +11,19 @@ import org.springframework.stereotype.Service;
 @RequiredArgsConstructor
 public class ValidationProducer {
     
-    private final KafkaTemplate<String, ValidationRequest> validationKafkaTemplate;
+    private final OutboxService outboxService;
     
     private static final String TOPIC = "lab-validation-requests";
     
+    // Written to the outbox in the caller's transaction, published by OutboxRelayScheduler
     public void sendValidationRequest(ValidationRequest request) {
         try {
-            validationKafkaTemplate.send(TOPIC, request);
-            log.info("📤 Sent validation request: labSessionId={}, questionId={}", 
+            outboxService.enqueue(TOPIC, request.vmName(), request);
+            log.info("📤 Queued validation request: labSessionId={}, questionId={}", 
                 request.labSessionId(), request.questionId());
         } catch (Exception e) {
-            log.error("❌ Failed to send validation request", e);
+            log.error("❌ Failed to queue validation request", e);
             throw new RuntimeException("Failed to send validation request", e);
         }
     }
-}
\ No newline at end of file
+}
@@ -28,7 +28,8 @@ import lombok.Setter;
 public class Answer {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "answers_seq")
+    @SequenceGenerator(name = "answers_seq", sequenceName = "answers_seq", allocationSize = 50)
     @Column(name = "id", nullable = false, unique = true)
     private Integer id;
 
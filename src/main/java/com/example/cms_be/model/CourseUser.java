@@ -15,9 +15,11 @@ import jakarta.persistence.FetchType;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
 import jakarta.persistence.OneToMany;
+import jakarta.persistence.SequenceGenerator;
 import jakarta.persistence.Table;
 import jakarta.persistence.UniqueConstraint;
 import lombok.Getter;
@@ -29,13 +31,17 @@ import lombok.Setter;
     name = "course_users",
     uniqueConstraints = {
         @UniqueConstraint(columnNames = {"user_id", "course_id"})
+    },
+    indexes = {
+        @Index(name = "idx_course_users_course_id", columnList = "course_id")
     }
 )
 @Getter
 @Setter
 public class CourseUser {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "course_users_seq")
+    @SequenceGenerator(name = "course_users_seq", sequenceName = "course_users_seq", allocationSize = 50)
     private Integer id;
 
     @ManyToOne(fetch = FetchType.LAZY)
@@ -0,0 +1,60 @@
+package com.example.cms_be.model;
+
+import java.time.LocalDateTime;
+
+import org.hibernate.annotations.OnDelete;
+import org.hibernate.annotations.OnDeleteAction;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.FetchType;
+import jakarta.persistence.Id;
+import jakarta.persistence.JoinColumn;
+import jakarta.persistence.MapsId;
+import jakarta.persistence.OneToOne;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+// Read model behind the course dashboard, one row per enrollment.
+// Maintained by CourseUserStatsService and rebuilt from user_lab_sessions/submissions.
+@Entity
+@Getter
+@Setter
+@Table(name = "course_user_stats")
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CourseUserStats {
+
+    @Id
+    @Column(name = "course_user_id")
+    private Integer courseUserId;
+
+    @JsonIgnore
+    @OneToOne(fetch = FetchType.LAZY)
+    @MapsId
+    @JoinColumn(name = "course_user_id")
+    @OnDelete(action = OnDeleteAction.CASCADE)
+    private CourseUser courseUser;
+
+    @Column(name = "total_attempts", nullable = false)
+    private Integer totalAttempts;
+
+    @Column(name = "completed_labs", nullable = false)
+    private Integer completedLabs;
+
+    @Column(name = "correct_answers", nullable = false)
+    private Integer correctAnswers;
+
+    @Column(name = "last_activity_at")
+    private LocalDateTime lastActivityAt;
+
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+}
@@ -26,7 +26,8 @@ import lombok.NoArgsConstructor;
 public class InstanceType {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "instance_types_seq")
+    @SequenceGenerator(name = "instance_types_seq", sequenceName = "instance_types_seq", allocationSize = 50)
     private Integer id;
 
 
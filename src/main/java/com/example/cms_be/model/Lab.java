@@ -25,7 +25,8 @@ import lombok.NoArgsConstructor;
 public class Lab {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "labs_seq")
+    @SequenceGenerator(name = "labs_seq", sequenceName = "labs_seq", allocationSize = 50)
     @Column(name = "id", nullable = false, unique = true)
     private Integer id;
 
@@ -71,6 +72,14 @@ public class Lab {
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "instance_type_id", nullable = false)
     private InstanceType instanceType;
+
+    // Number of pre-provisioned VMs kept ready for this lab (see WarmPoolService)
+    @Column(name = "warm_pool_size")
+    private Integer warmPoolSize;
+
+    // Exam labs jump the waiting room queue (see LabWaitingRoomService)
+    @Column(name = "exam_mode")
+    private Boolean examMode;
     
    
 
@@ -0,0 +1,52 @@
+package com.example.cms_be.model;
+
+import java.time.LocalDateTime;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.FetchType;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.JoinColumn;
+import jakarta.persistence.ManyToOne;
+import jakarta.persistence.SequenceGenerator;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+// Raises a lab's warm pool target for a time window, e.g. a class or an exam
+@Entity
+@Getter
+@Setter
+@Table(name = "lab_warm_pool_schedules")
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class LabWarmPoolSchedule {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "lab_warm_pool_schedules_seq")
+    @SequenceGenerator(name = "lab_warm_pool_schedules_seq", sequenceName = "lab_warm_pool_schedules_seq", allocationSize = 50)
+    @Column(name = "id", nullable = false, unique = true)
+    private Integer id;
+
+    @Column(name = "starts_at", nullable = false)
+    private LocalDateTime startsAt;
+
+    @Column(name = "ends_at", nullable = false)
+    private LocalDateTime endsAt;
+
+    @Column(name = "target_size", nullable = false)
+    private Integer targetSize;
+
+    @JsonIgnore
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "lab_id", nullable = false)
+    private Lab lab;
+}
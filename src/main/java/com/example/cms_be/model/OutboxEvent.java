@@ -0,0 +1,70 @@
+package com.example.cms_be.model;
+
+import java.time.LocalDateTime;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+// Kafka message written in the same transaction as the state change that produced it.
+// OutboxRelay publishes PENDING rows in id order and deletes them once the broker has acked;
+// a row that keeps failing is parked as FAILED so it stops blocking its key.
+@Entity
+@Getter
+@Setter
+@Table(
+    name = "outbox",
+    indexes = {
+        @Index(name = "idx_outbox_status_id", columnList = "status, id"),
+        @Index(name = "idx_outbox_key_id", columnList = "message_key, id")
+    }
+)
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class OutboxEvent {
+
+    @Id
+    // Not pooled: ids must be handed out in insert order because the relay publishes by id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name = "id", nullable = false, unique = true)
+    private Long id;
+
+    @Column(name = "topic", nullable = false)
+    private String topic;
+
+    @Column(name = "message_key")
+    private String messageKey;
+
+    @Column(name = "payload", nullable = false, columnDefinition = "TEXT")
+    private String payload;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+
+    @Column(name = "attempts", nullable = false)
+    private Integer attempts;
+
+    @Column(name = "last_error", columnDefinition = "TEXT")
+    private String lastError;
+
+    public static final String STATUS_PENDING = "PENDING";
+    public static final String STATUS_FAILED = "FAILED";
+
+    // PENDING or FAILED (dead-lettered after app.outbox.relay.max-attempts failed sends)
+    @Column(name = "status", nullable = false, columnDefinition = "varchar(16) default 'PENDING'")
+    private String status;
+
+    // Backoff: a failed row and every later row with its key wait until this time
+    @Column(name = "next_attempt_at")
+    private LocalDateTime nextAttemptAt;
+}
@@ -24,7 +24,8 @@ import lombok.NoArgsConstructor;
 public class Question {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "questions_seq")
+    @SequenceGenerator(name = "questions_seq", sequenceName = "questions_seq", allocationSize = 50)
     @Column(name = "id", nullable = false, unique = true)
     private Integer id;
     private String hint;
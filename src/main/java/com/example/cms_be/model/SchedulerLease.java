@@ -0,0 +1,33 @@
+package com.example.cms_be.model;
+
+import java.time.LocalDateTime;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+// Named lease held by one node for background work that must not run on two nodes at once.
+// Unlike an advisory lock it survives outside a transaction and lapses if the holder dies.
+@Entity
+@Getter
+@Setter
+@Table(name = "scheduler_leases")
+@NoArgsConstructor
+@AllArgsConstructor
+public class SchedulerLease {
+
+    @Id
+    @Column(name = "name", nullable = false)
+    private String name;
+
+    @Column(name = "owner", nullable = false)
+    private String owner;
+
+    @Column(name = "expires_at", nullable = false)
+    private LocalDateTime expiresAt;
+}
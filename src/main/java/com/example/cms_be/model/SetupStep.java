@@ -9,6 +9,7 @@ import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
+import jakarta.persistence.SequenceGenerator;
 import jakarta.persistence.Table;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
@@ -26,7 +27,8 @@ import lombok.NoArgsConstructor;
 public class SetupStep {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "setup_steps_seq")
+    @SequenceGenerator(name = "setup_steps_seq", sequenceName = "setup_steps_seq", allocationSize = 50)
     @Column(name = "id", nullable = false, unique = true)
     private Integer id;
     
@@ -15,7 +15,10 @@ import lombok.Setter;
     @Entity
     @Getter
 @Setter
-    @Table(name = "submissions")
+    @Table(
+        name = "submissions",
+        indexes = @Index(name = "idx_submissions_session", columnList = "user_lab_session_id")
+    )
     @Builder
     @NoArgsConstructor
     @AllArgsConstructor
@@ -23,7 +26,8 @@ import lombok.Setter;
     public class Submission {
 
         @Id
-        @GeneratedValue(strategy = GenerationType.IDENTITY)
+        @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "submissions_seq")
+        @SequenceGenerator(name = "submissions_seq", sequenceName = "submissions_seq", allocationSize = 50)
         @Column(name = "id", nullable = false, unique = true)
         private Integer id;
 
@@ -15,7 +15,15 @@ import lombok.Setter;
 import lombok.NoArgsConstructor;
 
 @Entity
-@Table(name = "user_lab_sessions")
+@Table(
+    name = "user_lab_sessions",
+    indexes = {
+        @Index(name = "idx_uls_status_expires_at", columnList = "status, expires_at"),
+        @Index(name = "idx_uls_status_queue", columnList = "status, queue_priority, queued_at"),
+        @Index(name = "idx_uls_course_user_created", columnList = "course_user_id, created_at, id"),
+        @Index(name = "idx_uls_vm_name", columnList = "vm_name")
+    }
+)
 @Getter
 @Setter
 @Builder
@@ -44,12 +52,28 @@ public class UserLabSession {
     @Column(name = "expires_at")
     private LocalDateTime expiresAt;
 
+    // Set while the session waits in the waiting room (status QUEUED)
+    @Column(name = "queued_at")
+    private LocalDateTime queuedAt;
+
+    @Column(name = "queue_priority")
+    private Integer queuePriority;
+
     @Column(name = "pod_name")
     private String podName;
 
+    // Null for VMs provisioned for this session ("vm-{id}"), set when a warm VM was claimed
+    @Column(name = "vm_name")
+    private String vmName;
+
+    // Values of LabSessionStatus
     @Column(name = "status")
     private String status;
 
+    @Version
+    @Column(name = "version", nullable = false, columnDefinition = "bigint default 0")
+    private Long version;
+
     @JsonIgnore
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "lab_id", nullable = false)
@@ -68,6 +92,10 @@ public class UserLabSession {
     @OneToMany(mappedBy = "userLabSession", cascade = CascadeType.ALL, fetch = FetchType.LAZY, orphanRemoval = true)
     private Set<Submission> submissions; 
 
+    public String resolveVmName() {
+        return vmName != null ? vmName : "vm-" + id;
+    }
+
 
   
 }
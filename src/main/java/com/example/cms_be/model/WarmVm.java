@@ -0,0 +1,65 @@
+package com.example.cms_be.model;
+
+import java.time.LocalDateTime;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.FetchType;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.JoinColumn;
+import jakarta.persistence.ManyToOne;
+import jakarta.persistence.SequenceGenerator;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+// A VM provisioned ahead of demand for a lab: PROVISIONING -> READY. Claiming deletes the row
+// and hands the VM name over to the session (user_lab_sessions.vm_name).
+@Entity
+@Getter
+@Setter
+@Table(
+    name = "warm_vms",
+    indexes = {
+        @Index(name = "idx_warm_vms_lab_status", columnList = "lab_id, status, ready_at")
+    }
+)
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class WarmVm {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "warm_vms_seq")
+    @SequenceGenerator(name = "warm_vms_seq", sequenceName = "warm_vms_seq", allocationSize = 50)
+    @Column(name = "id", nullable = false, unique = true)
+    private Long id;
+
+    @Column(name = "vm_name", nullable = false, unique = true)
+    private String vmName;
+
+    @Column(name = "pod_name")
+    private String podName;
+
+    @Column(name = "status", nullable = false)
+    private String status;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+
+    @Column(name = "ready_at")
+    private LocalDateTime readyAt;
+
+    @JsonIgnore
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "lab_id", nullable = false)
+    private Lab lab;
+}
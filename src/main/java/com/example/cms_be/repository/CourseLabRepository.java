@@ -1,8 +1,11 @@
 package com.example.cms_be.repository;
 
+import java.util.List;
 import java.util.Optional;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import com.example.cms_be.model.CourseLab;
@@ -13,4 +16,7 @@ public interface CourseLabRepository  extends JpaRepository<CourseLab, Integer>
     Optional<CourseLab> findByCourseId(Integer courseId);
     Optional<CourseLab> findByLabId(Integer labId);
     Optional<CourseLab> findByCourseIdAndLabId(Integer courseId, Integer labId);
+
+    @Query(value = "SELECT cl.lab_id FROM course_labs cl WHERE cl.course_id = :courseId AND cl.lab_id IS NOT NULL", nativeQuery = true)
+    List<Integer> findLabIdsByCourseId(@Param("courseId") Integer courseId);
 }
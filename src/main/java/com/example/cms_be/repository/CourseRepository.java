@@ -9,9 +9,11 @@ import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import com.example.cms_be.model.Course;
+import com.example.cms_be.dto.CatalogEntryProjection;
 
 
 import java.util.Optional;
+import java.util.List;
 
 @Repository
 public interface CourseRepository extends JpaRepository<Course, Integer> {
@@ -41,6 +43,41 @@ public interface CourseRepository extends JpaRepository<Course, Integer> {
             Pageable pageable
     );
 
+    // Keyword search over the trigram index on courses.title, ranked by word similarity
+    String TITLE_SEARCH =
+            "FROM courses c " +
+            "LEFT JOIN subjects sub ON sub.id = c.subject_id " +
+            "WHERE c.title ILIKE CONCAT('%', :keyword, '%') " +
+            "AND (CAST(:isActive AS boolean) IS NULL OR c.is_active = CAST(:isActive AS boolean)) " +
+            "AND (COALESCE(CAST(:code AS varchar), '') = '' OR sub.code = CAST(:code AS varchar)) ";
+    String TITLE_RANK = "ORDER BY word_similarity(:keyword, c.title) DESC, c.id";
+    String FOR_USER = "AND EXISTS (SELECT 1 FROM course_users cu WHERE cu.course_id = c.id AND cu.user_id = :userId) ";
+
+    @Query(value = "SELECT c.* " + TITLE_SEARCH + TITLE_RANK,
+            countQuery = "SELECT COUNT(*) " + TITLE_SEARCH,
+            nativeQuery = true)
+    Page<Course> searchWithFilters(
+            @Param("keyword") String keyword,
+            @Param("isActive") Boolean isActive,
+            @Param("code") String code,
+            Pageable pageable
+    );
+
+    @Query(value = "SELECT c.* " + TITLE_SEARCH + FOR_USER + TITLE_RANK,
+            countQuery = "SELECT COUNT(*) " + TITLE_SEARCH + FOR_USER,
+            nativeQuery = true)
+    Page<Course> searchCoursesByUserId(
+            @Param("userId") Integer userId,
+            @Param("keyword") String keyword,
+            @Param("isActive") Boolean isActive,
+            @Param("code") String code,
+            Pageable pageable
+    );
+
+    @Query(value = "SELECT c.id AS id, c.title AS label, c.title AS searchText, COALESCE(c.is_active, false) AS active, " +
+            "CAST(NULL AS varchar) AS tag, CAST(NULL AS integer) AS parentId FROM courses c", nativeQuery = true)
+    List<CatalogEntryProjection> findCatalogEntries();
+
     @Query("SELECT c FROM Course c LEFT JOIN FETCH c.courseLabs cl LEFT JOIN FETCH cl.lab l WHERE c.id = :courseId")
     Optional<Course> findCourseWithLabsById(@Param("courseId") Integer courseId);
 }
\ No newline at end of file
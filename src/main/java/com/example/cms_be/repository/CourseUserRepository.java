@@ -1,26 +1,70 @@
 package com.example.cms_be.repository;
 
 
+import com.example.cms_be.dto.course.DashboardProjection;
+import com.example.cms_be.dto.lab.SessionVmProjection;
 import com.example.cms_be.model.Course;
 import com.example.cms_be.model.CourseUser;
 import com.example.cms_be.model.User;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface CourseUserRepository extends JpaRepository<CourseUser, Integer> {
 
+        String ENROLLMENTS_OF = "SELECT cu.id FROM course_users cu WHERE cu.course_id = :courseId AND cu.user_id IN (:userIds)";
+
+        // One nextval per row: with the sequence's INCREMENT BY allocationSize every value is the
+        // top of a block no JPA insert will ever be handed, so the ids cannot collide.
+        String ENROLL_USERS = "INSERT INTO course_users (id, user_id, course_id, created_at) " +
+                "SELECT nextval('course_users_seq'), u.id, :courseId, now() FROM users u " +
+                "WHERE u.id IN (:userIds) " +
+                "AND NOT EXISTS (SELECT 1 FROM course_users cu WHERE cu.course_id = :courseId AND cu.user_id = u.id) " +
+                "ON CONFLICT (user_id, course_id) DO NOTHING";
+
+        // Returns the number of enrollments created; unknown users and existing enrollments are skipped
+        @Transactional
+        @Modifying
+        @Query(value = ENROLL_USERS, nativeQuery = true)
+        int enrollUsers(@Param("courseId") Integer courseId, @Param("userIds") Collection<Integer> userIds);
+
+        @Query(value = "SELECT uls.id AS id, uls.lab_id AS labId, uls.vm_name AS vmName FROM user_lab_sessions uls " +
+                "WHERE uls.status IN (:statuses) AND uls.course_user_id IN (" + ENROLLMENTS_OF + ")", nativeQuery = true)
+        List<SessionVmProjection> findSessionVmsOfEnrollments(@Param("courseId") Integer courseId,
+                                                     @Param("userIds") Collection<Integer> userIds,
+                                                     @Param("statuses") Collection<String> statuses);
+
+        @Modifying
+        @Query(value = "DELETE FROM submissions s USING user_lab_sessions uls " +
+                "WHERE s.user_lab_session_id = uls.id AND uls.course_user_id IN (" + ENROLLMENTS_OF + ")", nativeQuery = true)
+        int deleteSubmissionsOfEnrollments(@Param("courseId") Integer courseId, @Param("userIds") Collection<Integer> userIds);
+
+        @Modifying
+        @Query(value = "DELETE FROM user_lab_sessions uls WHERE uls.course_user_id IN (" + ENROLLMENTS_OF + ")", nativeQuery = true)
+        int deleteSessionsOfEnrollments(@Param("courseId") Integer courseId, @Param("userIds") Collection<Integer> userIds);
+
+        // course_user_stats rows go with their enrollment through ON DELETE CASCADE
+        @Modifying
+        @Query(value = "DELETE FROM course_users cu WHERE cu.course_id = :courseId AND cu.user_id IN (:userIds)", nativeQuery = true)
+        int deleteEnrollments(@Param("courseId") Integer courseId, @Param("userIds") Collection<Integer> userIds);
+
         @Query("SELECT CASE WHEN COUNT(cu) > 0 THEN TRUE ELSE FALSE END " +
             "FROM CourseUser cu " +
             "WHERE cu.user = :user AND cu.course = :course")
         boolean existsByUserAndCourseId(@Param("user") User user, @Param("course")Course course);
         Optional<CourseUser> findByUserAndCourse(User user, Course course);
         Optional<CourseUser> findByCourseIdAndUserId(Integer courseId, Integer userId);
+
+        @Query(value = "SELECT cu.user_id FROM course_users cu WHERE cu.course_id = :courseId", nativeQuery = true)
+        List<Integer> findUserIdsByCourseId(@Param("courseId") Integer courseId);
         
         
       @Query("SELECT cu FROM CourseUser cu " +
@@ -32,4 +76,48 @@ public interface CourseUserRepository extends JpaRepository<CourseUser, Integer>
             @Param("courseId") Integer courseId, 
             @Param("roleName") String roleName
         );
+
+        // Reads the course_user_stats read model (1 correct answer = 10 points) and ranks
+        // students with a window function, so the dashboard is one indexed query.
+        // Also streamed as-is by ExportService.
+        String DASHBOARD_QUERY = """
+            SELECT CAST(ROW_NUMBER() OVER (
+                       ORDER BY st.total_score DESC, st.completed_labs DESC, st.completion_rate DESC, st.user_id
+                   ) AS integer) AS rank,
+                   st.user_id AS userId,
+                   st.username,
+                   st.first_name AS firstName,
+                   st.last_name AS lastName,
+                   st.total_score AS totalScore,
+                   st.completed_labs AS completedLabs,
+                   st.total_attempts AS totalAttempts,
+                   CAST(st.completion_rate AS double precision) AS completionRate,
+                   st.last_activity_at AS lastActivityAt
+            FROM (
+                SELECT u.id AS user_id,
+                       u.username,
+                       u.first_name,
+                       u.last_name,
+                       COALESCE(cus.correct_answers, 0) * 10 AS total_score,
+                       COALESCE(cus.completed_labs, 0) AS completed_labs,
+                       COALESCE(cus.total_attempts, 0) AS total_attempts,
+                       CASE WHEN COALESCE(cus.total_attempts, 0) = 0 THEN 0.0
+                            ELSE ROUND(cus.completed_labs * 100.0 / cus.total_attempts, 2)
+                       END AS completion_rate,
+                       cus.last_activity_at
+                FROM course_users cu
+                JOIN users u ON u.id = cu.user_id
+                JOIN roles r ON r.id = u.role_id
+                LEFT JOIN course_user_stats cus ON cus.course_user_id = cu.id
+                WHERE cu.course_id = :courseId
+                  AND r.name = :roleName
+            ) st
+            ORDER BY rank
+            """;
+
+        @Query(value = DASHBOARD_QUERY, nativeQuery = true)
+        List<DashboardProjection> findDashboardByCourseId(
+            @Param("courseId") Integer courseId,
+            @Param("roleName") String roleName
+        );
 }
@@ -0,0 +1,74 @@
+package com.example.cms_be.repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.example.cms_be.model.CourseUserStats;
+
+@Repository
+public interface CourseUserStatsRepository extends JpaRepository<CourseUserStats, Integer> {
+
+        // Full recomputation of the stats row for the selected course_users; used both to
+        // seed a missing row and by the rebuild job.
+        String AGGREGATE_SELECT =
+                "SELECT cu.id, " +
+                "  (SELECT COUNT(*) FROM user_lab_sessions uls WHERE uls.course_user_id = cu.id), " +
+                "  (SELECT COUNT(*) FROM user_lab_sessions uls WHERE uls.course_user_id = cu.id AND uls.status = 'COMPLETED'), " +
+                "  (SELECT COUNT(*) FROM submissions s JOIN user_lab_sessions uls ON uls.id = s.user_lab_session_id " +
+                "     WHERE uls.course_user_id = cu.id AND uls.status = 'COMPLETED' AND s.is_correct = true), " +
+                "  (SELECT MAX(uls.setup_completed_at) FROM user_lab_sessions uls WHERE uls.course_user_id = cu.id), " +
+                "  now() " +
+                "FROM course_users cu ";
+
+        String INSERT_COLUMNS =
+                "INSERT INTO course_user_stats " +
+                "(course_user_id, total_attempts, completed_labs, correct_answers, last_activity_at, updated_at) ";
+
+        @Transactional
+        @Modifying
+        @Query(value = INSERT_COLUMNS + AGGREGATE_SELECT +
+                "WHERE cu.id = :courseUserId " +
+                "ON CONFLICT (course_user_id) DO UPDATE SET " +
+                "total_attempts = course_user_stats.total_attempts + :attempts, " +
+                "completed_labs = course_user_stats.completed_labs + :completedLabs, " +
+                "correct_answers = course_user_stats.correct_answers + :correctAnswers, " +
+                "last_activity_at = GREATEST(course_user_stats.last_activity_at, CAST(:activityAt AS timestamp)), " +
+                "updated_at = now()", nativeQuery = true)
+        int applyDelta(
+                @Param("courseUserId") Integer courseUserId,
+                @Param("attempts") int attempts,
+                @Param("completedLabs") int completedLabs,
+                @Param("correctAnswers") int correctAnswers,
+                @Param("activityAt") LocalDateTime activityAt
+        );
+
+        @Transactional
+        @Modifying
+        @Query(value = INSERT_COLUMNS + AGGREGATE_SELECT +
+                "WHERE cu.id IN (:courseUserIds) " +
+                "ON CONFLICT (course_user_id) DO UPDATE SET " +
+                "total_attempts = EXCLUDED.total_attempts, " +
+                "completed_labs = EXCLUDED.completed_labs, " +
+                "correct_answers = EXCLUDED.correct_answers, " +
+                "last_activity_at = EXCLUDED.last_activity_at, " +
+                "updated_at = EXCLUDED.updated_at", nativeQuery = true)
+        int rebuild(@Param("courseUserIds") List<Integer> courseUserIds);
+
+        @Query(value = "SELECT cu.id FROM course_users cu " +
+                "WHERE cu.id > :afterId " +
+                "AND (CAST(:courseId AS integer) IS NULL OR cu.course_id = :courseId) " +
+                "ORDER BY cu.id " +
+                "LIMIT :limit", nativeQuery = true)
+        List<Integer> findCourseUserIdsAfter(
+                @Param("afterId") Integer afterId,
+                @Param("courseId") Integer courseId,
+                @Param("limit") int limit
+        );
+}
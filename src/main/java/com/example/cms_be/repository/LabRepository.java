@@ -1,12 +1,14 @@
 package com.example.cms_be.repository;
 
 import java.util.Optional;
+import java.util.List;
 
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
+import com.example.cms_be.dto.CatalogEntryProjection;
 import com.example.cms_be.model.Lab;
 
 public interface LabRepository extends JpaRepository<Lab, Integer> {
@@ -51,7 +53,50 @@ public interface LabRepository extends JpaRepository<Lab, Integer> {
         @Param("isActive") Boolean isActive,
         Pageable pageable);
 
-       
+        // Keyword search: ILIKE is served by the trigram index on labs.title (SearchIndexInitializer),
+        // results are ranked by how well the keyword matches a word of the title.
+        String TITLE_SEARCH =
+                "FROM labs l " +
+                "WHERE l.title ILIKE CONCAT('%', :keyword, '%') " +
+                "AND (CAST(:isActive AS boolean) IS NULL OR l.is_active = CAST(:isActive AS boolean)) ";
+        String TITLE_RANK = "ORDER BY word_similarity(:keyword, l.title) DESC, l.id";
+        String IN_COURSE = "AND EXISTS (SELECT 1 FROM course_labs cl WHERE cl.lab_id = l.id AND cl.course_id = :courseId) ";
+        String NOT_IN_COURSE = "AND NOT EXISTS (SELECT 1 FROM course_labs cl WHERE cl.lab_id = l.id AND cl.course_id = :courseId) ";
+
+        @Query(value = "SELECT l.* " + TITLE_SEARCH + TITLE_RANK,
+                countQuery = "SELECT COUNT(*) " + TITLE_SEARCH,
+                nativeQuery = true)
+        Page<Lab> searchWithFilters(
+                @Param("keyword") String keyword,
+                @Param("isActive") Boolean isActive,
+                Pageable pageable
+        );
+
+        @Query(value = "SELECT l.* " + TITLE_SEARCH + IN_COURSE + TITLE_RANK,
+                countQuery = "SELECT COUNT(*) " + TITLE_SEARCH + IN_COURSE,
+                nativeQuery = true)
+        Page<Lab> searchLabsByCourseId(
+                @Param("courseId") Integer courseId,
+                @Param("keyword") String keyword,
+                @Param("isActive") Boolean isActive,
+                Pageable pageable
+        );
+
+        @Query(value = "SELECT l.* " + TITLE_SEARCH + NOT_IN_COURSE + TITLE_RANK,
+                countQuery = "SELECT COUNT(*) " + TITLE_SEARCH + NOT_IN_COURSE,
+                nativeQuery = true)
+        Page<Lab> searchLabsNotInCourseId(
+                @Param("courseId") Integer courseId,
+                @Param("keyword") String keyword,
+                @Param("isActive") Boolean isActive,
+                Pageable pageable
+        );
+
+        // Source rows for the in-memory autocomplete index (CatalogSearchService)
+        @Query(value = "SELECT l.id AS id, l.title AS label, l.title AS searchText, l.is_active AS active, " +
+                "CAST(NULL AS varchar) AS tag, CAST(NULL AS integer) AS parentId FROM labs l", nativeQuery = true)
+        List<CatalogEntryProjection> findCatalogEntries();
+
         @Query("SELECT l FROM Lab l LEFT JOIN FETCH l.setupSteps WHERE l.id = :id")
         Optional<Lab> findByIdWithSetupSteps(@Param("id") Integer id);
         @Query("SELECT l FROM Lab l " +
@@ -59,4 +104,7 @@ public interface LabRepository extends JpaRepository<Lab, Integer> {
                "LEFT JOIN FETCH l.instanceType " +
                "WHERE l.id = :id")
         Optional<Lab> findByIdWithAllData(@Param("id") Integer id);
-}
\ No newline at end of file
+
+        @Query("SELECT DISTINCT l.namespace FROM Lab l")
+        List<String> findDistinctNamespaces();
+}
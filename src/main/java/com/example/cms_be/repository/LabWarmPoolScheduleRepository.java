@@ -0,0 +1,14 @@
+package com.example.cms_be.repository;
+
+import java.util.List;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import com.example.cms_be.model.LabWarmPoolSchedule;
+
+@Repository
+public interface LabWarmPoolScheduleRepository extends JpaRepository<LabWarmPoolSchedule, Integer> {
+
+    List<LabWarmPoolSchedule> findByLabIdOrderByStartsAt(Integer labId);
+}
@@ -0,0 +1,48 @@
+package com.example.cms_be.repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.example.cms_be.model.OutboxEvent;
+
+@Repository
+public interface OutboxEventRepository extends JpaRepository<OutboxEvent, Long> {
+
+    // Only the oldest PENDING row of each key, and only once it is due: a key never has two
+    // messages in flight, so a later one cannot reach the broker before an earlier one is acked.
+    @Query(value = "SELECT o.* FROM outbox o " +
+            "WHERE o.status = 'PENDING' AND (o.next_attempt_at IS NULL OR o.next_attempt_at <= :now) " +
+            "AND NOT EXISTS (SELECT 1 FROM outbox b WHERE b.message_key = o.message_key AND b.id < o.id " +
+            "  AND b.status = 'PENDING') " +
+            "ORDER BY o.id LIMIT :limit", nativeQuery = true)
+    List<OutboxEvent> findNextBatch(@Param("now") LocalDateTime now, @Param("limit") int limit);
+
+    @Modifying
+    @Transactional
+    @Query(value = "DELETE FROM outbox WHERE id IN (:ids)", nativeQuery = true)
+    int deleteByIds(@Param("ids") List<Long> ids);
+
+    // Exponential backoff (1s, 2s, 4s ... capped), dead-lettered once :maxAttempts is reached
+    @Modifying
+    @Transactional
+    @Query(value = "UPDATE outbox SET attempts = attempts + 1, last_error = :error, " +
+            "next_attempt_at = :now + make_interval(secs => LEAST(:maxBackoffSeconds, power(2, LEAST(attempts, 30)))), " +
+            "status = CASE WHEN attempts + 1 >= :maxAttempts THEN 'FAILED' ELSE status END " +
+            "WHERE id IN (:ids)", nativeQuery = true)
+    int markFailed(
+            @Param("ids") List<Long> ids,
+            @Param("error") String error,
+            @Param("now") LocalDateTime now,
+            @Param("maxBackoffSeconds") double maxBackoffSeconds,
+            @Param("maxAttempts") int maxAttempts
+    );
+
+    long countByStatus(String status);
+}
@@ -1,6 +1,7 @@
 package com.example.cms_be.repository;
 
 import com.example.cms_be.model.Question;
+import com.example.cms_be.dto.CatalogEntryProjection;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
@@ -8,6 +9,8 @@ import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
+
 @Repository
 public interface QuestionRepository extends JpaRepository<Question, Integer> {
 
@@ -20,5 +23,24 @@ public interface QuestionRepository extends JpaRepository<Question, Integer> {
             @Param("labId") Integer labId,
             Pageable pageable
     );
-    
+
+    @Query(value = "SELECT q.id AS id, LEFT(q.question, 160) AS label, q.question AS searchText, true AS active, " +
+            "CAST(NULL AS varchar) AS tag, q.lab_id AS parentId FROM questions q", nativeQuery = true)
+    List<CatalogEntryProjection> findCatalogEntries();
+
+    // Keyword search over the trigram index on questions.question, ranked by word similarity
+    String QUESTION_SEARCH =
+            "FROM questions q " +
+            "WHERE q.question ILIKE CONCAT('%', :keyword, '%') " +
+            "AND (CAST(:labId AS integer) IS NULL OR q.lab_id = CAST(:labId AS integer)) ";
+
+    @Query(value = "SELECT q.* " + QUESTION_SEARCH + "ORDER BY word_similarity(:keyword, q.question) DESC, q.id",
+            countQuery = "SELECT COUNT(*) " + QUESTION_SEARCH,
+            nativeQuery = true)
+    Page<Question> searchWithFilters(
+            @Param("keyword") String keyword,
+            @Param("labId") Integer labId,
+            Pageable pageable
+    );
+
 }
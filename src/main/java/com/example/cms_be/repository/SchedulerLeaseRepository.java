@@ -0,0 +1,34 @@
+package com.example.cms_be.repository;
+
+import java.time.LocalDateTime;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.example.cms_be.model.SchedulerLease;
+
+@Repository
+public interface SchedulerLeaseRepository extends JpaRepository<SchedulerLease, String> {
+
+    // Takes the lease if it is free or expired, or extends it if :owner already holds it; 0 otherwise
+    @Modifying
+    @Transactional
+    @Query(value = "INSERT INTO scheduler_leases (name, owner, expires_at) VALUES (:name, :owner, :expiresAt) " +
+            "ON CONFLICT (name) DO UPDATE SET owner = EXCLUDED.owner, expires_at = EXCLUDED.expires_at " +
+            "WHERE scheduler_leases.owner = EXCLUDED.owner OR scheduler_leases.expires_at < :now", nativeQuery = true)
+    int tryAcquire(
+            @Param("name") String name,
+            @Param("owner") String owner,
+            @Param("now") LocalDateTime now,
+            @Param("expiresAt") LocalDateTime expiresAt
+    );
+
+    @Modifying
+    @Transactional
+    @Query(value = "DELETE FROM scheduler_leases WHERE name = :name AND owner = :owner", nativeQuery = true)
+    int release(@Param("name") String name, @Param("owner") String owner);
+}
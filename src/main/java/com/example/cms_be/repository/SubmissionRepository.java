@@ -6,6 +6,7 @@ import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -31,6 +32,15 @@ public interface SubmissionRepository extends JpaRepository<Submission, Integer>
               @Param("questionId") Integer questionId
        );
     
+       @Query("SELECT s FROM Submission s " +
+              "JOIN FETCH s.userLabSession uls " +
+              "JOIN FETCH uls.courseUser " +
+              "WHERE uls.id IN :labSessionIds AND s.status = :status")
+       List<Submission> findByLabSessionsAndStatus(
+              @Param("labSessionIds") Collection<Integer> labSessionIds,
+              @Param("status") String status
+       );
+
        @Query("SELECT s FROM Submission s WHERE s.userLabSession.id = :labSessionId AND s.question.id = :questionId AND s.status = :status")
        Optional<Submission> findByLabSessionAndQuestionAndStatus(
               @Param("labSessionId") Integer labSessionId,
@@ -2,6 +2,7 @@
 package com.example.cms_be.repository;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -12,6 +13,12 @@ import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import com.example.cms_be.dto.LabSessionHistoryProjection;
+import com.example.cms_be.dto.lab.CreatedSessionProjection;
+import com.example.cms_be.dto.lab.LabEnrollmentProjection;
+import com.example.cms_be.dto.lab.QueuedSessionProjection;
+import com.example.cms_be.dto.lab.ReservedResourcesProjection;
+import com.example.cms_be.dto.lab.SessionVmProjection;
 import com.example.cms_be.model.UserLabSession;
 
 @Repository
@@ -27,11 +34,13 @@ public interface UserLabSessionRepository extends JpaRepository<UserLabSession,
 
 
 
-        @Query("SELECT uls FROM UserLabSession uls " +
-                "WHERE uls.courseUser.user.id = :userId " +
-                "AND uls.lab.id = :labId " +
+        @Query(value = "SELECT uls.* FROM user_lab_sessions uls " +
+                "JOIN course_users cu ON cu.id = uls.course_user_id " +
+                "WHERE cu.user_id = :userId " +
+                "AND uls.lab_id = :labId " +
                 "AND uls.status <> :completedStatus " +
-                "ORDER BY uls.createdAt DESC")
+                "ORDER BY uls.created_at DESC " +
+                "LIMIT 1", nativeQuery = true)
         Optional<UserLabSession> findNonCompletedSessionByUserAndLab(
                 @Param("userId") Integer userId,
                 @Param("labId") Integer labId,
@@ -61,18 +70,58 @@ public interface UserLabSessionRepository extends JpaRepository<UserLabSession,
         LocalDateTime findLastActivityByUserAndCourse(@Param("userId") Integer userId, @Param("courseId") Integer courseId);
         
 
-        @Query("SELECT uls FROM UserLabSession uls " +
-       "JOIN uls.courseUser cu " +
-       "JOIN uls.lab l " + 
-       "WHERE cu.user.id = :userId " +
-       "AND (:keyword IS NULL OR :keyword = '' OR " +
-       "    LOWER(l.title) LIKE LOWER(CONCAT('%', :keyword, '%')) OR " +
-       "    CAST(uls.createdAt AS string) LIKE CONCAT('%', :keyword, '%')) " +
-       "ORDER BY uls.createdAt DESC")
-        Page<UserLabSession> findHistoryByUserId(
+        String HISTORY_FILTER =
+                "FROM user_lab_sessions uls " +
+                "JOIN course_users cu ON cu.id = uls.course_user_id " +
+                "JOIN labs l ON l.id = uls.lab_id " +
+                "WHERE cu.user_id = :userId " +
+                "AND (CAST(:keyword AS varchar) IS NULL OR l.title ILIKE CONCAT('%', CAST(:keyword AS varchar), '%')) " +
+                "AND (CAST(:from AS timestamp) IS NULL OR uls.created_at >= CAST(:from AS timestamp)) " +
+                "AND (CAST(:to AS timestamp) IS NULL OR uls.created_at < CAST(:to AS timestamp)) ";
+
+        // Full history in page order, streamed over a JDBC cursor by ExportService
+        String HISTORY_EXPORT_QUERY = "SELECT uls.id, l.title, uls.status, uls.created_at, " +
+                "uls.setup_started_at, uls.setup_completed_at, uls.expires_at " +
+                HISTORY_FILTER +
+                "ORDER BY uls.created_at DESC, uls.id DESC";
+
+        // One row per session of a course with its score, streamed by ExportService
+        String COURSE_SESSIONS_EXPORT_QUERY = "SELECT u.username, u.first_name, u.last_name, l.title, uls.id, uls.status, " +
+                "uls.created_at, uls.setup_started_at, uls.setup_completed_at, " +
+                "(SELECT COUNT(*) FROM submissions s WHERE s.user_lab_session_id = uls.id AND s.is_correct) AS correct_answers, " +
+                "(SELECT COUNT(*) FROM questions q WHERE q.lab_id = uls.lab_id) AS total_questions " +
+                "FROM user_lab_sessions uls " +
+                "JOIN course_users cu ON cu.id = uls.course_user_id " +
+                "JOIN users u ON u.id = cu.user_id " +
+                "JOIN labs l ON l.id = uls.lab_id " +
+                "WHERE cu.course_id = :courseId " +
+                "ORDER BY u.username, uls.created_at, uls.id";
+
+        // Keyset page on (created_at, id) descending, served by idx_uls_course_user_created
+        @Query(value = "SELECT uls.id AS sessionId, l.title AS labTitle, uls.status AS status, " +
+                "uls.setup_started_at AS startAt, uls.setup_completed_at AS completedAt, uls.created_at AS createdAt " +
+                HISTORY_FILTER +
+                "AND (CAST(:cursorCreatedAt AS timestamp) IS NULL " +
+                "     OR (uls.created_at, uls.id) < (CAST(:cursorCreatedAt AS timestamp), CAST(:cursorId AS integer))) " +
+                "ORDER BY uls.created_at DESC, uls.id DESC " +
+                "LIMIT :limit", nativeQuery = true)
+        List<LabSessionHistoryProjection> findHistoryPage(
+                @Param("userId") Integer userId,
                 @Param("keyword") String keyword,
+                @Param("from") LocalDateTime from,
+                @Param("to") LocalDateTime to,
+                @Param("cursorCreatedAt") LocalDateTime cursorCreatedAt,
+                @Param("cursorId") Integer cursorId,
+                @Param("limit") int limit
+        );
+
+        @Query(value = "SELECT COUNT(*) " + HISTORY_FILTER, nativeQuery = true)
+        long countHistory(
                 @Param("userId") Integer userId,
-                Pageable pageable);
+                @Param("keyword") String keyword,
+                @Param("from") LocalDateTime from,
+                @Param("to") LocalDateTime to
+        );
 
 
         @Query("SELECT uls FROM UserLabSession uls " +
@@ -86,4 +135,206 @@ public interface UserLabSessionRepository extends JpaRepository<UserLabSession,
                 @Param("keyword") String keyword, 
                 Pageable pageable
         );
-}
\ No newline at end of file
+
+        // Conditional state transitions: each is a single statement that only applies when the
+        // row is still in one of the expected statuses, and returns the updated row (empty if it
+        // lost the race). All of them bump the @Version column.
+
+        @Query(value = "UPDATE user_lab_sessions uls SET status = :toStatus, pod_name = :podName, " +
+                "setup_completed_at = :now, " +
+                "expires_at = CASE WHEN l.estimated_time > 0 THEN :now + make_interval(mins => l.estimated_time) ELSE uls.expires_at END, " +
+                "version = uls.version + 1 " +
+                "FROM labs l " +
+                "WHERE l.id = uls.lab_id AND uls.id = :id AND uls.status IN (:fromStatuses) " +
+                "RETURNING uls.*", nativeQuery = true)
+        Optional<UserLabSession> transitionToRunning(
+                @Param("id") Integer id,
+                @Param("fromStatuses") Collection<String> fromStatuses,
+                @Param("toStatus") String toStatus,
+                @Param("podName") String podName,
+                @Param("now") LocalDateTime now
+        );
+
+        @Query(value = "UPDATE user_lab_sessions SET status = :toStatus, expires_at = :now, version = version + 1 " +
+                "WHERE id = :id AND status IN (:fromStatuses) " +
+                "RETURNING *", nativeQuery = true)
+        Optional<UserLabSession> transitionToCompleted(
+                @Param("id") Integer id,
+                @Param("fromStatuses") Collection<String> fromStatuses,
+                @Param("toStatus") String toStatus,
+                @Param("now") LocalDateTime now
+        );
+
+        // Claims and completes up to :limit overdue sessions in one statement; SKIP LOCKED lets
+        // several nodes expire concurrently, and rows a submit already completed drop out.
+        @Query(value = "UPDATE user_lab_sessions SET status = :toStatus, version = version + 1 " +
+                "WHERE id IN (" +
+                "  SELECT id FROM user_lab_sessions " +
+                "  WHERE status = :fromStatus AND expires_at <= :now " +
+                "  ORDER BY expires_at LIMIT :limit FOR UPDATE SKIP LOCKED" +
+                ") " +
+                "RETURNING *", nativeQuery = true)
+        List<UserLabSession> transitionDueToCompleted(
+                @Param("fromStatus") String fromStatus,
+                @Param("toStatus") String toStatus,
+                @Param("now") LocalDateTime now,
+                @Param("limit") int limit
+        );
+
+        long countByStatusAndExpiresAtLessThanEqual(String status, LocalDateTime now);
+
+        // Enrollment and active-session check for a whole batch of users in one round trip
+        String LAB_ENROLLMENT_SELECT =
+                "SELECT cu.id AS courseUserId, cu.user_id AS userId, " +
+                "  EXISTS (SELECT 1 FROM user_lab_sessions uls " +
+                "          WHERE uls.course_user_id = cu.id AND uls.lab_id = :labId " +
+                "            AND uls.status <> :completedStatus) AS hasActiveSession " +
+                "FROM course_users cu ";
+
+        @Query(value = LAB_ENROLLMENT_SELECT +
+                "WHERE cu.course_id = :courseId AND cu.user_id IN (:userIds)", nativeQuery = true)
+        List<LabEnrollmentProjection> findLabEnrollmentsByUserIds(
+                @Param("labId") Integer labId,
+                @Param("courseId") Integer courseId,
+                @Param("userIds") Collection<Integer> userIds,
+                @Param("completedStatus") String completedStatus
+        );
+
+        @Query(value = LAB_ENROLLMENT_SELECT +
+                "JOIN users u ON u.id = cu.user_id " +
+                "JOIN roles r ON r.id = u.role_id " +
+                "WHERE cu.course_id = :courseId AND r.name = :roleName", nativeQuery = true)
+        List<LabEnrollmentProjection> findLabEnrollmentsByRole(
+                @Param("labId") Integer labId,
+                @Param("courseId") Integer courseId,
+                @Param("roleName") String roleName,
+                @Param("completedStatus") String completedStatus
+        );
+
+        // Arbiter for uq_uls_active_course_user_lab (see LabSessionConstraintInitializer)
+        String ON_ACTIVE_SESSION_CONFLICT = "ON CONFLICT (course_user_id, lab_id) WHERE status <> 'COMPLETED' DO NOTHING ";
+
+        // Insert-or-nothing: returns the new row, or empty when the user already has a
+        // non-completed session for the lab (including one being inserted concurrently).
+        @Query(value = "INSERT INTO user_lab_sessions (created_at, setup_started_at, setup_completed_at, expires_at, " +
+                "queued_at, queue_priority, pod_name, vm_name, status, lab_id, course_user_id, version) " +
+                "VALUES (:#{#session.createdAt}, CAST(:#{#session.setupStartedAt} AS timestamp), " +
+                "CAST(:#{#session.setupCompletedAt} AS timestamp), CAST(:#{#session.expiresAt} AS timestamp), " +
+                "CAST(:#{#session.queuedAt} AS timestamp), CAST(:#{#session.queuePriority} AS integer), " +
+                "CAST(:#{#session.podName} AS varchar), CAST(:#{#session.vmName} AS varchar), :#{#session.status}, " +
+                ":#{#session.lab.id}, :#{#session.courseUser.id}, 0) " +
+                ON_ACTIVE_SESSION_CONFLICT +
+                "RETURNING *", nativeQuery = true)
+        Optional<UserLabSession> insertIfNoActiveSession(@Param("session") UserLabSession session);
+
+        // One multi-row INSERT for the whole batch; RETURNING hands back the generated ids.
+        // Users that got an active session concurrently are left out of the result.
+        @Query(value = "INSERT INTO user_lab_sessions (created_at, setup_started_at, queued_at, queue_priority, status, lab_id, course_user_id) " +
+                "SELECT :now, CAST(:startedAt AS timestamp), CAST(:queuedAt AS timestamp), :queuePriority, :status, :labId, cu.id " +
+                "FROM course_users cu WHERE cu.id IN (:courseUserIds) " +
+                ON_ACTIVE_SESSION_CONFLICT +
+                "RETURNING id, course_user_id AS courseUserId", nativeQuery = true)
+        List<CreatedSessionProjection> insertSessions(
+                @Param("labId") Integer labId,
+                @Param("courseUserIds") Collection<Integer> courseUserIds,
+                @Param("status") String status,
+                @Param("now") LocalDateTime now,
+                @Param("startedAt") LocalDateTime startedAt,
+                @Param("queuedAt") LocalDateTime queuedAt,
+                @Param("queuePriority") int queuePriority
+        );
+
+        // Active sessions plus unclaimed warm VMs, which occupy the cluster just the same
+        @Query(value = "SELECT COALESCE(SUM(r.cpu_cores), 0) AS cpuCores, " +
+                "COALESCE(SUM(r.memory_gb), 0) AS memoryGb, " +
+                "COALESCE(SUM(r.storage_gb), 0) AS storageGb " +
+                "FROM (" +
+                "  SELECT it.cpu_cores, it.memory_gb, it.storage_gb FROM user_lab_sessions uls " +
+                "  JOIN labs l ON l.id = uls.lab_id " +
+                "  JOIN instance_types it ON it.id = l.instance_type_id " +
+                "  WHERE uls.status IN (:statuses) " +
+                "  UNION ALL " +
+                "  SELECT it.cpu_cores, it.memory_gb, it.storage_gb FROM warm_vms w " +
+                "  JOIN labs l ON l.id = w.lab_id " +
+                "  JOIN instance_types it ON it.id = l.instance_type_id" +
+                ") r", nativeQuery = true)
+        ReservedResourcesProjection sumReservedResources(@Param("statuses") Collection<String> statuses);
+
+        // Waiting-room order: exam priority first, then round-robin across courses (the n-th
+        // queued session of every course before the (n+1)-th of any), FIFO inside a course.
+        String QUEUE_RANKED =
+                "SELECT q.id, q.lab_id, q.queued_at, COALESCE(q.queue_priority, 0) AS priority, " +
+                "       ROW_NUMBER() OVER (PARTITION BY cu.course_id " +
+                "                          ORDER BY COALESCE(q.queue_priority, 0) DESC, q.queued_at, q.id) AS course_rank " +
+                "FROM user_lab_sessions q JOIN course_users cu ON cu.id = q.course_user_id " +
+                "WHERE q.status = :status ";
+
+        @Query(value = "SELECT ranked.id AS id, ranked.lab_id AS labId, ranked.queued_at AS queuedAt " +
+                "FROM user_lab_sessions uls JOIN (" + QUEUE_RANKED + ") ranked ON ranked.id = uls.id " +
+                "ORDER BY ranked.priority DESC, ranked.course_rank, ranked.queued_at, ranked.id " +
+                "LIMIT :limit " +
+                "FOR UPDATE OF uls SKIP LOCKED", nativeQuery = true)
+        List<QueuedSessionProjection> lockQueueHead(@Param("status") String status, @Param("limit") int limit);
+
+        // Position in the same order lockQueueHead admits in
+        @Query(value = "WITH ranked AS (" + QUEUE_RANKED + ") " +
+                "SELECT COUNT(*) FROM ranked r JOIN ranked me ON me.id = :id " +
+                "WHERE (-r.priority, r.course_rank, r.queued_at, r.id) < (-me.priority, me.course_rank, me.queued_at, me.id)",
+                nativeQuery = true)
+        long countQueuedAhead(@Param("status") String status, @Param("id") Integer id);
+
+        // Admits the given sessions only if they are still QUEUED; rows cancelled meanwhile drop out
+        @Query(value = "UPDATE user_lab_sessions SET status = :toStatus, setup_started_at = :now, version = version + 1 " +
+                "WHERE id IN (:ids) AND status = :fromStatus " +
+                "RETURNING *", nativeQuery = true)
+        List<UserLabSession> transitionQueuedToPending(
+                @Param("ids") Collection<Integer> ids,
+                @Param("fromStatus") String fromStatus,
+                @Param("toStatus") String toStatus,
+                @Param("now") LocalDateTime now
+        );
+
+        // Admissions from the waiting room since :since, for the ETA shown to queued students
+        @Query(value = "SELECT COUNT(*) FROM user_lab_sessions " +
+                "WHERE queued_at IS NOT NULL AND setup_started_at >= :since", nativeQuery = true)
+        long countAdmittedSince(@Param("since") LocalDateTime since);
+
+        long countByStatus(String status);
+
+        @Query(value = "SELECT cu.user_id FROM user_lab_sessions uls " +
+                "JOIN course_users cu ON cu.id = uls.course_user_id WHERE uls.id = :id", nativeQuery = true)
+        Optional<Integer> findOwnerUserId(@Param("id") Integer id);
+
+        // VM reconciliation. Which of the given VM names still belong to an active session or
+        // to the warm pool; one statement so a warm VM being claimed is seen on exactly one side.
+        @Query(value = "SELECT 'vm-' || uls.id FROM user_lab_sessions uls " +
+                "WHERE uls.id IN (:sessionIds) AND uls.vm_name IS NULL AND uls.status IN (:statuses) " +
+                "UNION ALL " +
+                "SELECT uls.vm_name FROM user_lab_sessions uls " +
+                "WHERE uls.vm_name IN (:vmNames) AND uls.status IN (:statuses) " +
+                "UNION ALL " +
+                "SELECT w.vm_name FROM warm_vms w WHERE w.vm_name IN (:vmNames)", nativeQuery = true)
+        List<String> findOwnedVmNames(
+                @Param("sessionIds") Collection<Integer> sessionIds,
+                @Param("vmNames") Collection<String> vmNames,
+                @Param("statuses") Collection<String> statuses
+        );
+
+        @Query(value = "SELECT uls.id AS id, uls.lab_id AS labId, uls.vm_name AS vmName " +
+                "FROM user_lab_sessions uls WHERE uls.id IN (:ids)", nativeQuery = true)
+        List<SessionVmProjection> findSessionVms(@Param("ids") Collection<Integer> ids);
+
+        // Keyset page over the sessions of one namespace that have been in :status since before :cutoff
+        @Query(value = "SELECT uls.id AS id, uls.lab_id AS labId, uls.vm_name AS vmName " +
+                "FROM user_lab_sessions uls JOIN labs l ON l.id = uls.lab_id " +
+                "WHERE l.namespace = :namespace AND uls.status = :status " +
+                "AND uls.setup_completed_at < :cutoff AND uls.id > :afterId " +
+                "ORDER BY uls.id LIMIT :limit", nativeQuery = true)
+        List<SessionVmProjection> findSessionVmsInNamespace(
+                @Param("namespace") String namespace,
+                @Param("status") String status,
+                @Param("cutoff") LocalDateTime cutoff,
+                @Param("afterId") int afterId,
+                @Param("limit") int limit
+        );
+}
@@ -3,6 +3,8 @@ package com.example.cms_be.repository;
 
 
 import com.example.cms_be.model.User;
+import com.example.cms_be.dto.CatalogEntryProjection;
+import com.example.cms_be.dto.user.UserIdentityProjection;
 
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
@@ -11,6 +13,7 @@ import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -66,7 +69,79 @@ public interface UserRepository extends JpaRepository<User, Integer> {
         );
 
 
+        // Keyword search over trigram indexes on users.username and the full-name expression
+        // below (SearchIndexInitializer); both must stay textually identical to the index.
+        String FULL_NAME = "(COALESCE(u.first_name, '') || ' ' || COALESCE(u.last_name, ''))";
+        String ACTIVE_FILTER = "(CAST(:isActive AS boolean) IS NULL OR u.is_active = CAST(:isActive AS boolean)) ";
+        String NAME_SEARCH =
+                "FROM users u " +
+                "WHERE (u.username ILIKE CONCAT('%', :search, '%') OR " + FULL_NAME + " ILIKE CONCAT('%', :search, '%')) " +
+                "AND " + ACTIVE_FILTER;
+        String NAME_RANK = "ORDER BY GREATEST(word_similarity(:search, u.username), word_similarity(:search, " + FULL_NAME + ")) DESC, u.id";
+        String IN_COURSE = "AND EXISTS (SELECT 1 FROM course_users cu WHERE cu.user_id = u.id AND cu.course_id = :courseId) ";
+        String NOT_IN_COURSE_WITH_ROLE =
+                "AND NOT EXISTS (SELECT 1 FROM course_users cu WHERE cu.user_id = u.id AND cu.course_id = :courseId) " +
+                "AND u.role_id = (SELECT r.id FROM roles r WHERE r.name = :roleName) ";
+
+        @Query(value = "SELECT u.* FROM users u " +
+                "WHERE u.username ILIKE CONCAT('%', :search, '%') AND " + ACTIVE_FILTER +
+                "ORDER BY word_similarity(:search, u.username) DESC, u.id",
+                countQuery = "SELECT COUNT(*) FROM users u " +
+                "WHERE u.username ILIKE CONCAT('%', :search, '%') AND " + ACTIVE_FILTER,
+                nativeQuery = true)
+        Page<User> searchWithFilters(
+                @Param("search") String search,
+                @Param("isActive") Boolean isActive,
+                Pageable pageable
+        );
+
+        @Query(value = "SELECT u.* " + NAME_SEARCH + IN_COURSE + NAME_RANK,
+                countQuery = "SELECT COUNT(*) " + NAME_SEARCH + IN_COURSE,
+                nativeQuery = true)
+        Page<User> searchUsersByCourseId(
+                @Param("courseId") Integer courseId,
+                @Param("search") String search,
+                @Param("isActive") Boolean isActive,
+                Pageable pageable
+        );
+
+        @Query(value = "SELECT u.* " + NAME_SEARCH + NOT_IN_COURSE_WITH_ROLE + NAME_RANK,
+                countQuery = "SELECT COUNT(*) " + NAME_SEARCH + NOT_IN_COURSE_WITH_ROLE,
+                nativeQuery = true)
+        Page<User> searchUsersNotInCourseId(
+                @Param("courseId") Integer courseId,
+                @Param("roleName") String roleName,
+                @Param("search") String search,
+                @Param("isActive") Boolean isActive,
+                Pageable pageable
+        );
+
+        @Query(value = "SELECT u.id AS id, " +
+                "u.username || ' - ' || TRIM(COALESCE(u.first_name, '') || ' ' || COALESCE(u.last_name, '')) AS label, " +
+                "CONCAT_WS(' ', u.username, u.first_name, u.last_name, u.email) AS searchText, " +
+                "COALESCE(u.is_active, false) AS active, r.name AS tag, CAST(NULL AS integer) AS parentId " +
+                "FROM users u LEFT JOIN roles r ON r.id = u.role_id", nativeQuery = true)
+        List<CatalogEntryProjection> findCatalogEntries();
+
         Optional<User> findByUsername(String username);
+
+        // Uniqueness pre-checks for bulk import, one query per batch
+        @Query("SELECT u.username FROM User u WHERE u.username IN :usernames")
+        List<String> findExistingUsernames(@Param("usernames") Collection<String> usernames);
+
+        @Query("SELECT u.email FROM User u WHERE u.email IN :emails")
+        List<String> findExistingEmails(@Param("emails") Collection<String> emails);
+
+        @Query("SELECT u.phoneNumber FROM User u WHERE u.phoneNumber IN :phoneNumbers")
+        List<String> findExistingPhoneNumbers(@Param("phoneNumbers") Collection<String> phoneNumbers);
+
+        @Query("SELECT u.id FROM User u WHERE u.id IN :ids")
+        List<Integer> findExistingIds(@Param("ids") Collection<Integer> ids);
+
+        // Roster lines name a user by username or email
+        @Query("SELECT u.id AS id, u.username AS username, u.email AS email FROM User u " +
+               "WHERE u.username IN :identifiers OR u.email IN :identifiers")
+        List<UserIdentityProjection> findIdentities(@Param("identifiers") Collection<String> identifiers);
         boolean existsByEmail(String email);
 
 
@@ -0,0 +1,50 @@
+package com.example.cms_be.repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import com.example.cms_be.dto.lab.WarmPoolTargetProjection;
+import com.example.cms_be.model.WarmVm;
+
+@Repository
+public interface WarmVmRepository extends JpaRepository<WarmVm, Long> {
+
+        // Atomic claim: the oldest READY VM of the lab is removed from the pool in one statement;
+        // concurrent claimers skip each other's locked row instead of waiting on it.
+        @Query(value = "DELETE FROM warm_vms WHERE id = (" +
+                "  SELECT id FROM warm_vms WHERE lab_id = :labId AND status = 'READY' " +
+                "  ORDER BY ready_at LIMIT 1 FOR UPDATE SKIP LOCKED" +
+                ") RETURNING *", nativeQuery = true)
+        Optional<WarmVm> claimReady(@Param("labId") Integer labId);
+
+        Optional<WarmVm> findByVmName(String vmName);
+
+        List<WarmVm> findByLabIdAndStatusOrderByReadyAtDesc(Integer labId, String status);
+
+        List<WarmVm> findByLabIdOrderByCreatedAt(Integer labId);
+
+        List<WarmVm> findByStatusAndCreatedAtBefore(String status, LocalDateTime createdBefore);
+
+        @Query(value = "SELECT pg_try_advisory_xact_lock(:lockKey)", nativeQuery = true)
+        boolean tryAcquireRefillLock(@Param("lockKey") long lockKey);
+
+        // Effective target = max(lab.warm_pool_size, schedules active within the lead window)
+        @Query(value = "SELECT t.lab_id AS labId, t.target_size AS targetSize, t.current_size AS currentSize FROM (" +
+                "  SELECT l.id AS lab_id, " +
+                "    GREATEST(COALESCE(l.warm_pool_size, 0), COALESCE((" +
+                "      SELECT MAX(s.target_size) FROM lab_warm_pool_schedules s " +
+                "      WHERE s.lab_id = l.id AND s.starts_at <= :horizon AND s.ends_at > :now), 0)) AS target_size, " +
+                "    (SELECT COUNT(*) FROM warm_vms w WHERE w.lab_id = l.id) AS current_size " +
+                "  FROM labs l WHERE l.is_active = true OR EXISTS (SELECT 1 FROM warm_vms w WHERE w.lab_id = l.id)" +
+                ") t WHERE t.target_size > 0 OR t.current_size > 0", nativeQuery = true)
+        List<WarmPoolTargetProjection> findPoolTargets(
+                @Param("now") LocalDateTime now,
+                @Param("horizon") LocalDateTime horizon
+        );
+}
@@ -0,0 +1,43 @@
+package com.example.cms_be.scheduler;
+
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import com.example.cms_be.repository.CourseUserStatsRepository;
+import com.example.cms_be.service.CourseUserStatsService;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+@Component
+@Slf4j
+@RequiredArgsConstructor
+public class CourseUserStatsReconcileScheduler {
+
+    private final CourseUserStatsService courseUserStatsService;
+    private final CourseUserStatsRepository courseUserStatsRepository;
+
+    // First start after the table is introduced: seed it from the existing sessions.
+    @EventListener(ApplicationReadyEvent.class)
+    public void seedIfEmpty() {
+        try {
+            if (courseUserStatsRepository.count() == 0) {
+                log.info("course_user_stats is empty, rebuilding from sessions and submissions");
+                courseUserStatsService.rebuildAll();
+            }
+        } catch (Exception e) {
+            log.error("Failed to seed course_user_stats: {}", e.getMessage(), e);
+        }
+    }
+
+    @Scheduled(cron = "${lab.stats.reconcile-cron:0 30 3 * * *}")
+    public void reconcile() {
+        try {
+            courseUserStatsService.rebuildAll();
+        } catch (Exception e) {
+            log.error("Failed to reconcile course_user_stats: {}", e.getMessage(), e);
+        }
+    }
+}
@@ -0,0 +1,62 @@
+package com.example.cms_be.scheduler;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import com.example.cms_be.service.LabSessionExpiryService;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Polls user_lab_sessions.expires_at instead of keeping one in-memory timer per session,
+ * so pending expiries survive restarts and are shared between all CMS nodes.
+ */
+@Component
+@Slf4j
+@RequiredArgsConstructor
+public class LabSessionExpiryScheduler {
+
+    private final LabSessionExpiryService expiryService;
+    private final MeterRegistry meterRegistry;
+
+    private final AtomicLong backlog = new AtomicLong();
+
+    @Value("${lab.session.expiry.batch-size:100}")
+    private int batchSize;
+
+    @PostConstruct
+    void registerMetrics() {
+        Gauge.builder("lab.session.expiry.backlog", backlog, AtomicLong::get)
+                .description("RUNNING sessions whose expires_at has already passed")
+                .register(meterRegistry);
+    }
+
+    @Scheduled(
+        fixedDelayString = "${lab.session.expiry.poll-interval-ms:15000}",
+        initialDelayString = "${lab.session.expiry.initial-delay-ms:10000}"
+    )
+    public void expireDueSessions() {
+        try {
+            int completed;
+            int total = 0;
+            do {
+                completed = expiryService.expireDueSessions(batchSize);
+                total += completed;
+            } while (completed == batchSize);
+
+            if (total > 0) {
+                log.info("Expired {} lab sessions", total);
+            }
+            backlog.set(expiryService.countBacklog());
+        } catch (Exception e) {
+            log.error("Error while expiring due lab sessions: {}", e.getMessage(), e);
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package com.example.cms_be.scheduler;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import com.example.cms_be.service.LabWaitingRoomService;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+@Component
+@Slf4j
+@RequiredArgsConstructor
+public class LabWaitingRoomScheduler {
+
+    private final LabWaitingRoomService waitingRoomService;
+    private final MeterRegistry meterRegistry;
+
+    private final AtomicLong queueLength = new AtomicLong();
+
+    @Value("${lab.waiting-room.batch-size:50}")
+    private int batchSize;
+
+    @PostConstruct
+    void registerMetrics() {
+        Gauge.builder("lab.waiting-room.length", queueLength, AtomicLong::get)
+                .description("Sessions waiting in status QUEUED")
+                .register(meterRegistry);
+    }
+
+    @Scheduled(
+        fixedDelayString = "${lab.waiting-room.poll-interval-ms:5000}",
+        initialDelayString = "${lab.waiting-room.initial-delay-ms:15000}"
+    )
+    public void admitQueuedSessions() {
+        try {
+            int admitted;
+            do {
+                admitted = waitingRoomService.admitQueuedSessions(batchSize);
+            } while (admitted == batchSize);
+
+            queueLength.set(waitingRoomService.countQueued());
+        } catch (Exception e) {
+            log.error("Error while admitting queued lab sessions: {}", e.getMessage(), e);
+        }
+    }
+}
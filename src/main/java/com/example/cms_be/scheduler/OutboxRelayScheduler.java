@@ -0,0 +1,67 @@
+package com.example.cms_be.scheduler;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import com.example.cms_be.service.OutboxService;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Drains the outbox table to Kafka. Each pass publishes one row per message key, so it keeps
+ * pulling passes until nothing more is due, then waits for the next poll.
+ */
+@Component
+@Slf4j
+@RequiredArgsConstructor
+public class OutboxRelayScheduler {
+
+    private final OutboxService outboxService;
+    private final MeterRegistry meterRegistry;
+
+    private final AtomicLong pending = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+
+    @Value("${app.outbox.relay.batch-size:500}")
+    private int batchSize;
+
+    @PostConstruct
+    void registerMetrics() {
+        Gauge.builder("outbox.pending", pending, AtomicLong::get)
+                .description("Outbox rows not yet acknowledged by Kafka")
+                .register(meterRegistry);
+        Gauge.builder("outbox.failed", failed, AtomicLong::get)
+                .description("Outbox rows parked as FAILED after exhausting their send attempts")
+                .register(meterRegistry);
+    }
+
+    @Scheduled(
+        fixedDelayString = "${app.outbox.relay.poll-interval-ms:200}",
+        initialDelayString = "${app.outbox.relay.initial-delay-ms:5000}"
+    )
+    public void relay() {
+        try {
+            int published;
+            int total = 0;
+            do {
+                published = outboxService.relayBatch(batchSize);
+                total += Math.max(published, 0);
+            } while (published > 0);
+
+            if (total > 0) {
+                log.debug("Outbox relay published {} events", total);
+            }
+            pending.set(outboxService.countPending());
+            failed.set(outboxService.countFailed());
+        } catch (Exception e) {
+            log.error("Error while relaying outbox events: {}", e.getMessage(), e);
+        }
+    }
+}
@@ -0,0 +1,46 @@
+package com.example.cms_be.scheduler;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import com.example.cms_be.service.VmReconcileService;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Catches VMs that outlived their session (lost cleanup requests, deleted sessions) and
+ * sessions whose VM vanished; see {@link VmReconcileService}.
+ */
+@Component
+@Slf4j
+@RequiredArgsConstructor
+public class VmReconcileScheduler {
+
+    private final VmReconcileService vmReconcileService;
+
+    @Value("${lab.vm-reconciler.enabled:true}")
+    private boolean enabled;
+
+    @Scheduled(
+        fixedDelayString = "${lab.vm-reconciler.interval-ms:300000}",
+        initialDelayString = "${lab.vm-reconciler.initial-delay-ms:120000}"
+    )
+    public void reconcile() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            long start = System.currentTimeMillis();
+            int acted = vmReconcileService.reconcile();
+            if (acted < 0) {
+                log.debug("VM reconciliation skipped, another node holds the lease");
+            } else if (acted > 0) {
+                log.info("VM reconciliation acted on {} VMs/sessions in {}ms", acted, System.currentTimeMillis() - start);
+            }
+        } catch (Exception e) {
+            log.error("Error while reconciling lab VMs: {}", e.getMessage(), e);
+        }
+    }
+}
@@ -0,0 +1,32 @@
+package com.example.cms_be.scheduler;
+
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import com.example.cms_be.service.WarmPoolService;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+@Component
+@Slf4j
+@RequiredArgsConstructor
+public class WarmPoolRefillScheduler {
+
+    private final WarmPoolService warmPoolService;
+
+    @Scheduled(
+        fixedDelayString = "${lab.warm-pool.refill-interval-ms:30000}",
+        initialDelayString = "${lab.warm-pool.initial-delay-ms:30000}"
+    )
+    public void refillWarmPools() {
+        try {
+            int requested = warmPoolService.refill();
+            if (requested > 0) {
+                log.info("Warm pool refill requested {} VMs", requested);
+            }
+        } catch (Exception e) {
+            log.error("Error while refilling warm pools: {}", e.getMessage(), e);
+        }
+    }
+}
@@ -2,6 +2,8 @@ package com.example.cms_be.security.jwt;
 
 import com.example.cms_be.security.service.UserDetailsServiceImpl;
 import com.nimbusds.jose.JOSEException;
+import com.nimbusds.jwt.JWTClaimsSet;
+import com.nimbusds.jwt.SignedJWT;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -9,7 +11,9 @@ import jakarta.servlet.http.HttpServletResponse;
 import lombok.AccessLevel;
 import lombok.RequiredArgsConstructor;
 import lombok.experimental.FieldDefaults;
+import lombok.experimental.NonFinal;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UserDetails;
@@ -20,6 +24,7 @@ import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
 import java.text.ParseException;
+import java.util.Date;
 
 @RequiredArgsConstructor
 @FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
@@ -31,12 +36,24 @@ public class AuthTokenFilter extends OncePerRequestFilter {
 
     UserDetailsServiceImpl userDetailsService;
 
+    VerifiedTokenCache verifiedTokenCache;
+
+    // Build the principal straight from the signed id/roles claims instead of loading the user from DB
+    @NonFinal
+    @Value("${app.jwt.trust-token-claims:false}")
+    boolean trustTokenClaims;
+
+    // DB-loaded principals are re-read after this long even if the token lives for days
+    @NonFinal
+    @Value("${app.jwt.cache.db-principal-ttl-ms:300000}")
+    long dbPrincipalTtlMs;
+
     @Override
     protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
             throws ServletException, IOException {
-        log.info("Request path: {}", request.getServletPath());
+        log.debug("Request path: {}", request.getServletPath());
         if (request.getServletPath().startsWith("/auth/")) {
-            logger.info("Bypassing authentication for auth path");
+            log.debug("Bypassing authentication for auth path");
             filterChain.doFilter(request, response);
             return;
         }
@@ -45,10 +62,9 @@ public class AuthTokenFilter extends OncePerRequestFilter {
             String jwt = parseJwt(request);
             if (jwt != null) {
                 try {
-                    String username = jwtUtils.getUserNameFromToken(jwt);
-                    UserDetails userDetails = userDetailsService.loadUserByUsername(username);
+                    UserDetails userDetails = resolveUserDetails(jwt);
 
-                    if (jwtUtils.validateToken(jwt, userDetails)) {
+                    if (userDetails != null) {
                         UsernamePasswordAuthenticationToken authentication = new UsernamePasswordAuthenticationToken(
                                 userDetails, null, userDetails.getAuthorities());
                         authentication.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
@@ -62,7 +78,7 @@ public class AuthTokenFilter extends OncePerRequestFilter {
                     // KHÔNG set authentication vào SecurityContextHolder
                 }
             } else {
-                logger.info("Không tìm thấy token JWT");
+                log.debug("Không tìm thấy token JWT");
                 // KHÔNG set authentication vào SecurityContextHolder
             }
         } catch (Exception e) {
@@ -74,6 +90,35 @@ public class AuthTokenFilter extends OncePerRequestFilter {
     }
 
 
+    // Token đã verify sẽ được cache theo jti cho tới khi hết hạn: bỏ qua verify chữ ký và truy vấn DB
+    // Also used for STOMP CONNECT frames, see StompAuthChannelInterceptor
+    UserDetails resolveUserDetails(String jwt) throws ParseException, JOSEException {
+        SignedJWT signedJWT = SignedJWT.parse(jwt);
+        JWTClaimsSet claims = signedJWT.getJWTClaimsSet();
+        String jti = claims.getJWTID();
+        String signature = signedJWT.getSignature().toString();
+
+        UserDetails cached = verifiedTokenCache.get(jti, signature);
+        if (cached != null) {
+            return cached;
+        }
+
+        if (!jwtUtils.verifySignatureAndExpiry(signedJWT)) {
+            return null;
+        }
+
+        UserDetails userDetails = trustTokenClaims
+                ? jwtUtils.buildUserDetailsFromClaims(claims)
+                : userDetailsService.loadUserByUsername(claims.getSubject());
+
+        Date cachedUntil = claims.getExpirationTime();
+        if (!trustTokenClaims && cachedUntil != null) {
+            cachedUntil = new Date(Math.min(cachedUntil.getTime(), System.currentTimeMillis() + dbPrincipalTtlMs));
+        }
+        verifiedTokenCache.put(jti, signature, userDetails, cachedUntil);
+        return userDetails;
+    }
+
     private String parseJwt(HttpServletRequest request) {
         String headerAuth = request.getHeader("Authorization");
 
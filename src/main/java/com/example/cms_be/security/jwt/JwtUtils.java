@@ -6,10 +6,12 @@ import com.nimbusds.jose.crypto.MACSigner;
 import com.nimbusds.jose.crypto.MACVerifier;
 import com.nimbusds.jwt.JWTClaimsSet;
 import com.nimbusds.jwt.SignedJWT;
+import jakarta.annotation.PostConstruct;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Component;
 
@@ -18,6 +20,7 @@ import java.text.ParseException;
 import java.time.Instant;
 import java.time.temporal.ChronoUnit;
 import java.util.Date;
+import java.util.List;
 import java.util.Map;
 import java.util.UUID;
 import java.util.stream.Collectors;
@@ -35,6 +38,14 @@ public class JwtUtils {
     @Value("${app.refreshExpirationMs:604800000}") // Default 7 days
     private long refreshExpirationMs;
 
+    // MACVerifier is thread-safe, so one instance is shared by every request.
+    private JWSVerifier verifier;
+
+    @PostConstruct
+    void initVerifier() throws JOSEException {
+        verifier = new MACVerifier(jwtSecret.getBytes(StandardCharsets.UTF_8));
+    }
+
     public String generateToken(Authentication authentication, boolean isRefresh) {
         try {
             JWSHeader header = new JWSHeader(JWSAlgorithm.HS512);
@@ -72,7 +83,6 @@ public class JwtUtils {
     }
 
     public boolean validateToken(String token, UserDetails user) throws JOSEException, ParseException {
-        JWSVerifier verifier = new MACVerifier(jwtSecret.getBytes(StandardCharsets.UTF_8));
         SignedJWT signedJWT = SignedJWT.parse(token);
 
         boolean verified = signedJWT.verify(verifier);
@@ -84,6 +94,34 @@ public class JwtUtils {
                 user.getUsername().equals(userName);
     }
 
+    public boolean verifySignatureAndExpiry(SignedJWT signedJWT) throws JOSEException, ParseException {
+        Date expiryTime = signedJWT.getJWTClaimsSet().getExpirationTime();
+        return expiryTime != null
+                && expiryTime.after(new Date())
+                && signedJWT.verify(verifier);
+    }
+
+    // Builds the principal from the signed claims written by generateToken, without a DB lookup.
+    public UserDetailsImpl buildUserDetailsFromClaims(JWTClaimsSet claims) throws ParseException {
+        List<String> roles = claims.getStringListClaim("roles");
+        List<GrantedAuthority> authorities = roles == null
+                ? List.of()
+                : roles.stream().<GrantedAuthority>map(SimpleGrantedAuthority::new).toList();
+
+        Object userIdObj = claims.getClaim("id");
+        Integer userId = userIdObj instanceof Number ? ((Number) userIdObj).intValue() : null;
+
+        return UserDetailsImpl.builder()
+                .id(userId)
+                .email(claims.getStringClaim("email"))
+                .firstName(claims.getStringClaim("firstName"))
+                .lastName(claims.getStringClaim("lastName"))
+                .username(claims.getSubject())
+                .enabled(true)
+                .authorities(authorities)
+                .build();
+    }
+
     public String getUserNameFromToken(String token) throws ParseException {
         SignedJWT signedJWT = SignedJWT.parse(token);
         return signedJWT.getJWTClaimsSet().getSubject();
@@ -0,0 +1,125 @@
+package com.example.cms_be.security.jwt;
+
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.simp.stomp.StompCommand;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.messaging.support.ChannelInterceptor;
+import org.springframework.messaging.support.MessageHeaderAccessor;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+
+import com.example.cms_be.repository.UserLabSessionRepository;
+import com.example.cms_be.security.service.UserDetailsImpl;
+import com.example.cms_be.service.BackingImageCache;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Authenticates the STOMP CONNECT frame with the same JWT the REST API uses (native header
+ * {@code Authorization: Bearer ...}) and authorizes every SUBSCRIBE. The simple broker matches
+ * subscriptions as Ant patterns, so only exact destinations are accepted and everything else is
+ * denied: the user's own /topic/users/{userId}/lab-sessions, /topic/lab-sessions/{id} of a
+ * session they own (admins and lecturers may follow any session) and /topic/backing-images.
+ */
+@Component
+@Slf4j
+@RequiredArgsConstructor
+public class StompAuthChannelInterceptor implements ChannelInterceptor {
+
+    private static final Pattern USER_TOPIC = Pattern.compile("^/topic/users/(\\d{1,9})/lab-sessions$");
+    private static final Pattern LAB_SESSION_TOPIC = Pattern.compile("^/topic/lab-sessions/(\\d{1,9})$");
+    private static final Set<String> PUBLIC_TOPICS = Set.of(BackingImageCache.TOPIC);
+    private static final Set<String> STAFF_ROLES = Set.of("ROLE_ADMIN", "ROLE_LECTURER");
+
+    private final AuthTokenFilter authTokenFilter;
+    private final UserLabSessionRepository userLabSessionRepository;
+
+    @Override
+    public Message<?> preSend(Message<?> message, MessageChannel channel) {
+        StompHeaderAccessor accessor = MessageHeaderAccessor.getAccessor(message, StompHeaderAccessor.class);
+        if (accessor == null || accessor.getCommand() == null) {
+            return message;
+        }
+        if (StompCommand.CONNECT.equals(accessor.getCommand())) {
+            accessor.setUser(authenticate(accessor));
+        } else if (StompCommand.SUBSCRIBE.equals(accessor.getCommand())) {
+            authorizeSubscription(accessor);
+        }
+        return message;
+    }
+
+    private UsernamePasswordAuthenticationToken authenticate(StompHeaderAccessor accessor) {
+        String header = accessor.getFirstNativeHeader("Authorization");
+        if (!StringUtils.hasText(header) || !header.startsWith("Bearer ")) {
+            throw new AccessDeniedException("Thieu token xac thuc cho ket noi WebSocket");
+        }
+        UserDetails userDetails;
+        try {
+            userDetails = authTokenFilter.resolveUserDetails(header.substring(7));
+        } catch (Exception e) {
+            log.debug("Rejecting STOMP CONNECT with unreadable token: {}", e.getMessage());
+            userDetails = null;
+        }
+        if (userDetails == null) {
+            throw new AccessDeniedException("Token khong hop le");
+        }
+        return new UsernamePasswordAuthenticationToken(userDetails, null, userDetails.getAuthorities());
+    }
+
+    private void authorizeSubscription(StompHeaderAccessor accessor) {
+        if (!(accessor.getUser() instanceof UsernamePasswordAuthenticationToken authentication)
+                || !(authentication.getPrincipal() instanceof UserDetailsImpl user)) {
+            throw new AccessDeniedException("Chua xac thuc");
+        }
+        String destination = accessor.getDestination();
+        if (destination == null || !isExact(destination)) {
+            throw new AccessDeniedException("Dich den khong hop le: " + destination);
+        }
+        if (PUBLIC_TOPICS.contains(destination)) {
+            return;
+        }
+
+        Matcher userTopic = USER_TOPIC.matcher(destination);
+        if (userTopic.matches()) {
+            if (!user.getId().equals(Integer.valueOf(userTopic.group(1)))) {
+                throw new AccessDeniedException("Khong duoc theo doi phien cua nguoi dung khac");
+            }
+            return;
+        }
+
+        Matcher sessionTopic = LAB_SESSION_TOPIC.matcher(destination);
+        if (sessionTopic.matches()) {
+            if (isStaff(user)) {
+                return;
+            }
+            Integer ownerId = userLabSessionRepository.findOwnerUserId(Integer.valueOf(sessionTopic.group(1))).orElse(null);
+            if (!user.getId().equals(ownerId)) {
+                throw new AccessDeniedException("Khong duoc theo doi phien lab cua nguoi dung khac");
+            }
+            return;
+        }
+
+        throw new AccessDeniedException("Khong duoc theo doi dich den: " + destination);
+    }
+
+    // Wildcards and path variables would make the broker match other users' destinations
+    private boolean isExact(String destination) {
+        return destination.indexOf('*') < 0 && destination.indexOf('?') < 0 && destination.indexOf('{') < 0;
+    }
+
+    private boolean isStaff(UserDetailsImpl user) {
+        return user.getAuthorities().stream()
+                .map(GrantedAuthority::getAuthority)
+                .anyMatch(STAFF_ROLES::contains);
+    }
+}
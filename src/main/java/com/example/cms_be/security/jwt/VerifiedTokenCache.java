@@ -0,0 +1,79 @@
+package com.example.cms_be.security.jwt;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.Date;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.stereotype.Component;
+
+import com.example.cms_be.security.service.UserDetailsImpl;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Remembers tokens whose signature has already been verified, keyed by their jti.
+ * An entry is only returned for the exact same signature and never outlives the
+ * token's own expiration time. Eviction on user changes is per node; the short TTL the
+ * filter gives DB-loaded principals bounds how long other nodes keep stale authorities.
+ */
+@Component
+@Slf4j
+public class VerifiedTokenCache {
+
+    private final ConcurrentHashMap<String, Entry> entries = new ConcurrentHashMap<>();
+
+    @Value("${app.jwt.cache.max-size:100000}")
+    private int maxSize;
+
+    private record Entry(byte[] signature, UserDetails userDetails, long expiresAtMillis) {}
+
+    public UserDetails get(String jti, String signature) {
+        if (jti == null) {
+            return null;
+        }
+        Entry entry = entries.get(jti);
+        if (entry == null) {
+            return null;
+        }
+        if (entry.expiresAtMillis() <= System.currentTimeMillis()) {
+            entries.remove(jti, entry);
+            return null;
+        }
+        if (!MessageDigest.isEqual(entry.signature(), signature.getBytes(StandardCharsets.US_ASCII))) {
+            return null;
+        }
+        return entry.userDetails();
+    }
+
+    public void put(String jti, String signature, UserDetails userDetails, Date expirationTime) {
+        if (jti == null || expirationTime == null) {
+            return;
+        }
+        if (entries.size() >= maxSize) {
+            evictExpired();
+            if (entries.size() >= maxSize) {
+                return;
+            }
+        }
+        entries.put(jti, new Entry(signature.getBytes(StandardCharsets.US_ASCII), userDetails, expirationTime.getTime()));
+    }
+
+    // Drops every cached token of the user, so an update or delete takes effect on the next request
+    public void invalidateUser(Integer userId) {
+        if (userId == null) {
+            return;
+        }
+        entries.values().removeIf(entry -> entry.userDetails() instanceof UserDetailsImpl user
+                && userId.equals(user.getId()));
+    }
+
+    @Scheduled(fixedDelayString = "${app.jwt.cache.purge-interval-ms:60000}")
+    public void evictExpired() {
+        long now = System.currentTimeMillis();
+        entries.values().removeIf(entry -> entry.expiresAtMillis() <= now);
+    }
+}
@@ -0,0 +1,184 @@
+package com.example.cms_be.service;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.stereotype.Service;
+
+import com.example.cms_be.dto.BackingImageDTO;
+import com.example.cms_be.dto.BackingImageEvent;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+
+import io.kubernetes.client.informer.ResourceEventHandler;
+import io.kubernetes.client.informer.SharedIndexInformer;
+import io.kubernetes.client.informer.SharedInformerFactory;
+import io.kubernetes.client.openapi.ApiClient;
+import io.kubernetes.client.openapi.ApiException;
+import io.kubernetes.client.util.generic.dynamic.DynamicKubernetesApi;
+import io.kubernetes.client.util.generic.dynamic.DynamicKubernetesObject;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Local copy of the Longhorn {@code backingimages.longhorn.io} objects, kept current by a shared
+ * informer: one list, then a watch that resumes from the last seen resourceVersion and relists
+ * when the server answers 410 Gone. Every event is converted once into a {@link BackingImageDTO}
+ * so reads never touch the API server, and changes of state, progress or size are pushed to
+ * {@value #TOPIC}. Each node runs its own informer, so the per-node STOMP broker is enough.
+ */
+@Service
+@Slf4j
+public class BackingImageCache {
+
+    public static final String TOPIC = "/topic/backing-images";
+
+    private static final String LONGHORN_GROUP = "longhorn.io";
+    private static final String LONGHORN_VERSION = "v1beta2";
+    private static final String BACKING_IMAGES_PLURAL = "backingimages";
+
+    private final SimpMessagingTemplate messagingTemplate;
+    private final DynamicKubernetesApi backingImageApi;
+    private final SharedInformerFactory informerFactory;
+    private final String namespace;
+    private final boolean informerEnabled;
+
+    // Snapshots are replaced, never mutated, once they are in the map
+    private final Map<String, BackingImageDTO> images = new ConcurrentHashMap<>();
+    private volatile SharedIndexInformer<DynamicKubernetesObject> informer;
+
+    // The watch is a long-lived request, so it needs the client without read timeouts.
+    // DynamicKubernetesApi registers the Gson adapters that fill DynamicKubernetesObject#getRaw.
+    public BackingImageCache(@Qualifier("longTimeoutApiClient") ApiClient watchApiClient,
+                             SimpMessagingTemplate messagingTemplate,
+                             @Value("${app.longhorn.namespace:longhorn-system}") String namespace,
+                             @Value("${app.longhorn.backing-image-informer.enabled:true}") boolean informerEnabled) {
+        this.messagingTemplate = messagingTemplate;
+        this.backingImageApi = new DynamicKubernetesApi(LONGHORN_GROUP, LONGHORN_VERSION, BACKING_IMAGES_PLURAL, watchApiClient);
+        this.informerFactory = new SharedInformerFactory(watchApiClient);
+        this.namespace = namespace;
+        this.informerEnabled = informerEnabled;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (!informerEnabled) {
+            log.info("Backing image informer disabled, reads go to the Kubernetes API");
+            return;
+        }
+        SharedIndexInformer<DynamicKubernetesObject> backingImageInformer = informerFactory.sharedIndexInformerFor(
+                backingImageApi, DynamicKubernetesObject.class, 0L, namespace);
+        backingImageInformer.addEventHandler(new ResourceEventHandler<>() {
+            @Override
+            public void onAdd(DynamicKubernetesObject obj) {
+                BackingImageDTO image = toDto(obj);
+                images.put(image.getName(), image);
+                publish(BackingImageEvent.ADDED, image);
+            }
+
+            @Override
+            public void onUpdate(DynamicKubernetesObject oldObj, DynamicKubernetesObject newObj) {
+                BackingImageDTO image = toDto(newObj);
+                BackingImageDTO previous = images.put(image.getName(), image);
+                // Relists replay every object as an update; only real changes are pushed
+                if (previous == null || changed(previous, image)) {
+                    publish(BackingImageEvent.UPDATED, image);
+                }
+            }
+
+            @Override
+            public void onDelete(DynamicKubernetesObject obj, boolean deletedFinalStateUnknown) {
+                BackingImageDTO removed = images.remove(obj.getMetadata().getName());
+                publish(BackingImageEvent.DELETED, removed != null ? removed : toDto(obj));
+            }
+        });
+        informer = backingImageInformer;
+        informerFactory.startAllRegisteredInformers();
+        log.info("Backing image informer started for namespace '{}'", namespace);
+    }
+
+    @PreDestroy
+    void stop() {
+        informerFactory.stopAllRegisteredInformers();
+    }
+
+    public boolean isSynced() {
+        SharedIndexInformer<DynamicKubernetesObject> current = informer;
+        return current != null && current.hasSynced();
+    }
+
+    public List<BackingImageDTO> getAll() {
+        List<BackingImageDTO> result = new ArrayList<>(images.values());
+        result.sort(Comparator.comparing(BackingImageDTO::getName, Comparator.nullsLast(Comparator.naturalOrder())));
+        return result;
+    }
+
+    // Direct list for when the informer is disabled or has not finished its first sync
+    public List<BackingImageDTO> listFromApi() throws ApiException {
+        List<DynamicKubernetesObject> items = backingImageApi.list(namespace).throwsApiException().getObject().getItems();
+        List<BackingImageDTO> result = new ArrayList<>(items.size());
+        for (DynamicKubernetesObject item : items) {
+            result.add(toDto(item));
+        }
+        return result;
+    }
+
+    private void publish(String type, BackingImageDTO image) {
+        try {
+            messagingTemplate.convertAndSend(TOPIC, new BackingImageEvent(type, image));
+        } catch (Exception e) {
+            log.warn("Failed to push backing image event for {}: {}", image.getName(), e.getMessage());
+        }
+    }
+
+    private boolean changed(BackingImageDTO previous, BackingImageDTO current) {
+        return previous.getDownloadProgress() != current.getDownloadProgress()
+                || previous.getSize() != current.getSize()
+                || !Objects.equals(previous.getState(), current.getState());
+    }
+
+    private BackingImageDTO toDto(DynamicKubernetesObject obj) {
+        BackingImageDTO dto = new BackingImageDTO();
+        if (obj.getMetadata() != null) {
+            dto.setName(obj.getMetadata().getName());
+            dto.setUuid(obj.getMetadata().getUid());
+        }
+        JsonObject raw = obj.getRaw();
+        JsonObject status = childObject(raw, "status");
+        if (status != null) {
+            dto.setState(stringOf(status, "currentState"));
+            JsonElement progress = status.get("progress");
+            if (progress != null && progress.isJsonPrimitive() && progress.getAsJsonPrimitive().isNumber()) {
+                dto.setDownloadProgress(progress.getAsInt());
+            }
+            JsonElement size = status.get("size");
+            if (size != null && size.isJsonPrimitive() && size.getAsJsonPrimitive().isNumber()) {
+                dto.setSize(size.getAsLong());
+            }
+        }
+        JsonObject spec = childObject(raw, "spec");
+        if (spec != null) {
+            dto.setCreatedFrom(stringOf(spec, "sourceType"));
+        }
+        return dto;
+    }
+
+    private JsonObject childObject(JsonObject parent, String name) {
+        JsonElement child = parent != null ? parent.get(name) : null;
+        return child != null && child.isJsonObject() ? child.getAsJsonObject() : null;
+    }
+
+    private String stringOf(JsonObject parent, String name) {
+        JsonElement value = parent.get(name);
+        return value != null && value.isJsonPrimitive() ? value.getAsString() : null;
+    }
+}
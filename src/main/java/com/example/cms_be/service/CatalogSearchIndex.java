@@ -0,0 +1,347 @@
+package com.example.cms_be.service;
+
+import java.text.Normalizer;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Predicate;
+import java.util.regex.Pattern;
+
+/**
+ * In-memory prefix index for one catalog (courses, labs, users or questions). Every document
+ * is split into normalized tokens; a character trie maps each token to a sorted int[] posting
+ * list of document ids, so a prefix lookup is a walk down the trie plus a scan of the
+ * postings below that node that keeps only the best matches. Readers share a read lock; mutations take the write lock.
+ */
+public final class CatalogSearchIndex {
+
+    private static final Pattern DIACRITICS = Pattern.compile("\\p{M}+");
+    private static final Pattern NON_ALNUM = Pattern.compile("[^a-z0-9]+");
+    private static final int MAX_TOKENS_PER_ENTRY = 64;
+    // Prefixes shorter than this match most of a large catalog; their scan stops after the budget
+    private static final int FULL_SCAN_PREFIX_LENGTH = 3;
+    private static final int SHORT_PREFIX_SCAN_BUDGET = 2_000;
+
+    // Exact token matches first, then shorter labels, then lower ids
+    private static final Comparator<Ranked> RANKING = Comparator.comparing(Ranked::exact).reversed()
+            .thenComparingInt(Ranked::labelLength)
+            .thenComparingInt(ranked -> ranked.entry().id());
+
+    // tag: role name for users; parentId: lab id for questions
+    public record Entry(int id, String label, boolean active, String tag, Integer parentId) {}
+
+    public record Source(Entry entry, String searchText) {}
+
+    private record Ranked(Entry entry, boolean exact, int labelLength) {}
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<Integer, Entry> entries = new HashMap<>();
+    private final Map<Integer, String[]> tokensById = new HashMap<>();
+    private TrieNode root = new TrieNode();
+
+    public void upsert(Entry entry, String searchText) {
+        String[] tokens = tokenize(searchText);
+        lock.writeLock().lock();
+        try {
+            removeLocked(entry.id());
+            entries.put(entry.id(), entry);
+            tokensById.put(entry.id(), tokens);
+            for (String token : tokens) {
+                root.descend(token, true).postings.add(entry.id());
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(int id) {
+        lock.writeLock().lock();
+        try {
+            removeLocked(id);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Builds a fresh trie off to the side and swaps it in, so searches keep working during a rebuild
+    public void replaceAll(List<Source> sources) {
+        TrieNode newRoot = new TrieNode();
+        Map<Integer, Entry> newEntries = new HashMap<>(sources.size() * 2);
+        Map<Integer, String[]> newTokens = new HashMap<>(sources.size() * 2);
+        for (Source source : sources) {
+            Entry entry = source.entry();
+            String[] tokens = tokenize(source.searchText());
+            newEntries.put(entry.id(), entry);
+            newTokens.put(entry.id(), tokens);
+            for (String token : tokens) {
+                newRoot.descend(token, true).postings.append(entry.id());
+            }
+        }
+        newRoot.sortPostings();
+
+        lock.writeLock().lock();
+        try {
+            root = newRoot;
+            entries.clear();
+            entries.putAll(newEntries);
+            tokensById.clear();
+            tokensById.putAll(newTokens);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Returns up to {@code limit} entries whose tokens start with every query token. Candidates
+     * come from the longest query token; the others are checked against the entry's own tokens.
+     * Entries with an exact token match rank first, then shorter labels. Only the best
+     * {@code limit} matches are kept while scanning. The trie is walked breadth-first (exact
+     * token, then shorter completions); for a prefix of one or two characters the walk stops
+     * once {@value #SHORT_PREFIX_SCAN_BUDGET} candidates were examined and enough matches were
+     * found, so those results are the best of the nearest completions rather than of everything.
+     */
+    public List<Entry> search(String query, int limit, Predicate<Entry> filter) {
+        String[] queryTokens = tokenize(query);
+        if (queryTokens.length == 0 || limit <= 0) {
+            return List.of();
+        }
+        String primary = queryTokens[0];
+        for (String token : queryTokens) {
+            if (token.length() > primary.length()) {
+                primary = token;
+            }
+        }
+        int scanBudget = primary.length() < FULL_SCAN_PREFIX_LENGTH ? SHORT_PREFIX_SCAN_BUDGET : Integer.MAX_VALUE;
+
+        lock.readLock().lock();
+        try {
+            TrieNode start = root.descend(primary, false);
+            if (start == null) {
+                return List.of();
+            }
+            // Worst kept match at the head, so it is the one dropped when a better one arrives
+            PriorityQueue<Ranked> best = new PriorityQueue<>(limit + 1, RANKING.reversed());
+            BitSet seen = new BitSet();
+            int scanned = 0;
+            ArrayDeque<TrieNode> pending = new ArrayDeque<>();
+            pending.add(start);
+            walk:
+            while (!pending.isEmpty()) {
+                TrieNode node = pending.poll();
+                for (int i = 0; i < node.postings.size; i++) {
+                    int id = node.postings.ids[i];
+                    if (seen.get(id)) {
+                        continue;
+                    }
+                    seen.set(id);
+                    if (++scanned > scanBudget && best.size() == limit) {
+                        break walk;
+                    }
+                    String[] tokens = tokensById.get(id);
+                    Entry entry = entries.get(id);
+                    if (tokens == null || !matchesAll(tokens, queryTokens) || !filter.test(entry)) {
+                        continue;
+                    }
+                    best.add(new Ranked(entry, hasExactToken(tokens, queryTokens), lengthOf(entry.label())));
+                    if (best.size() > limit) {
+                        best.poll();
+                    }
+                }
+                pending.addAll(Arrays.asList(node.children));
+            }
+
+            List<Ranked> ranked = new ArrayList<>(best);
+            ranked.sort(RANKING);
+            List<Entry> result = new ArrayList<>(ranked.size());
+            for (Ranked match : ranked) {
+                result.add(match.entry());
+            }
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public Entry get(int id) {
+        lock.readLock().lock();
+        try {
+            return entries.get(id);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return entries.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Lower-case, strip Vietnamese diacritics (including đ) and split on anything non-alphanumeric
+    static String[] tokenize(String text) {
+        if (text == null || text.isBlank()) {
+            return new String[0];
+        }
+        String normalized = Normalizer.normalize(text.toLowerCase(), Normalizer.Form.NFD);
+        normalized = DIACRITICS.matcher(normalized).replaceAll("").replace('đ', 'd');
+        Set<String> tokens = new LinkedHashSet<>();
+        for (String token : NON_ALNUM.split(normalized)) {
+            if (!token.isEmpty()) {
+                tokens.add(token);
+                if (tokens.size() == MAX_TOKENS_PER_ENTRY) {
+                    break;
+                }
+            }
+        }
+        return tokens.toArray(new String[0]);
+    }
+
+    private void removeLocked(int id) {
+        String[] tokens = tokensById.remove(id);
+        entries.remove(id);
+        if (tokens == null) {
+            return;
+        }
+        for (String token : tokens) {
+            TrieNode node = root.descend(token, false);
+            if (node != null) {
+                node.postings.remove(id);
+            }
+        }
+    }
+
+    private boolean matchesAll(String[] tokens, String[] queryTokens) {
+        for (String queryToken : queryTokens) {
+            boolean found = false;
+            for (String token : tokens) {
+                if (token.startsWith(queryToken)) {
+                    found = true;
+                    break;
+                }
+            }
+            if (!found) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private boolean hasExactToken(String[] tokens, String[] queryTokens) {
+        for (String token : tokens) {
+            for (String queryToken : queryTokens) {
+                if (token.equals(queryToken)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    private int lengthOf(String label) {
+        return label != null ? label.length() : 0;
+    }
+
+    private static final class TrieNode {
+        private char[] keys = new char[0];
+        private TrieNode[] children = new TrieNode[0];
+        private final IntPostingList postings = new IntPostingList();
+
+        TrieNode descend(String token, boolean create) {
+            TrieNode node = this;
+            for (int i = 0; i < token.length() && node != null; i++) {
+                node = node.child(token.charAt(i), create);
+            }
+            return node;
+        }
+
+        private TrieNode child(char key, boolean create) {
+            int index = Arrays.binarySearch(keys, key);
+            if (index >= 0) {
+                return children[index];
+            }
+            if (!create) {
+                return null;
+            }
+            int insertAt = -index - 1;
+            char[] newKeys = new char[keys.length + 1];
+            TrieNode[] newChildren = new TrieNode[children.length + 1];
+            System.arraycopy(keys, 0, newKeys, 0, insertAt);
+            System.arraycopy(children, 0, newChildren, 0, insertAt);
+            newKeys[insertAt] = key;
+            newChildren[insertAt] = new TrieNode();
+            System.arraycopy(keys, insertAt, newKeys, insertAt + 1, keys.length - insertAt);
+            System.arraycopy(children, insertAt, newChildren, insertAt + 1, children.length - insertAt);
+            keys = newKeys;
+            children = newChildren;
+            return newChildren[insertAt];
+        }
+
+        void sortPostings() {
+            postings.sortDistinct();
+            for (TrieNode child : children) {
+                child.sortPostings();
+            }
+        }
+    }
+
+    // Growable int[]; kept sorted by add/remove, append + sortDistinct is used for bulk loads
+    private static final class IntPostingList {
+        private int[] ids = new int[2];
+        private int size;
+
+        void add(int id) {
+            int index = Arrays.binarySearch(ids, 0, size, id);
+            if (index >= 0) {
+                return;
+            }
+            int insertAt = -index - 1;
+            ensureCapacity(size + 1);
+            System.arraycopy(ids, insertAt, ids, insertAt + 1, size - insertAt);
+            ids[insertAt] = id;
+            size++;
+        }
+
+        void remove(int id) {
+            int index = Arrays.binarySearch(ids, 0, size, id);
+            if (index >= 0) {
+                System.arraycopy(ids, index + 1, ids, index, size - index - 1);
+                size--;
+            }
+        }
+
+        void append(int id) {
+            ensureCapacity(size + 1);
+            ids[size++] = id;
+        }
+
+        void sortDistinct() {
+            Arrays.sort(ids, 0, size);
+            int distinct = 0;
+            for (int i = 0; i < size; i++) {
+                if (distinct == 0 || ids[distinct - 1] != ids[i]) {
+                    ids[distinct++] = ids[i];
+                }
+            }
+            size = distinct;
+            ids = Arrays.copyOf(ids, Math.max(size, 1));
+        }
+
+        private void ensureCapacity(int capacity) {
+            if (capacity > ids.length) {
+                ids = Arrays.copyOf(ids, Math.max(capacity, ids.length * 2));
+            }
+        }
+    }
+}
@@ -0,0 +1,253 @@
+package com.example.cms_be.service;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.example.cms_be.dto.CatalogEntryProjection;
+import com.example.cms_be.dto.CatalogSearchHit;
+import com.example.cms_be.model.Course;
+import com.example.cms_be.model.Lab;
+import com.example.cms_be.model.Question;
+import com.example.cms_be.model.User;
+import com.example.cms_be.repository.CourseLabRepository;
+import com.example.cms_be.repository.CourseRepository;
+import com.example.cms_be.repository.CourseUserRepository;
+import com.example.cms_be.repository.LabRepository;
+import com.example.cms_be.repository.QuestionRepository;
+import com.example.cms_be.repository.UserRepository;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Autocomplete over courses, labs, users and questions served from per-node
+ * {@link CatalogSearchIndex}es instead of the database. Writes through the services are applied
+ * after their transaction commits; a periodic full rebuild picks up changes made on other nodes
+ * or outside the services. Course membership used by the "in course"/"not in course" filters is
+ * cached as sorted int[] per course and evicted when enrollments or lab assignments change.
+ */
+@Service
+@Slf4j
+@RequiredArgsConstructor
+public class CatalogSearchService {
+
+    public static final String TYPE_COURSE = "courses";
+    public static final String TYPE_LAB = "labs";
+    public static final String TYPE_USER = "users";
+    public static final String TYPE_QUESTION = "questions";
+
+    private static final int QUESTION_LABEL_LENGTH = 160;
+
+    private final LabRepository labRepository;
+    private final CourseRepository courseRepository;
+    private final UserRepository userRepository;
+    private final QuestionRepository questionRepository;
+    private final CourseLabRepository courseLabRepository;
+    private final CourseUserRepository courseUserRepository;
+
+    private final Map<String, CatalogSearchIndex> indexes = Map.of(
+            TYPE_COURSE, new CatalogSearchIndex(),
+            TYPE_LAB, new CatalogSearchIndex(),
+            TYPE_USER, new CatalogSearchIndex(),
+            TYPE_QUESTION, new CatalogSearchIndex());
+
+    private final Map<Integer, int[]> labIdsByCourse = new ConcurrentHashMap<>();
+    private final Map<Integer, int[]> userIdsByCourse = new ConcurrentHashMap<>();
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        rebuild();
+    }
+
+    @Scheduled(
+        fixedDelayString = "${catalog.search.rebuild-interval-ms:600000}",
+        initialDelayString = "${catalog.search.rebuild-interval-ms:600000}"
+    )
+    public void rebuild() {
+        rebuild(TYPE_COURSE, courseRepository::findCatalogEntries);
+        rebuild(TYPE_LAB, labRepository::findCatalogEntries);
+        rebuild(TYPE_USER, userRepository::findCatalogEntries);
+        rebuild(TYPE_QUESTION, questionRepository::findCatalogEntries);
+        labIdsByCourse.clear();
+        userIdsByCourse.clear();
+    }
+
+    private void rebuild(String type, Supplier<List<CatalogEntryProjection>> loader) {
+        try {
+            long start = System.currentTimeMillis();
+            List<CatalogSearchIndex.Source> sources = loader.get().stream()
+                    .map(row -> new CatalogSearchIndex.Source(
+                            new CatalogSearchIndex.Entry(row.getId(), row.getLabel(),
+                                    Boolean.TRUE.equals(row.getActive()), row.getTag(), row.getParentId()),
+                            row.getSearchText()))
+                    .toList();
+            indexes.get(type).replaceAll(sources);
+            log.info("Catalog search index rebuilt: type={}, entries={}, took={}ms",
+                    type, sources.size(), System.currentTimeMillis() - start);
+        } catch (Exception e) {
+            log.error("Failed to rebuild catalog search index {}: {}", type, e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Prefix search within one catalog. {@code courseId} keeps only labs/users assigned to that
+     * course, {@code notInCourseId} only those that are not; {@code labId} narrows questions to one lab.
+     */
+    public List<CatalogSearchHit> autocomplete(String type, String query, int limit, Boolean isActive,
+                                               String roleName, Integer labId,
+                                               Integer courseId, Integer notInCourseId) {
+        CatalogSearchIndex index = indexes.get(type);
+        if (index == null) {
+            throw new IllegalArgumentException("Loai tim kiem khong hop le: " + type);
+        }
+
+        Predicate<CatalogSearchIndex.Entry> filter = entry ->
+                (isActive == null || entry.active() == isActive)
+                && (roleName == null || roleName.equals(entry.tag()))
+                && (labId == null || labId.equals(entry.parentId()));
+        if (courseId != null) {
+            int[] members = membersOf(type, courseId);
+            filter = filter.and(entry -> Arrays.binarySearch(members, entry.id()) >= 0);
+        }
+        if (notInCourseId != null) {
+            int[] members = membersOf(type, notInCourseId);
+            filter = filter.and(entry -> Arrays.binarySearch(members, entry.id()) < 0);
+        }
+
+        return index.search(query, limit, filter).stream()
+                .map(entry -> new CatalogSearchHit(type, entry.id(), entry.label(), entry.active()))
+                .toList();
+    }
+
+    public Map<String, Integer> getIndexSizes() {
+        return Map.of(
+                TYPE_COURSE, indexes.get(TYPE_COURSE).size(),
+                TYPE_LAB, indexes.get(TYPE_LAB).size(),
+                TYPE_USER, indexes.get(TYPE_USER).size(),
+                TYPE_QUESTION, indexes.get(TYPE_QUESTION).size());
+    }
+
+    public void indexLab(Lab lab) {
+        CatalogSearchIndex.Entry entry = new CatalogSearchIndex.Entry(lab.getId(), lab.getTitle(),
+                Boolean.TRUE.equals(lab.getIsActive()), null, null);
+        afterCommit(() -> indexes.get(TYPE_LAB).upsert(entry, lab.getTitle()));
+    }
+
+    public void removeLab(Integer labId) {
+        afterCommit(() -> {
+            indexes.get(TYPE_LAB).remove(labId);
+            labIdsByCourse.clear();
+        });
+    }
+
+    public void indexCourse(Course course) {
+        CatalogSearchIndex.Entry entry = new CatalogSearchIndex.Entry(course.getId(), course.getTitle(),
+                Boolean.TRUE.equals(course.getIsActive()), null, null);
+        afterCommit(() -> indexes.get(TYPE_COURSE).upsert(entry, course.getTitle()));
+    }
+
+    public void removeCourse(Integer courseId) {
+        afterCommit(() -> {
+            indexes.get(TYPE_COURSE).remove(courseId);
+            labIdsByCourse.remove(courseId);
+            userIdsByCourse.remove(courseId);
+        });
+    }
+
+    public void indexUser(User user) {
+        String fullName = ((user.getFirstName() != null ? user.getFirstName() : "") + " "
+                + (user.getLastName() != null ? user.getLastName() : "")).trim();
+        String searchText = String.join(" ", nullToEmpty(user.getUsername()), nullToEmpty(user.getFirstName()),
+                nullToEmpty(user.getLastName()), nullToEmpty(user.getEmail()));
+        CatalogSearchIndex.Entry entry = new CatalogSearchIndex.Entry(user.getId(),
+                user.getUsername() + " - " + fullName, Boolean.TRUE.equals(user.getIsActive()),
+                user.getRole() != null ? user.getRole().getName() : null, null);
+        afterCommit(() -> indexes.get(TYPE_USER).upsert(entry, searchText));
+    }
+
+    public void removeUser(Integer userId) {
+        afterCommit(() -> {
+            indexes.get(TYPE_USER).remove(userId);
+            userIdsByCourse.clear();
+        });
+    }
+
+    public void indexQuestions(List<Question> questions) {
+        List<CatalogSearchIndex.Source> sources = questions.stream()
+                .map(question -> new CatalogSearchIndex.Source(
+                        new CatalogSearchIndex.Entry(question.getId(), abbreviate(question.getQuestion()), true, null,
+                                question.getLab() != null ? question.getLab().getId() : null),
+                        question.getQuestion()))
+                .toList();
+        afterCommit(() -> sources.forEach(source -> indexes.get(TYPE_QUESTION).upsert(source.entry(), source.searchText())));
+    }
+
+    public void removeQuestion(Integer questionId) {
+        afterCommit(() -> indexes.get(TYPE_QUESTION).remove(questionId));
+    }
+
+    public void evictCourseLabs(Integer courseId) {
+        afterCommit(() -> labIdsByCourse.remove(courseId));
+    }
+
+    public void evictCourseUsers(Integer courseId) {
+        afterCommit(() -> userIdsByCourse.remove(courseId));
+    }
+
+    private int[] membersOf(String type, Integer courseId) {
+        if (TYPE_LAB.equals(type)) {
+            return labIdsByCourse.computeIfAbsent(courseId,
+                    id -> toSortedArray(courseLabRepository.findLabIdsByCourseId(id)));
+        }
+        if (TYPE_USER.equals(type)) {
+            return userIdsByCourse.computeIfAbsent(courseId,
+                    id -> toSortedArray(courseUserRepository.findUserIdsByCourseId(id)));
+        }
+        throw new IllegalArgumentException("Bo loc theo khoa hoc chi ap dung cho labs va users");
+    }
+
+    private int[] toSortedArray(List<Integer> ids) {
+        int[] result = new int[ids.size()];
+        for (int i = 0; i < result.length; i++) {
+            result[i] = ids.get(i);
+        }
+        Arrays.sort(result);
+        return result;
+    }
+
+    // Index updates must not expose rows that end up rolled back
+    private void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+
+    private String abbreviate(String text) {
+        if (text == null || text.length() <= QUESTION_LABEL_LENGTH) {
+            return text;
+        }
+        return text.substring(0, QUESTION_LABEL_LENGTH);
+    }
+
+    private String nullToEmpty(String value) {
+        return value != null ? value : "";
+    }
+}
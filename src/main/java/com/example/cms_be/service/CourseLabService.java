@@ -24,6 +24,7 @@ public class CourseLabService {
     private final CourseLabRepository courseLabRepository;
     private final CourseRepository courseRepository;
     private final LabRepository labRepository;
+    private final CatalogSearchService catalogSearchService;
 
     
 
@@ -42,7 +43,9 @@ public class CourseLabService {
                         .build();
             }).toList();
 
-            return courseLabRepository.saveAll(courseLabs);
+            List<CourseLab> savedCourseLabs = courseLabRepository.saveAll(courseLabs);
+            catalogSearchService.evictCourseLabs(courseId);
+            return savedCourseLabs;
         } catch (Exception e) {
             log.error("Error assigning labs to course in bulk: {}", e.getMessage());
             throw new RuntimeException("Failed to assign labs to course in bulk", e);
@@ -53,6 +56,7 @@ public class CourseLabService {
             Optional<CourseLab> courseLabOpt = courseLabRepository.findByCourseIdAndLabId(courseId, labId);
             if (courseLabOpt.isPresent()) {
                 courseLabRepository.delete(courseLabOpt.get());
+                catalogSearchService.evictCourseLabs(courseId);
             } else {
                 throw new IllegalArgumentException("No association found between course ID " + courseId + " and lab ID " + labId);
             }
@@ -12,6 +12,7 @@ import jakarta.persistence.EntityNotFoundException;
 
 import org.springframework.data.domain.*;
 import org.springframework.stereotype.Service;
+import org.springframework.util.StringUtils;
 
 import com.example.cms_be.model.Subject;
 import com.example.cms_be.model.User;
@@ -38,6 +39,7 @@ public class CourseService {
     public static final String STUDENT_ROLE = "ROLE_STUDENT";
     private static final String LECTURE_ROLE = "ROLE_LECTURER";
     private final UserService userService;
+    private final CatalogSearchService catalogSearchService;
 
     private final Boolean DEFAULT_ACTIVE_COURSE_USER = true;
 
@@ -51,9 +53,13 @@ public class CourseService {
             String roleName = user.getRole() != null ? user.getRole().getName() : "";
             
             if ("ROLE_ADMIN".equals(roleName) ) {
-                return courseRepository.findWithFilters(keyword, isActive, code, pageable);
+                return !StringUtils.hasText(keyword)
+                        ? courseRepository.findWithFilters(keyword, isActive, code, pageable)
+                        : courseRepository.searchWithFilters(keyword.trim(), isActive, code, pageable);
             } else {
-                return courseRepository.findCoursesByUserId(userId, keyword, DEFAULT_ACTIVE_COURSE_USER, code, pageable);
+                return !StringUtils.hasText(keyword)
+                        ? courseRepository.findCoursesByUserId(userId, keyword, DEFAULT_ACTIVE_COURSE_USER, code, pageable)
+                        : courseRepository.searchCoursesByUserId(userId, keyword.trim(), DEFAULT_ACTIVE_COURSE_USER, code, pageable);
             }
         } catch (Exception e) {
             log.error("Error fetching courses by user: {}", e.getMessage());
@@ -74,6 +80,7 @@ public class CourseService {
             course.setSubject(subject);    
 
             Course savedCourse = courseRepository.save(course);
+            catalogSearchService.indexCourse(savedCourse);
               courseUserService.createEnrollment(savedCourse.getId(), userId);
             return savedCourse;
         } catch (Exception e) {
@@ -160,7 +167,9 @@ public class CourseService {
             existingCourse.setIsActive(updatedCourse.getIsActive());
         }
 
-        return courseRepository.save(existingCourse);
+        Course savedCourse = courseRepository.save(existingCourse);
+        catalogSearchService.indexCourse(savedCourse);
+        return savedCourse;
       } catch (Exception e) {
         log.error("Error updating course: {}", e.getMessage());
         throw new RuntimeException("Failed to update course", e);
@@ -172,6 +181,7 @@ public class CourseService {
              var existingCourse = courseRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Course not found with id: " + id));
         courseRepository.delete(existingCourse);
+        catalogSearchService.removeCourse(id);
         return true;
         } catch (Exception e) {
             log.error("Error deleting course: {}", e.getMessage());
@@ -1,14 +1,37 @@
 package com.example.cms_be.service;
 
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
 
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
+import com.example.cms_be.constant.LabSessionStatus;
+import com.example.cms_be.dto.course.BulkEnrollmentResult;
+import com.example.cms_be.dto.lab.LabProvisioningTemplate;
+import com.example.cms_be.dto.lab.LabSessionCleanupRequest;
+import com.example.cms_be.dto.lab.SessionVmProjection;
+import com.example.cms_be.dto.user.UserIdentityProjection;
+import com.example.cms_be.kafka.LabSessionCleanupProducer;
 import com.example.cms_be.model.CourseUser;
 import com.example.cms_be.repository.CourseRepository;
 import com.example.cms_be.repository.CourseUserRepository;
 import com.example.cms_be.repository.UserRepository;
 
+import jakarta.persistence.EntityNotFoundException;
 import jakarta.transaction.Transactional;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -21,6 +44,15 @@ public class CourseUserService {
     private final CourseRepository courseRepository;
     private final UserRepository userRepository;
     private final CourseUserRepository courseUserRepository;
+    private final CatalogSearchService catalogSearchService;
+    private final LabCapacityService labCapacityService;
+    private final LabTemplateCache labTemplateCache;
+    private final LabSessionCleanupProducer cleanupProducer;
+
+    private static final int MAX_REPORTED_NOT_FOUND = 1000;
+
+    @Value("${app.enrollment.batch-size:1000}")
+    private int enrollmentBatchSize;
 
 
     public CourseUser createEnrollment(Integer courseId, Integer userId) {
@@ -34,7 +66,9 @@ public class CourseUserService {
         courseUser.setCourse(course);
         courseUser.setUser(user);
 
-        return courseUserRepository.save(courseUser);
+        CourseUser savedCourseUser = courseUserRepository.save(courseUser);
+        catalogSearchService.evictCourseUsers(courseId);
+        return savedCourseUser;
        } catch (Exception e) {
            throw new RuntimeException("Error creating enrollment: " + e.getMessage());
        }
@@ -45,31 +79,173 @@ public class CourseUserService {
                 .orElseThrow(() -> new RuntimeException("Enrollment not found for course id: " + courseId + " and user id: " + userId));
 
         courseUserRepository.delete(courseUser);
+        catalogSearchService.evictCourseUsers(courseId);
        } catch (Exception e) {
            throw new RuntimeException("Error removing enrollment: " + e.getMessage());
        }
         
     }
-    public List<CourseUser> createListEnrollment(Integer courseId, List<Integer> userIds) {
-       try {
-         var course = courseRepository.findById(courseId)
-                .orElseThrow(() -> new RuntimeException("Course not found with id: " + courseId));
+    /**
+     * Enrolls many users at once: ids are validated with one IN query per chunk and inserted with
+     * a single INSERT ... SELECT that skips existing enrollments, instead of a lookup and insert per user.
+     */
+    @Transactional
+    public BulkEnrollmentResult enrollUsers(Integer courseId, Collection<Integer> userIds) {
+        requireCourse(courseId);
+        EnrollmentTally tally = new EnrollmentTally();
+        List<Integer> distinctIds = userIds.stream().filter(Objects::nonNull).distinct().toList();
+        tally.requested = distinctIds.size();
+        for (int from = 0; from < distinctIds.size(); from += enrollmentBatchSize) {
+            List<Integer> chunk = distinctIds.subList(from, Math.min(from + enrollmentBatchSize, distinctIds.size()));
+            Set<Integer> existing = new HashSet<>(userRepository.findExistingIds(chunk));
+            for (Integer userId : chunk) {
+                if (!existing.contains(userId)) {
+                    tally.notFound(String.valueOf(userId));
+                }
+            }
+            tally.enroll(courseId, existing);
+        }
+        catalogSearchService.evictCourseUsers(courseId);
+        log.info("Bulk enrollment for course {}: requested={}, enrolled={}", courseId, tally.requested, tally.enrolled);
+        return tally.toResult();
+    }
+
+    /**
+     * Enrolls the users named in a roster (one username or email per line, extra CSV columns
+     * and a header line are ignored). The roster is read in chunks and each chunk is committed
+     * on its own, so a large file is never held in memory.
+     */
+    public BulkEnrollmentResult enrollRoster(Integer courseId, InputStream roster) throws IOException {
+        requireCourse(courseId);
+        EnrollmentTally tally = new EnrollmentTally();
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(roster, StandardCharsets.UTF_8))) {
+            Set<String> chunk = new LinkedHashSet<>();
+            String line;
+            while ((line = reader.readLine()) != null) {
+                String identifier = rosterIdentifier(line);
+                if (identifier == null) {
+                    continue;
+                }
+                if (chunk.add(identifier)) {
+                    tally.requested++;
+                }
+                if (chunk.size() >= enrollmentBatchSize) {
+                    enrollRosterChunk(courseId, chunk, tally);
+                    chunk.clear();
+                }
+            }
+            if (!chunk.isEmpty()) {
+                enrollRosterChunk(courseId, chunk, tally);
+            }
+        }
+        catalogSearchService.evictCourseUsers(courseId);
+        log.info("Roster enrollment for course {}: requested={}, enrolled={}", courseId, tally.requested, tally.enrolled);
+        return tally.toResult();
+    }
+
+    private void enrollRosterChunk(Integer courseId, Set<String> identifiers, EnrollmentTally tally) {
+        Map<String, Integer> idsByIdentifier = new HashMap<>();
+        for (UserIdentityProjection identity : userRepository.findIdentities(identifiers)) {
+            idsByIdentifier.put(identity.getUsername(), identity.getId());
+            if (identity.getEmail() != null) {
+                idsByIdentifier.put(identity.getEmail(), identity.getId());
+            }
+        }
+        Set<Integer> userIds = new HashSet<>();
+        for (String identifier : identifiers) {
+            Integer userId = idsByIdentifier.get(identifier);
+            if (userId == null) {
+                tally.notFound(identifier);
+            } else {
+                userIds.add(userId);
+            }
+        }
+        tally.enroll(courseId, userIds);
+    }
+
+    private String rosterIdentifier(String line) {
+        String first = line.split(",", 2)[0].trim();
+        if (first.startsWith("\uFEFF")) {
+            first = first.substring(1);
+        }
+        if (first.length() >= 2 && first.startsWith("\"") && first.endsWith("\"")) {
+            first = first.substring(1, first.length() - 1).trim();
+        }
+        if (first.isEmpty() || first.equalsIgnoreCase("username") || first.equalsIgnoreCase("email")) {
+            return null;
+        }
+        return first;
+    }
+
+    /**
+     * Removes many users from a course with set-based deletes of their submissions, lab sessions
+     * and enrollments. The VMs of their PENDING/RUNNING sessions are cleaned up through the
+     * outbox in the same transaction, and the capacity they held is released on commit.
+     */
+    @Transactional
+    public Map<String, Integer> unenrollUsers(Integer courseId, Collection<Integer> userIds) {
+        requireCourse(courseId);
+        List<String> capacityHolding = Arrays.stream(LabSessionStatus.values())
+                .filter(LabSessionStatus::holdsCapacity)
+                .map(Enum::name)
+                .toList();
+        List<Integer> distinctIds = userIds.stream().filter(Objects::nonNull).distinct().toList();
+        int removed = 0;
+        int sessionsRemoved = 0;
+        for (int from = 0; from < distinctIds.size(); from += enrollmentBatchSize) {
+            List<Integer> chunk = distinctIds.subList(from, Math.min(from + enrollmentBatchSize, distinctIds.size()));
+            List<LabSessionCleanupRequest> cleanupRequests = new ArrayList<>();
+            for (SessionVmProjection session : courseUserRepository.findSessionVmsOfEnrollments(courseId, chunk, capacityHolding)) {
+                LabProvisioningTemplate template = labTemplateCache.get(session.getLabId());
+                cleanupRequests.add(LabSessionCleanupRequest.builder()
+                        .labSessionId(session.getId())
+                        .vmName(session.getVmName() != null ? session.getVmName() : "vm-" + session.getId())
+                        .namespace(template.namespace())
+                        .build());
+                labCapacityService.releaseAfterCommit(template.instanceType());
+            }
+            if (!cleanupRequests.isEmpty()) {
+                cleanupProducer.sendCleanupRequests(cleanupRequests);
+            }
+            courseUserRepository.deleteSubmissionsOfEnrollments(courseId, chunk);
+            sessionsRemoved += courseUserRepository.deleteSessionsOfEnrollments(courseId, chunk);
+            removed += courseUserRepository.deleteEnrollments(courseId, chunk);
+        }
+        catalogSearchService.evictCourseUsers(courseId);
+        log.info("Bulk unenrollment for course {}: removed={}, sessionsRemoved={}", courseId, removed, sessionsRemoved);
+        return Map.of("requested", distinctIds.size(), "removed", removed, "sessionsRemoved", sessionsRemoved);
+    }
 
-        List<CourseUser> enrollments = userIds.stream().map(userId -> {
-            var user = userRepository.findById(userId)
-                    .orElseThrow(() -> new RuntimeException("User not found with id: " + userId));
+    private void requireCourse(Integer courseId) {
+        if (!courseRepository.existsById(courseId)) {
+            throw new EntityNotFoundException("Course not found with id: " + courseId);
+        }
+    }
 
-            var courseUser = new CourseUser();
-            courseUser.setCourse(course);
-            courseUser.setUser(user);
+    private final class EnrollmentTally {
+        private int requested;
+        private int matched;
+        private int enrolled;
+        private final List<String> notFound = new ArrayList<>();
+        private int notFoundCount;
 
-            return courseUser;
-        }).toList();
+        void enroll(Integer courseId, Set<Integer> userIds) {
+            if (!userIds.isEmpty()) {
+                matched += userIds.size();
+                enrolled += courseUserRepository.enrollUsers(courseId, userIds);
+            }
+        }
 
-        return courseUserRepository.saveAll(enrollments);
-       } catch (Exception e) {
-            throw new RuntimeException("Error creating list of enrollments: " + e.getMessage());
-       }
+        void notFound(String identifier) {
+            notFoundCount++;
+            if (notFound.size() < MAX_REPORTED_NOT_FOUND) {
+                notFound.add(identifier);
+            }
+        }
+
+        BulkEnrollmentResult toResult() {
+            return new BulkEnrollmentResult(requested, enrolled, matched - enrolled, notFound, notFoundCount > notFound.size());
+        }
     }
     @Transactional
     public void removeUserFromCourse(Integer courseId, Integer userId) {
@@ -78,6 +254,7 @@ public class CourseUserService {
                 .orElseThrow(() -> new RuntimeException("Enrollment not found for course id: " + courseId + " and user id: " + userId));
 
         courseUserRepository.delete(courseUser);
+        catalogSearchService.evictCourseUsers(courseId);
        } catch (Exception e) {
             log.error("Lỗi nghiêm trọng khi xóa sinh viên khỏi khóa học: ", e);
             throw new RuntimeException("Error removing user from course: " + (e.getMessage() != null ? e.getMessage() : "Null Pointer Exception"));
@@ -0,0 +1,92 @@
+package com.example.cms_be.service;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import com.example.cms_be.model.UserLabSession;
+import com.example.cms_be.repository.CourseUserStatsRepository;
+import com.example.cms_be.repository.SubmissionRepository;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Keeps course_user_stats in step with session and submission state changes.
+ * Each update is a single upsert: an existing row is incremented, a missing row is
+ * seeded from the source tables, so the read model never needs a prior read.
+ */
+@Service
+@Slf4j
+@RequiredArgsConstructor
+public class CourseUserStatsService {
+
+    private static final String COMPLETED_STATUS = "COMPLETED";
+
+    private final CourseUserStatsRepository courseUserStatsRepository;
+    private final SubmissionRepository submissionRepository;
+
+    @Value("${lab.stats.rebuild-batch-size:500}")
+    private int rebuildBatchSize;
+
+    public void recordAttempt(Integer courseUserId) {
+        courseUserStatsRepository.applyDelta(courseUserId, 1, 0, 0, null);
+    }
+
+    public void recordAttemptRemoved(Integer courseUserId) {
+        courseUserStatsRepository.applyDelta(courseUserId, -1, 0, 0, null);
+    }
+
+    public void recordActivity(Integer courseUserId, LocalDateTime activityAt) {
+        courseUserStatsRepository.applyDelta(courseUserId, 0, 0, 0, activityAt);
+    }
+
+    public void recordCompletion(UserLabSession session) {
+        int correctCount = submissionRepository.countCorrectBySessionId(session.getId());
+        courseUserStatsRepository.applyDelta(session.getCourseUser().getId(), 0, 1, correctCount, null);
+    }
+
+    // Correct answers only count towards the score once their session is completed;
+    // answers given while the session is running are picked up by recordCompletion.
+    public void recordCorrectAnswer(UserLabSession session) {
+        if (COMPLETED_STATUS.equals(session.getStatus())) {
+            courseUserStatsRepository.applyDelta(session.getCourseUser().getId(), 0, 0, 1, null);
+        }
+    }
+
+    // Set-based alternative to one recordAttempt per enrollment, used by bulk session creation
+    public void refreshEnrollments(List<Integer> courseUserIds) {
+        if (!courseUserIds.isEmpty()) {
+            courseUserStatsRepository.rebuild(courseUserIds);
+        }
+    }
+
+    public int rebuildCourse(Integer courseId) {
+        return rebuild(courseId);
+    }
+
+    public int rebuildAll() {
+        return rebuild(null);
+    }
+
+    // Walks course_users by primary key in fixed-size batches, each recomputed and
+    // committed by one INSERT ... SELECT, so the job never holds more than one batch.
+    private int rebuild(Integer courseId) {
+        int rebuilt = 0;
+        Integer afterId = 0;
+        List<Integer> batch;
+        do {
+            batch = courseUserStatsRepository.findCourseUserIdsAfter(afterId, courseId, rebuildBatchSize);
+            if (batch.isEmpty()) {
+                break;
+            }
+            rebuilt += courseUserStatsRepository.rebuild(batch);
+            afterId = batch.get(batch.size() - 1);
+        } while (batch.size() == rebuildBatchSize);
+
+        log.info("Rebuilt {} course_user_stats rows{}", rebuilt, courseId != null ? " for course " + courseId : "");
+        return rebuilt;
+    }
+}
@@ -0,0 +1,127 @@
+package com.example.cms_be.service;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+
+import com.example.cms_be.constant.ExportFormat;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Writes export rows one at a time as CSV (UTF-8 with BOM so spreadsheet tools pick up
+ * Vietnamese names) or NDJSON. Nothing is buffered beyond the underlying stream.
+ */
+abstract class ExportRowWriter implements AutoCloseable {
+
+    protected final String[] columns;
+
+    private ExportRowWriter(String[] columns) {
+        this.columns = columns;
+    }
+
+    static ExportRowWriter open(ExportFormat format, OutputStream out, String[] columns, ObjectMapper objectMapper)
+            throws IOException {
+        return format == ExportFormat.NDJSON
+                ? new NdjsonWriter(out, columns, objectMapper)
+                : new CsvWriter(out, columns);
+    }
+
+    abstract void writeRow(Object[] values) throws IOException;
+
+    @Override
+    public abstract void close() throws IOException;
+
+    static Object exportValue(Object value) {
+        if (value instanceof Timestamp timestamp) {
+            return timestamp.toLocalDateTime().toString();
+        }
+        return value;
+    }
+
+    private static final class CsvWriter extends ExportRowWriter {
+        private final Writer writer;
+
+        CsvWriter(OutputStream out, String[] columns) throws IOException {
+            super(columns);
+            this.writer = new OutputStreamWriter(out, StandardCharsets.UTF_8);
+            writer.write('\uFEFF');
+            writeLine(columns);
+        }
+
+        @Override
+        void writeRow(Object[] values) throws IOException {
+            writeLine(values);
+        }
+
+        private void writeLine(Object[] values) throws IOException {
+            for (int i = 0; i < values.length; i++) {
+                if (i > 0) {
+                    writer.write(',');
+                }
+                Object value = exportValue(values[i]);
+                if (value instanceof BigDecimal decimal) {
+                    writer.write(decimal.toPlainString());
+                } else if (value != null) {
+                    writer.write(escape(value.toString()));
+                }
+            }
+            writer.write("\r\n");
+        }
+
+        private String escape(String value) {
+            if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+                return value;
+            }
+            return '"' + value.replace("\"", "\"\"") + '"';
+        }
+
+        @Override
+        public void close() throws IOException {
+            writer.flush();
+        }
+    }
+
+    private static final class NdjsonWriter extends ExportRowWriter {
+        private final JsonGenerator generator;
+
+        NdjsonWriter(OutputStream out, String[] columns, ObjectMapper objectMapper) throws IOException {
+            super(columns);
+            this.generator = objectMapper.getFactory().createGenerator(out);
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            // Rows are separated by our own newline, not Jackson's default space
+            generator.setRootValueSeparator(null);
+        }
+
+        @Override
+        void writeRow(Object[] values) throws IOException {
+            generator.writeStartObject();
+            for (int i = 0; i < columns.length; i++) {
+                Object value = exportValue(values[i]);
+                generator.writeFieldName(columns[i]);
+                if (value instanceof BigDecimal decimal) {
+                    generator.writeNumber(decimal);
+                } else if (value instanceof Number number) {
+                    generator.writeNumber(number.toString());
+                } else if (value instanceof Boolean bool) {
+                    generator.writeBoolean(bool);
+                } else if (value == null) {
+                    generator.writeNull();
+                } else {
+                    generator.writeString(value.toString());
+                }
+            }
+            generator.writeEndObject();
+            generator.writeRaw('\n');
+        }
+
+        @Override
+        public void close() throws IOException {
+            generator.close();
+        }
+    }
+}
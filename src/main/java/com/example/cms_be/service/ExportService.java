@@ -0,0 +1,142 @@
+package com.example.cms_be.service;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.sql.ResultSet;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.zip.GZIPOutputStream;
+
+import javax.sql.DataSource;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.example.cms_be.constant.ExportFormat;
+import com.example.cms_be.dto.ExportDownload;
+import com.example.cms_be.repository.CourseRepository;
+import com.example.cms_be.repository.CourseUserRepository;
+import com.example.cms_be.repository.UserLabSessionRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import jakarta.persistence.EntityNotFoundException;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Course and history exports streamed straight from the database. Each export runs one query
+ * in a read-only transaction so PostgreSQL serves it through a forward-only cursor, fetching
+ * {@code app.export.fetch-size} rows per round trip; every row is written to the response as
+ * soon as it is read, so memory stays flat regardless of how many rows a course has.
+ */
+@Service
+@Slf4j
+public class ExportService {
+
+    private static final String[] DASHBOARD_COLUMNS = {
+        "rank", "userId", "username", "firstName", "lastName", "totalScore",
+        "completedLabs", "totalAttempts", "completionRate", "lastActivityAt"
+    };
+    private static final String[] COURSE_SESSION_COLUMNS = {
+        "username", "firstName", "lastName", "labTitle", "sessionId", "status",
+        "createdAt", "startAt", "completedAt", "correctAnswers", "totalQuestions"
+    };
+    private static final String[] HISTORY_COLUMNS = {
+        "sessionId", "labTitle", "status", "createdAt", "startAt", "completedAt", "expiresAt"
+    };
+
+    private final NamedParameterJdbcTemplate cursorJdbcTemplate;
+    private final TransactionTemplate readOnlyTransaction;
+    private final CourseRepository courseRepository;
+    private final ObjectMapper objectMapper;
+
+    public ExportService(DataSource dataSource,
+                         PlatformTransactionManager transactionManager,
+                         CourseRepository courseRepository,
+                         ObjectMapper objectMapper,
+                         @Value("${app.export.fetch-size:1000}") int fetchSize) {
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.setFetchSize(fetchSize);
+        this.cursorJdbcTemplate = new NamedParameterJdbcTemplate(jdbcTemplate);
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.courseRepository = courseRepository;
+        this.objectMapper = objectMapper;
+    }
+
+    public ExportDownload exportCourseDashboard(Integer courseId, ExportFormat format, boolean gzip) {
+        requireCourse(courseId);
+        return download("course-" + courseId + "-dashboard", format, gzip, CourseUserRepository.DASHBOARD_QUERY,
+                Map.of("courseId", courseId, "roleName", CourseService.STUDENT_ROLE), DASHBOARD_COLUMNS);
+    }
+
+    public ExportDownload exportCourseSessions(Integer courseId, ExportFormat format, boolean gzip) {
+        requireCourse(courseId);
+        return download("course-" + courseId + "-sessions", format, gzip, UserLabSessionRepository.COURSE_SESSIONS_EXPORT_QUERY,
+                Map.of("courseId", courseId), COURSE_SESSION_COLUMNS);
+    }
+
+    public ExportDownload exportHistory(Integer userId, String keyword, LocalDateTime from, LocalDateTime to,
+                                        ExportFormat format, boolean gzip) {
+        // Map.of rejects nulls and every filter is optional
+        Map<String, Object> params = new HashMap<>();
+        params.put("userId", userId);
+        params.put("keyword", keyword == null || keyword.isBlank() ? null : keyword.trim());
+        params.put("from", from);
+        params.put("to", to);
+        return download("user-" + userId + "-lab-history", format, gzip, UserLabSessionRepository.HISTORY_EXPORT_QUERY,
+                params, HISTORY_COLUMNS);
+    }
+
+    private ExportDownload download(String name, ExportFormat format, boolean gzip, String sql,
+                                    Map<String, ?> params, String[] columns) {
+        String filename = name + "." + format.extension() + (gzip ? ".gz" : "");
+        String contentType = gzip ? "application/gzip" : format.contentType() + ";charset=UTF-8";
+        return new ExportDownload(filename, contentType, out -> stream(out, format, gzip, sql, params, columns, filename));
+    }
+
+    private void stream(OutputStream responseStream, ExportFormat format, boolean gzip, String sql,
+                        Map<String, ?> params, String[] columns, String filename) throws IOException {
+        long start = System.currentTimeMillis();
+        OutputStream out = gzip
+                ? new GZIPOutputStream(responseStream, 64 * 1024)
+                : new BufferedOutputStream(responseStream, 64 * 1024);
+        long rows;
+        try (ExportRowWriter writer = ExportRowWriter.open(format, out, columns, objectMapper)) {
+            rows = readOnlyTransaction.execute(status -> cursorJdbcTemplate.query(sql, params, (ResultSet rs) -> {
+                long count = 0;
+                Object[] values = new Object[columns.length];
+                try {
+                    while (rs.next()) {
+                        for (int i = 0; i < values.length; i++) {
+                            values[i] = rs.getObject(i + 1);
+                        }
+                        writer.writeRow(values);
+                        count++;
+                    }
+                } catch (IOException e) {
+                    // Client went away; abort the query instead of reading the rest of the cursor
+                    throw new UncheckedIOException(e);
+                }
+                return count;
+            }));
+        } catch (UncheckedIOException e) {
+            log.warn("Export {} aborted: {}", filename, e.getCause().getMessage());
+            throw e.getCause();
+        }
+        out.close();
+        log.info("Export {} finished: rows={}, took={}ms", filename, rows, System.currentTimeMillis() - start);
+    }
+
+    private void requireCourse(Integer courseId) {
+        if (!courseRepository.existsById(courseId)) {
+            throw new EntityNotFoundException("Course not found with id: " + courseId);
+        }
+    }
+}
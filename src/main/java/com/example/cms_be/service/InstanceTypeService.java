@@ -16,6 +16,7 @@ import lombok.extern.slf4j.Slf4j;
 public class InstanceTypeService {
 
     private final InstanceTypeRepository instanceTypeRepository;
+    private final LabTemplateCache labTemplateCache;
 
 
     public InstanceType getInstanceTypeById(Integer id) {
@@ -77,7 +78,9 @@ public class InstanceTypeService {
                 existingInstanceType.setBackingImage(updatedInstanceType.getBackingImage());
             }
 
-            return instanceTypeRepository.save(existingInstanceType);
+            InstanceType savedInstanceType = instanceTypeRepository.save(existingInstanceType);
+            labTemplateCache.evictByInstanceType(id);
+            return savedInstanceType;
         } catch (Exception e) {
             log.error("Error updating InstanceType with ID {}: {}", id, e.getMessage());
             throw new RuntimeException("Failed to update InstanceType", e);
@@ -86,6 +89,7 @@ public class InstanceTypeService {
     public void deleteInstanceType(Integer id) {
         try {
             instanceTypeRepository.deleteById(id);
+            labTemplateCache.evictByInstanceType(id);
         } catch (Exception e) {
             log.error("Error deleting InstanceType with ID {}: {}", id, e.getMessage());
             throw new RuntimeException("Failed to delete InstanceType", e);
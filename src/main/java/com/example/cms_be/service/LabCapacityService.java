@@ -0,0 +1,286 @@
+package com.example.cms_be.service;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.example.cms_be.dto.lab.InstanceTypeDTO;
+import com.example.cms_be.dto.lab.ReservedResourcesProjection;
+import com.example.cms_be.model.InstanceType;
+import com.example.cms_be.repository.InstanceTypeRepository;
+import com.example.cms_be.repository.UserLabSessionRepository;
+
+import io.kubernetes.client.custom.Quantity;
+import io.kubernetes.client.openapi.apis.CoreV1Api;
+import io.kubernetes.client.openapi.models.V1Node;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Admission control for lab VMs. CPU, memory and storage reserved by PENDING/RUNNING sessions
+ * are tracked in lock-free counters; a reservation is a few CAS operations, so a session start
+ * is accepted or rejected in O(1) without touching the database. The counters are re-synced
+ * from user_lab_sessions periodically to absorb drift and changes made by other nodes;
+ * reservations of still-open transactions are carried over so a later rollback does not
+ * under-count. A limit of 0 means unlimited.
+ *
+ * <p>The counters are per node and the check is not coordinated through the database, so the
+ * limit is soft: between two resyncs the cluster can overshoot by what the other nodes admitted
+ * since their own last resync (at most admission rate x {@code lab.capacity.resync-interval-ms}
+ * per extra node). A completion that commits while a resync is reading can also be subtracted
+ * twice, which under-counts by one VM until the next resync.
+ */
+@Service
+@Slf4j
+@RequiredArgsConstructor
+public class LabCapacityService {
+
+    private static final List<String> ACTIVE_STATUSES = List.of("PENDING", "RUNNING");
+    private static final String[] RESOURCES = {"cpu", "memory", "storage"};
+    private static final BigDecimal BYTES_PER_GB = BigDecimal.valueOf(1024L * 1024 * 1024);
+
+    private final UserLabSessionRepository userLabSessionRepository;
+    private final InstanceTypeRepository instanceTypeRepository;
+    private final CoreV1Api coreV1Api;
+    private final MeterRegistry meterRegistry;
+
+    private final AtomicLong[] reserved = {new AtomicLong(), new AtomicLong(), new AtomicLong()};
+    private final AtomicLong[] limits = {new AtomicLong(), new AtomicLong(), new AtomicLong()};
+    // Reserved by transactions that have not completed yet
+    private final AtomicLong[] inFlight = {new AtomicLong(), new AtomicLong(), new AtomicLong()};
+
+    @Value("${lab.capacity.cpu-cores:0}")
+    private long cpuLimit;
+
+    @Value("${lab.capacity.memory-gb:0}")
+    private long memoryLimit;
+
+    @Value("${lab.capacity.storage-gb:0}")
+    private long storageLimit;
+
+    @Value("${lab.capacity.seed-from-nodes:false}")
+    private boolean seedFromNodes;
+
+    @Value("${lab.capacity.node-label-selector:}")
+    private String nodeLabelSelector;
+
+    @PostConstruct
+    void init() {
+        limits[0].set(cpuLimit);
+        limits[1].set(memoryLimit);
+        limits[2].set(storageLimit);
+        for (int i = 0; i < RESOURCES.length; i++) {
+            Gauge.builder("lab.capacity.reserved", reserved[i], AtomicLong::get)
+                    .tag("resource", RESOURCES[i])
+                    .register(meterRegistry);
+            Gauge.builder("lab.capacity.limit", limits[i], AtomicLong::get)
+                    .tag("resource", RESOURCES[i])
+                    .register(meterRegistry);
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        if (seedFromNodes) {
+            seedLimitsFromNodes();
+        }
+        resync();
+    }
+
+    // Inside a transaction the reservation is handed back automatically on rollback. Until the
+    // transaction completes it is also tracked as in flight, because the database sum that
+    // resync() starts from cannot see it yet.
+    public boolean tryReserve(InstanceTypeDTO instanceType) {
+        long[] demand = demandOf(instanceType);
+        if (!tryAddAll(demand)) {
+            meterRegistry.counter("lab.capacity.rejected").increment();
+            return false;
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            addAll(inFlight, demand, 1);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    addAll(inFlight, demand, -1);
+                    if (status != STATUS_COMMITTED) {
+                        release(instanceType);
+                    }
+                }
+            });
+        }
+        return true;
+    }
+
+    private void addAll(AtomicLong[] counters, long[] amounts, int sign) {
+        for (int i = 0; i < RESOURCES.length; i++) {
+            counters[i].addAndGet(sign * amounts[i]);
+        }
+    }
+
+    private boolean tryAddAll(long[] demand) {
+        for (int i = 0; i < RESOURCES.length; i++) {
+            if (!tryAdd(i, demand[i])) {
+                for (int j = 0; j < i; j++) {
+                    reserved[j].addAndGet(-demand[j]);
+                }
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // Released after commit so a rolled-back completion does not free capacity twice
+    public void releaseAfterCommit(InstanceTypeDTO instanceType) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    release(instanceType);
+                }
+            });
+        } else {
+            release(instanceType);
+        }
+    }
+
+    public void release(InstanceTypeDTO instanceType) {
+        long[] demand = demandOf(instanceType);
+        for (int i = 0; i < RESOURCES.length; i++) {
+            long amount = demand[i];
+            reserved[i].updateAndGet(current -> Math.max(0, current - amount));
+        }
+    }
+
+    @Scheduled(
+        fixedDelayString = "${lab.capacity.resync-interval-ms:15000}",
+        initialDelayString = "${lab.capacity.resync-interval-ms:15000}"
+    )
+    public void resync() {
+        try {
+            ReservedResourcesProjection sums = userLabSessionRepository.sumReservedResources(ACTIVE_STATUSES);
+            reserved[0].set(sums.getCpuCores() + inFlight[0].get());
+            reserved[1].set(sums.getMemoryGb() + inFlight[1].get());
+            reserved[2].set(sums.getStorageGb() + inFlight[2].get());
+            log.debug("Capacity resynced: cpu={}, memoryGb={}, storageGb={}",
+                    sums.getCpuCores(), sums.getMemoryGb(), sums.getStorageGb());
+        } catch (Exception e) {
+            log.error("Failed to resync lab capacity: {}", e.getMessage(), e);
+        }
+    }
+
+    public Map<String, Object> getHeadroom() {
+        Map<String, Object> resources = new LinkedHashMap<>();
+        for (int i = 0; i < RESOURCES.length; i++) {
+            long limit = limits[i].get();
+            long used = reserved[i].get();
+            Map<String, Object> resource = new LinkedHashMap<>();
+            resource.put("limit", limit > 0 ? limit : null);
+            resource.put("reserved", used);
+            resource.put("available", limit > 0 ? Math.max(0, limit - used) : null);
+            resources.put(RESOURCES[i], resource);
+        }
+
+        List<Map<String, Object>> instanceTypes = instanceTypeRepository.findAll().stream()
+                .map(this::headroomFor)
+                .toList();
+
+        Map<String, Object> headroom = new LinkedHashMap<>();
+        headroom.put("resources", resources);
+        headroom.put("instanceTypes", instanceTypes);
+        return headroom;
+    }
+
+    private Map<String, Object> headroomFor(InstanceType instanceType) {
+        long[] demand = {
+            valueOf(instanceType.getCpuCores()),
+            valueOf(instanceType.getMemoryGb()),
+            valueOf(instanceType.getStorageGb())
+        };
+        Long slots = null;
+        for (int i = 0; i < RESOURCES.length; i++) {
+            long limit = limits[i].get();
+            if (limit <= 0 || demand[i] <= 0) {
+                continue;
+            }
+            long fit = Math.max(0, limit - reserved[i].get()) / demand[i];
+            slots = slots == null ? fit : Math.min(slots, fit);
+        }
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("instanceTypeId", instanceType.getId());
+        result.put("name", instanceType.getName());
+        result.put("availableSlots", slots);
+        return result;
+    }
+
+    private boolean tryAdd(int index, long amount) {
+        long limit = limits[index].get();
+        if (amount <= 0) {
+            return true;
+        }
+        while (true) {
+            long current = reserved[index].get();
+            long next = current + amount;
+            if (limit > 0 && next > limit) {
+                return false;
+            }
+            if (reserved[index].compareAndSet(current, next)) {
+                return true;
+            }
+        }
+    }
+
+    // Sums node allocatable cpu/memory; storage stays on its configured limit because lab
+    // disks live on Longhorn volumes rather than node-local storage.
+    private void seedLimitsFromNodes() {
+        try {
+            List<V1Node> nodes = coreV1Api.listNode(null, null, null, null,
+                    nodeLabelSelector.isBlank() ? null : nodeLabelSelector,
+                    null, null, null, null, false).getItems();
+            BigDecimal cpu = BigDecimal.ZERO;
+            BigDecimal memoryBytes = BigDecimal.ZERO;
+            for (V1Node node : nodes) {
+                Map<String, Quantity> allocatable = node.getStatus() != null ? node.getStatus().getAllocatable() : null;
+                if (allocatable == null) {
+                    continue;
+                }
+                if (allocatable.get("cpu") != null) {
+                    cpu = cpu.add(allocatable.get("cpu").getNumber());
+                }
+                if (allocatable.get("memory") != null) {
+                    memoryBytes = memoryBytes.add(allocatable.get("memory").getNumber());
+                }
+            }
+            limits[0].set(cpu.longValue());
+            limits[1].set(memoryBytes.divide(BYTES_PER_GB, RoundingMode.DOWN).longValue());
+            log.info("Lab capacity seeded from {} nodes: cpu={}, memoryGb={}", nodes.size(), limits[0].get(), limits[1].get());
+        } catch (Exception e) {
+            log.error("Failed to seed lab capacity from nodes, keeping configured limits: {}", e.getMessage());
+        }
+    }
+
+    private long[] demandOf(InstanceTypeDTO instanceType) {
+        return new long[] {
+            valueOf(instanceType.getCpuCores()),
+            valueOf(instanceType.getMemoryGb()),
+            valueOf(instanceType.getStorageGb())
+        };
+    }
+
+    private long valueOf(Integer value) {
+        return value != null ? value : 0L;
+    }
+}
@@ -1,14 +1,10 @@
 package com.example.cms_be.service;
 
 
-import com.example.cms_be.dto.lab.InstanceTypeDTO;
+import com.example.cms_be.dto.lab.LabProvisioningTemplate;
 import com.example.cms_be.dto.lab.UserLabSessionRequest;
 import com.example.cms_be.kafka.UserLabSessionProducer;
-import com.example.cms_be.model.Lab;
-import com.example.cms_be.model.SetupStep;
 import com.example.cms_be.model.UserLabSession;
-import com.example.cms_be.repository.LabRepository;
-import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 
@@ -23,58 +19,24 @@ import java.util.List;
 @RequiredArgsConstructor
 public class LabOrchestrationService {
 
-    private final LabRepository labRepository;
+    private final LabTemplateCache labTemplateCache;
     private final UserLabSessionProducer userLabSessionProducer;
-    private final ObjectMapper objectMapper;
     
     @Value("${infrastructure.service.websocket.student-url}")
     private String infrastructureWebSocketUrl;
 
-    @Transactional(readOnly = true)
+    @Transactional
     public void provisionAndSetupLabWithEagerLoading(UserLabSession session) {
         log.info("Preparing data for async execution - session {}...", session.getId());
         
-        Lab labWithSetupSteps = labRepository.findByIdWithAllData(session.getLab().getId())
-            .orElseThrow(() -> new RuntimeException("Lab not found: " + session.getLab().getId()));
-        
-        List<SetupStep> setupSteps = labWithSetupSteps.getSetupSteps();
-        if (setupSteps != null) {
-            log.info("Loaded {} setup steps for lab {}", setupSteps.size(), labWithSetupSteps.getId());
-        } else {
-            log.info("No setup steps found for lab {}", labWithSetupSteps.getId());
-        }
+        LabProvisioningTemplate template = labTemplateCache.get(session.getLab().getId());
+        log.info("Using provisioning template for lab {} with {} setup steps", template.labId(), template.setupStepCount());
         
         try {
-            String setupStepsJson = setupSteps != null && !setupSteps.isEmpty() 
-                ? objectMapper.writeValueAsString(setupSteps) 
-                : null;
-            
-            String vmName = "vm-" + session.getId();
-            String wsUrl = String.format("%s?podName=%s", infrastructureWebSocketUrl, vmName);
-            
-            InstanceTypeDTO instanceTypeDTO = new InstanceTypeDTO(
-                labWithSetupSteps.getInstanceType().getBackingImage(),
-                labWithSetupSteps.getInstanceType().getCpuCores(),
-                labWithSetupSteps.getInstanceType().getMemoryGb(),
-                labWithSetupSteps.getInstanceType().getStorageGb()
-            );
+            UserLabSessionRequest request = buildProvisioningRequest(template, session.getId(), session.resolveVmName());
             
-             Integer estimatedTimeMinutes = labWithSetupSteps.getEstimatedTime() != null
-                ? labWithSetupSteps.getEstimatedTime()
-                : 60;
-
-            UserLabSessionRequest request = UserLabSessionRequest.builder()
-                .labSessionId(session.getId())
-                .vmName(vmName)
-                .namespace(labWithSetupSteps.getNamespace())
-                .labId(labWithSetupSteps.getId())
-                .instanceType(instanceTypeDTO)
-                .setupStepsJson(setupStepsJson)
-                  .estimatedTimeMinutes(estimatedTimeMinutes)
-                .build();
-            
-            log.info("Sending user lab session request to Kafka for session {}", session.getId());
-            log.info("VM Name: {}, WebSocket URL: {}", vmName, wsUrl);
+            log.info("Queueing user lab session request for session {}", session.getId());
+            log.info("VM Name: {}, WebSocket URL: {}", request.getVmName(), buildSocketUrl(request.getVmName()));
             
             userLabSessionProducer.sendUserLabSessionRequest(request);
             
@@ -83,4 +45,42 @@ public class LabOrchestrationService {
             throw new RuntimeException("Failed to send user lab session request", e);
         }
     }
-}
\ No newline at end of file
+
+    // Bulk variant: one template lookup and one outbox batch for all sessions of the lab
+    @Transactional
+    public void provisionSessions(Integer labId, List<Integer> sessionIds) {
+        if (sessionIds.isEmpty()) {
+            return;
+        }
+        LabProvisioningTemplate template = labTemplateCache.get(labId);
+        List<UserLabSessionRequest> requests = sessionIds.stream()
+            .map(sessionId -> buildProvisioningRequest(template, sessionId, "vm-" + sessionId))
+            .toList();
+        userLabSessionProducer.sendUserLabSessionRequests(requests);
+    }
+
+    // Warm pool VM: no session yet, the ready event is matched back by vmName
+    public void provisionWarmVm(LabProvisioningTemplate template, String vmName) {
+        userLabSessionProducer.sendUserLabSessionRequest(buildProvisioningRequest(template, null, vmName));
+    }
+
+    public String buildSocketUrl(String vmName) {
+        return String.format("%s?podName=%s", infrastructureWebSocketUrl, vmName);
+    }
+
+    private UserLabSessionRequest buildProvisioningRequest(LabProvisioningTemplate template, Integer sessionId, String vmName) {
+        Integer estimatedTimeMinutes = template.estimatedTimeMinutes() != null
+            ? template.estimatedTimeMinutes()
+            : 60;
+
+        return UserLabSessionRequest.builder()
+            .labSessionId(sessionId)
+            .vmName(vmName)
+            .namespace(template.namespace())
+            .labId(template.labId())
+            .instanceType(template.instanceType())
+            .setupStepsJson(template.setupStepsJson())
+            .estimatedTimeMinutes(estimatedTimeMinutes)
+            .build();
+    }
+}
@@ -8,6 +8,7 @@ import com.example.cms_be.dto.lab.LabDTO;
 import com.example.cms_be.model.*;
 import org.springframework.data.domain.*;
 import org.springframework.stereotype.Service;
+import org.springframework.util.StringUtils;
 import com.example.cms_be.repository.InstanceTypeRepository;
 import com.example.cms_be.repository.LabRepository;
 import lombok.RequiredArgsConstructor;
@@ -20,6 +21,8 @@ public class LabService {
 
     private final LabRepository labRepository;
     private final InstanceTypeRepository instanceTypeRepository;
+    private final LabTemplateCache labTemplateCache;
+    private final CatalogSearchService catalogSearchService;
     
     // Convert Lab entity to LabDTO
     private LabDTO convertToDTO(Lab lab) {
@@ -39,7 +42,9 @@ public class LabService {
     
    public Page<Lab> getAllLabs(Pageable pageable, Boolean isActive, String keyword) {
        try {
-        return labRepository.findWithFilters(keyword, isActive, pageable );
+        return !StringUtils.hasText(keyword)
+            ? labRepository.findWithFilters(keyword, isActive, pageable)
+            : labRepository.searchWithFilters(keyword.trim(), isActive, pageable);
        } catch (Exception e) {
            log.error("Error fetching labs: {}", e.getMessage());
            return Page.empty();
@@ -48,13 +53,17 @@ public class LabService {
 
 
     public Page<LabDTO> getLabsByCourse(Integer courseId, Boolean isActive, String keyword, Pageable pageable) {
-        Page<Lab> labPage = labRepository.findLabsByCourseId(courseId, keyword, isActive, pageable);
+        Page<Lab> labPage = !StringUtils.hasText(keyword)
+            ? labRepository.findLabsByCourseId(courseId, keyword, isActive, pageable)
+            : labRepository.searchLabsByCourseId(courseId, keyword.trim(), isActive, pageable);
         return labPage.map(this::convertToDTO);
     }
 
     public Page<Lab> getLabsNotInCourse(Integer courseId, String keyword, Boolean isActive, Pageable pageable) {
         try {
-            return labRepository.findLabsNotInCourseId(courseId, keyword, isActive, pageable);
+            return !StringUtils.hasText(keyword)
+                ? labRepository.findLabsNotInCourseId(courseId, keyword, isActive, pageable)
+                : labRepository.searchLabsNotInCourseId(courseId, keyword.trim(), isActive, pageable);
         } catch (Exception e) {
             log.error("Error fetching labs not in course ID {}: {}", courseId, e.getMessage());
             return Page.empty();
@@ -85,9 +94,12 @@ public class LabService {
             if(createLabRequest.getEstimatedTime() != null) {
                 lab.setEstimatedTime(createLabRequest.getEstimatedTime());
             }
+            lab.setExamMode(Boolean.TRUE.equals(createLabRequest.getExamMode()));
           
 
-            return labRepository.save(lab);
+            Lab savedLab = labRepository.save(lab);
+            catalogSearchService.indexLab(savedLab);
+            return savedLab;
         }
         catch (Exception e) {
             log.error("Error creating lab: {}", e.getMessage());
@@ -132,10 +144,15 @@ public class LabService {
             if (labUpdate.getIsActive() != null) {
                 existingLab.setIsActive(labUpdate.getIsActive());
             }
+            if (labUpdate.getExamMode() != null) {
+                existingLab.setExamMode(labUpdate.getExamMode());
+            }
           
             
 
             Lab updatedLab = labRepository.save(existingLab);
+            labTemplateCache.evict(id);
+            catalogSearchService.indexLab(updatedLab);
             log.info("Lab updated successfully with ID: {}", updatedLab.getId());
             return updatedLab;
         } catch (Exception e) {
@@ -156,6 +173,8 @@ public class LabService {
             }
             existingLabOpt.setIsActive(!existingLabOpt.getIsActive());
             Lab updatedLab = labRepository.save(existingLabOpt);
+            labTemplateCache.evict(id);
+            catalogSearchService.indexLab(updatedLab);
             log.info("Lab activation toggled successfully for ID: {}, new status: {}", id, updatedLab.getIsActive());
             return updatedLab;
 
@@ -167,6 +186,8 @@ public class LabService {
     public boolean deleteLab(Integer id) {
         try {
             labRepository.deleteById(id);
+            labTemplateCache.evict(id);
+            catalogSearchService.removeLab(id);
             return true;
         }
         catch (Exception e) {
@@ -0,0 +1,83 @@
+package com.example.cms_be.service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.example.cms_be.constant.LabSessionStatus;
+import com.example.cms_be.dto.lab.LabSessionCleanupRequest;
+import com.example.cms_be.kafka.LabSessionCleanupProducer;
+import com.example.cms_be.model.UserLabSession;
+import com.example.cms_be.repository.UserLabSessionRepository;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+@Service
+@Slf4j
+@RequiredArgsConstructor
+public class LabSessionExpiryService {
+
+    private static final String RUNNING_STATUS = LabSessionStatus.RUNNING.name();
+    private static final String COMPLETED_STATUS = LabSessionStatus.COMPLETED.name();
+
+    private final UserLabSessionRepository userLabSessionRepository;
+    private final LabSessionCleanupProducer cleanupProducer;
+    private final CourseUserStatsService courseUserStatsService;
+    private final MeterRegistry meterRegistry;
+    private final LabCapacityService labCapacityService;
+    private final LabTemplateCache labTemplateCache;
+    private final LabSessionNotifier labSessionNotifier;
+
+    /**
+     * Completes up to {@code batchSize} overdue RUNNING sessions in one conditional update
+     * (SKIP LOCKED, so several nodes can poll concurrently without picking the same rows) and
+     * queues the cleanup requests in the same transaction. Returns the number of sessions completed.
+     */
+    @Transactional
+    public int expireDueSessions(int batchSize) {
+        LocalDateTime now = LocalDateTime.now();
+        List<UserLabSession> dueSessions = userLabSessionRepository.transitionDueToCompleted(RUNNING_STATUS, COMPLETED_STATUS, now, batchSize);
+        if (dueSessions.isEmpty()) {
+            return 0;
+        }
+
+        Timer lagTimer = Timer.builder("lab.session.expiry.lag")
+                .description("Delay between a session's expires_at and its actual cleanup")
+                .register(meterRegistry);
+
+        List<UserLabSession> completedSessions = new ArrayList<>();
+        for (UserLabSession session : dueSessions) {
+            String namespace = session.getLab() != null ? session.getLab().getNamespace() : "default";
+            LabSessionCleanupRequest cleanupRequest = LabSessionCleanupRequest.builder()
+                    .labSessionId(session.getId())
+                    .vmName(session.resolveVmName())
+                    .namespace(namespace)
+                    .build();
+            cleanupProducer.sendCleanupRequest(cleanupRequest);
+
+            lagTimer.record(Duration.between(session.getExpiresAt(), now));
+            completedSessions.add(session);
+            if (session.getLab() != null) {
+                labCapacityService.releaseAfterCommit(labTemplateCache.get(session.getLab().getId()).instanceType());
+            }
+            log.info("Session {} expired at {} and was completed", session.getId(), session.getExpiresAt());
+        }
+
+        completedSessions.forEach(courseUserStatsService::recordCompletion);
+        completedSessions.forEach(labSessionNotifier::sessionStatusChanged);
+
+        meterRegistry.counter("lab.session.expiry.completed").increment(completedSessions.size());
+        return completedSessions.size();
+    }
+
+    public long countBacklog() {
+        return userLabSessionRepository.countByStatusAndExpiresAtLessThanEqual(RUNNING_STATUS, LocalDateTime.now());
+    }
+}
@@ -0,0 +1,55 @@
+package com.example.cms_be.service;
+
+import java.time.LocalDateTime;
+
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+
+import com.example.cms_be.dto.lab.LabSessionStatusEvent;
+import com.example.cms_be.model.Submission;
+import com.example.cms_be.model.UserLabSession;
+
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Raises status-change notifications from inside the business transaction. They are only
+ * broadcast once that transaction commits (see LabSessionEventBroadcaster), so clients never
+ * see a state that was rolled back.
+ */
+@Service
+@RequiredArgsConstructor
+public class LabSessionNotifier {
+
+    private final ApplicationEventPublisher eventPublisher;
+
+    public void sessionStatusChanged(UserLabSession session) {
+        eventPublisher.publishEvent(new LabSessionStatusEvent(
+                LabSessionStatusEvent.SESSION_STATUS,
+                session.getId(),
+                userIdOf(session),
+                session.getLab() != null ? session.getLab().getId() : null,
+                session.getStatus(),
+                null,
+                null,
+                LocalDateTime.now()));
+    }
+
+    public void validationCompleted(Submission submission) {
+        UserLabSession session = submission.getUserLabSession();
+        eventPublisher.publishEvent(new LabSessionStatusEvent(
+                LabSessionStatusEvent.VALIDATION_RESULT,
+                session.getId(),
+                userIdOf(session),
+                session.getLab() != null ? session.getLab().getId() : null,
+                submission.getStatus(),
+                submission.getQuestion() != null ? submission.getQuestion().getId() : null,
+                submission.isCorrect(),
+                LocalDateTime.now()));
+    }
+
+    private Integer userIdOf(UserLabSession session) {
+        return session.getCourseUser() != null && session.getCourseUser().getUser() != null
+                ? session.getCourseUser().getUser().getId()
+                : null;
+    }
+}
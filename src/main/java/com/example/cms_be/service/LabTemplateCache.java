@@ -0,0 +1,157 @@
+package com.example.cms_be.service;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import com.example.cms_be.dto.lab.InstanceTypeDTO;
+import com.example.cms_be.dto.lab.LabProvisioningTemplate;
+import com.example.cms_be.model.Lab;
+import com.example.cms_be.model.SetupStep;
+import com.example.cms_be.repository.LabRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityNotFoundException;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Read-through cache of {@link LabProvisioningTemplate} per lab. Concurrent misses for the
+ * same lab wait on a single load, so a whole class starting one lab hits the database once.
+ * Mutations evict explicitly; the TTL only bounds staleness for changes made on other nodes,
+ * which is why admin test runs go through {@link #getFresh(Integer)} instead.
+ */
+@Service
+@Slf4j
+@RequiredArgsConstructor
+public class LabTemplateCache {
+
+    private final LabRepository labRepository;
+    private final ObjectMapper objectMapper;
+    private final MeterRegistry meterRegistry;
+
+    private final Map<Integer, CachedTemplate> templates = new ConcurrentHashMap<>();
+    private final Map<Integer, CompletableFuture<LabProvisioningTemplate>> loading = new ConcurrentHashMap<>();
+
+    @Value("${lab.template-cache.ttl-seconds:600}")
+    private long ttlSeconds;
+
+    public LabProvisioningTemplate get(Integer labId) {
+        CachedTemplate cached = templates.get(labId);
+        if (cached != null && !cached.isExpired()) {
+            meterRegistry.counter("lab.template.cache", "result", "hit").increment();
+            return cached.template();
+        }
+
+        // Single flight without holding a map bin lock during the query: the first caller
+        // registers a future and loads, everyone else missing on the same lab waits on it.
+        CompletableFuture<LabProvisioningTemplate> load = new CompletableFuture<>();
+        CompletableFuture<LabProvisioningTemplate> inFlight = loading.putIfAbsent(labId, load);
+        if (inFlight != null) {
+            meterRegistry.counter("lab.template.cache", "result", "wait").increment();
+            return await(inFlight);
+        }
+        meterRegistry.counter("lab.template.cache", "result", "miss").increment();
+        try {
+            LabProvisioningTemplate template = load(labId);
+            // An evict() during the load removed our future: hand the result out but do not cache it
+            if (loading.remove(labId, load)) {
+                templates.put(labId, cache(template));
+            }
+            load.complete(template);
+            return template;
+        } catch (RuntimeException e) {
+            loading.remove(labId, load);
+            load.completeExceptionally(e);
+            throw e;
+        }
+    }
+
+    // Always reads the database (and refreshes the cache); for admin test runs, which must
+    // use the lab exactly as it is now even if it was edited on another node.
+    public LabProvisioningTemplate getFresh(Integer labId) {
+        LabProvisioningTemplate template = load(labId);
+        templates.put(labId, cache(template));
+        return template;
+    }
+
+    public void evict(Integer labId) {
+        if (labId == null) {
+            return;
+        }
+        loading.remove(labId);
+        if (templates.remove(labId) != null) {
+            log.debug("Evicted provisioning template for lab {}", labId);
+        }
+    }
+
+    public void evictByInstanceType(Integer instanceTypeId) {
+        templates.values().removeIf(cached -> Objects.equals(cached.template().instanceTypeId(), instanceTypeId));
+    }
+
+    private LabProvisioningTemplate load(Integer labId) {
+        Lab lab = labRepository.findByIdWithAllData(labId)
+            .orElseThrow(() -> new EntityNotFoundException("Lab not found: " + labId));
+
+        List<SetupStep> setupSteps = lab.getSetupSteps() == null ? List.of() : lab.getSetupSteps().stream()
+            .sorted(Comparator.comparing(SetupStep::getStepOrder))
+            .toList();
+
+        String setupStepsJson;
+        try {
+            setupStepsJson = setupSteps.isEmpty() ? null : objectMapper.writeValueAsString(setupSteps);
+        } catch (JsonProcessingException e) {
+            throw new RuntimeException("Failed to serialize setup steps for lab " + labId, e);
+        }
+
+        InstanceTypeDTO instanceTypeDTO = new InstanceTypeDTO(
+            lab.getInstanceType().getBackingImage(),
+            lab.getInstanceType().getCpuCores(),
+            lab.getInstanceType().getMemoryGb(),
+            lab.getInstanceType().getStorageGb()
+        );
+
+        log.info("Loaded provisioning template for lab {} ({} setup steps)", labId, setupSteps.size());
+        return new LabProvisioningTemplate(
+            lab.getId(),
+            lab.getTitle(),
+            lab.getNamespace(),
+            lab.getEstimatedTime(),
+            lab.getInstanceType().getId(),
+            instanceTypeDTO,
+            setupStepsJson,
+            setupSteps.size()
+        );
+    }
+
+    private CachedTemplate cache(LabProvisioningTemplate template) {
+        return new CachedTemplate(template, System.nanoTime() + TimeUnit.SECONDS.toNanos(ttlSeconds));
+    }
+
+    private LabProvisioningTemplate await(CompletableFuture<LabProvisioningTemplate> inFlight) {
+        try {
+            return inFlight.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    private record CachedTemplate(LabProvisioningTemplate template, long expiresAtNanos) {
+        boolean isExpired() {
+            return System.nanoTime() - expiresAtNanos > 0;
+        }
+    }
+}
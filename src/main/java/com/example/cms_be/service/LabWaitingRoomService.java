@@ -0,0 +1,114 @@
+package com.example.cms_be.service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.example.cms_be.constant.LabSessionStatus;
+import com.example.cms_be.dto.lab.InstanceTypeDTO;
+import com.example.cms_be.dto.lab.QueueStatus;
+import com.example.cms_be.dto.lab.QueuedSessionProjection;
+import com.example.cms_be.model.Lab;
+import com.example.cms_be.model.UserLabSession;
+import com.example.cms_be.repository.UserLabSessionRepository;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Durable waiting room for session starts that did not fit into the cluster. QUEUED rows in
+ * user_lab_sessions are the queue; they are admitted in fair order as capacity frees up and
+ * then follow the normal PENDING -> RUNNING path.
+ */
+@Service
+@Slf4j
+@RequiredArgsConstructor
+public class LabWaitingRoomService {
+
+    private static final String QUEUED_STATUS = LabSessionStatus.QUEUED.name();
+    private static final String PENDING_STATUS = LabSessionStatus.PENDING.name();
+    private static final int EXAM_PRIORITY = 10;
+
+    private final UserLabSessionRepository userLabSessionRepository;
+    private final LabCapacityService labCapacityService;
+    private final LabTemplateCache labTemplateCache;
+    private final LabOrchestrationService orchestrationService;
+    private final MeterRegistry meterRegistry;
+    private final LabSessionNotifier labSessionNotifier;
+
+    // Window over which the admission rate for the ETA is measured
+    @Value("${lab.waiting-room.rate-window-minutes:10}")
+    private int rateWindowMinutes;
+
+    // Queue priority of a new session; set by the server from the lab, never by the client
+    public static int queuePriorityOf(Lab lab) {
+        return Boolean.TRUE.equals(lab.getExamMode()) ? EXAM_PRIORITY : 0;
+    }
+
+    /**
+     * Admits queued sessions from the head of the queue while capacity lasts. Stops at the
+     * first session that does not fit, so a large VM at the head is not starved by smaller
+     * ones behind it. Returns the number of sessions admitted.
+     */
+    @Transactional
+    public int admitQueuedSessions(int batchSize) {
+        List<QueuedSessionProjection> head = userLabSessionRepository.lockQueueHead(QUEUED_STATUS, batchSize);
+        LocalDateTime now = LocalDateTime.now();
+        Timer waitTimer = Timer.builder("lab.waiting-room.wait")
+                .description("Time a session spent QUEUED before being admitted")
+                .register(meterRegistry);
+
+        Map<Integer, InstanceTypeDTO> reserved = new LinkedHashMap<>();
+        for (QueuedSessionProjection queued : head) {
+            InstanceTypeDTO instanceType = labTemplateCache.get(queued.getLabId()).instanceType();
+            if (!labCapacityService.tryReserve(instanceType)) {
+                break;
+            }
+            reserved.put(queued.getId(), instanceType);
+        }
+        if (reserved.isEmpty()) {
+            return 0;
+        }
+
+        List<UserLabSession> admitted = userLabSessionRepository.transitionQueuedToPending(
+                reserved.keySet(), QUEUED_STATUS, PENDING_STATUS, now);
+        for (UserLabSession session : admitted) {
+            reserved.remove(session.getId());
+            if (session.getQueuedAt() != null) {
+                waitTimer.record(Duration.between(session.getQueuedAt(), now));
+            }
+        }
+        // Whatever is left was no longer QUEUED (deleted or cancelled); hand its capacity back
+        reserved.values().forEach(labCapacityService::releaseAfterCommit);
+
+        admitted.forEach(orchestrationService::provisionAndSetupLabWithEagerLoading);
+        admitted.forEach(labSessionNotifier::sessionStatusChanged);
+
+        if (!admitted.isEmpty()) {
+            log.info("Admitted {} queued lab sessions", admitted.size());
+        }
+        return admitted.size();
+    }
+
+    // Position follows the admission order; the rate is what all nodes admitted recently
+    public QueueStatus getQueueStatus(UserLabSession session) {
+        long position = userLabSessionRepository.countQueuedAhead(QUEUED_STATUS, session.getId()) + 1;
+        long admittedRecently = userLabSessionRepository.countAdmittedSince(
+                LocalDateTime.now().minusMinutes(rateWindowMinutes));
+        double rate = admittedRecently / (rateWindowMinutes * 60.0);
+        Long etaSeconds = rate > 0 ? (long) Math.ceil(position / rate) : null;
+        return new QueueStatus(session.getId(), position, etaSeconds);
+    }
+
+    public long countQueued() {
+        return userLabSessionRepository.countByStatus(QUEUED_STATUS);
+    }
+}
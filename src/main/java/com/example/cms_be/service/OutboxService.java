@@ -0,0 +1,189 @@
+package com.example.cms_be.service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.example.cms_be.kafka.KafkaMessagePublisher;
+import com.example.cms_be.model.OutboxEvent;
+import com.example.cms_be.repository.OutboxEventRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+@Service
+@Slf4j
+@RequiredArgsConstructor
+public class OutboxService {
+
+    private static final String RELAY_LEASE = "outbox-relay";
+
+    private final OutboxEventRepository outboxEventRepository;
+    private final KafkaTemplate<String, String> outboxKafkaTemplate;
+    private final KafkaMessagePublisher kafkaMessagePublisher;
+    private final ObjectMapper objectMapper;
+    private final MeterRegistry meterRegistry;
+    private final SchedulerLeaseService schedulerLeaseService;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${app.outbox.relay.ack-timeout-ms:30000}")
+    private long ackTimeoutMs;
+
+    @Value("${app.outbox.relay.lease-ms:60000}")
+    private long leaseMs;
+
+    @Value("${app.outbox.relay.max-attempts:15}")
+    private int maxAttempts;
+
+    @Value("${app.outbox.relay.max-backoff-ms:300000}")
+    private long maxBackoffMs;
+
+    // Must run inside the caller's transaction: the message is only visible to the relay
+    // once the business change that produced it has committed.
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void enqueue(String topic, String key, Object payload) {
+        outboxEventRepository.save(buildEvent(topic, key, payload, LocalDateTime.now()));
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void enqueueAll(String topic, Map<String, ?> payloadsByKey) {
+        LocalDateTime now = LocalDateTime.now();
+        List<OutboxEvent> events = new ArrayList<>(payloadsByKey.size());
+        payloadsByKey.forEach((key, payload) -> events.add(buildEvent(topic, key, payload, now)));
+        outboxEventRepository.saveAll(events);
+    }
+
+    /**
+     * Publishes the head row of every message key (the oldest PENDING row, once due) and deletes
+     * the acknowledged ones. Only one node relays at a time (a {@link SchedulerLeaseService}
+     * lease, so no transaction stays open while waiting for broker acks). A key's next row is
+     * only selected after the previous one was acked and deleted, so a failed send can never be
+     * overtaken by a later message of the same key; the failed row backs off and keeps blocking
+     * its key until it succeeds or, after {@code max-attempts} failures, is parked as FAILED.
+     * Returns the number of rows published, or -1 when another node holds the relay lease.
+     *
+     * <p>The guarantee is publication order per key across all topics: the cleanup request for
+     * a VM is only sent once its provisioning request was acked. Kafka does not order delivery
+     * across topics, so consumers of the cleanup topic must still tolerate a VM that does not
+     * exist yet or anymore.
+     */
+    public int relayBatch(int batchSize) {
+        if (!schedulerLeaseService.tryAcquire(RELAY_LEASE, Duration.ofMillis(Math.max(leaseMs, ackTimeoutMs * 2)))) {
+            return -1;
+        }
+        LocalDateTime now = LocalDateTime.now();
+        List<OutboxEvent> batch = outboxEventRepository.findNextBatch(now, batchSize);
+        if (batch.isEmpty()) {
+            return 0;
+        }
+
+        Map<OutboxEvent, CompletableFuture<?>> sends = new LinkedHashMap<>();
+        for (OutboxEvent event : batch) {
+            try {
+                sends.put(event, kafkaMessagePublisher.publish(
+                        outboxKafkaTemplate, event.getTopic(), event.getMessageKey(), event.getPayload()));
+            } catch (Exception e) {
+                sends.put(event, CompletableFuture.failedFuture(e));
+            }
+        }
+
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(ackTimeoutMs);
+        List<Long> publishedIds = new ArrayList<>();
+        List<Long> failedIds = new ArrayList<>();
+        int deadLettered = 0;
+        String lastError = null;
+        for (Map.Entry<OutboxEvent, CompletableFuture<?>> entry : sends.entrySet()) {
+            OutboxEvent event = entry.getKey();
+            String error = awaitAck(entry.getValue(), deadline);
+            if (error == null) {
+                publishedIds.add(event.getId());
+                continue;
+            }
+            failedIds.add(event.getId());
+            lastError = "Kafka delivery failed for topic " + event.getTopic() + ": " + error;
+            if (event.getAttempts() + 1 >= maxAttempts) {
+                deadLettered++;
+                log.error("Outbox event {} (topic={}, key={}) failed {} times and was moved to FAILED: {}",
+                        event.getId(), event.getTopic(), event.getMessageKey(), event.getAttempts() + 1, error);
+            }
+        }
+
+        String errorMessage = lastError;
+        transactionTemplate.executeWithoutResult(status -> {
+            if (!publishedIds.isEmpty()) {
+                outboxEventRepository.deleteByIds(publishedIds);
+            }
+            if (!failedIds.isEmpty()) {
+                outboxEventRepository.markFailed(failedIds, errorMessage, LocalDateTime.now(),
+                        maxBackoffMs / 1000.0, maxAttempts);
+            }
+        });
+        if (!failedIds.isEmpty()) {
+            log.warn("Outbox relay kept {} failed events for retry, their keys stay blocked", failedIds.size());
+        }
+
+        meterRegistry.counter("outbox.relay.published").increment(publishedIds.size());
+        meterRegistry.counter("outbox.relay.retained").increment(failedIds.size());
+        meterRegistry.counter("outbox.relay.dead_lettered").increment(deadLettered);
+        return publishedIds.size();
+    }
+
+    public long countPending() {
+        return outboxEventRepository.countByStatus(OutboxEvent.STATUS_PENDING);
+    }
+
+    public long countFailed() {
+        return outboxEventRepository.countByStatus(OutboxEvent.STATUS_FAILED);
+    }
+
+    // Null when acked, otherwise the failure; all futures of a batch share one deadline
+    private String awaitAck(CompletableFuture<?> future, long deadlineNanos) {
+        try {
+            future.get(Math.max(0, deadlineNanos - System.nanoTime()), TimeUnit.NANOSECONDS);
+            return null;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return "interrupted";
+        } catch (TimeoutException e) {
+            return "no ack within " + ackTimeoutMs + "ms";
+        } catch (Exception e) {
+            Throwable cause = e.getCause() != null ? e.getCause() : e;
+            return cause.getMessage();
+        }
+    }
+
+    private OutboxEvent buildEvent(String topic, String key, Object payload, LocalDateTime createdAt) {
+        return OutboxEvent.builder()
+                .topic(topic)
+                .messageKey(key)
+                .payload(toJson(payload))
+                .createdAt(createdAt)
+                .attempts(0)
+                .status(OutboxEvent.STATUS_PENDING)
+                .build();
+    }
+
+    private String toJson(Object payload) {
+        try {
+            return objectMapper.writeValueAsString(payload);
+        } catch (JsonProcessingException e) {
+            throw new RuntimeException("Failed to serialize outbox payload", e);
+        }
+    }
+}
@@ -8,6 +8,7 @@ import java.util.Optional;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
+import org.springframework.util.StringUtils;
 
 import com.example.cms_be.model.Answer;
 import com.example.cms_be.model.Lab;
@@ -25,12 +26,15 @@ import lombok.extern.slf4j.Slf4j;
 public class QuestionService {
     private final QuestionRepository questionRepository;
     private final LabRepository labRepository;
+    private final CatalogSearchService catalogSearchService;
     
 
     public Page<Question> getAllQuestionsWithPaginations(  String keyword, Integer labId, Pageable pageable)
     {
          try {
-            return questionRepository.findWithFilters( keyword, labId, pageable);
+            return !StringUtils.hasText(keyword)
+                ? questionRepository.findWithFilters(keyword, labId, pageable)
+                : questionRepository.searchWithFilters(keyword.trim(), labId, pageable);
          } catch (Exception e) {
             log.error("Error fetching questions with filters: {}", e.getMessage());
             return Page.empty();
@@ -53,7 +57,9 @@ public class QuestionService {
                 .orElseThrow(() -> new RuntimeException("Lab not found with id: " + labId));
 
         question.setLab(lab);
-        return questionRepository.save(question);
+        Question savedQuestion = questionRepository.save(question);
+        catalogSearchService.indexQuestions(List.of(savedQuestion));
+        return savedQuestion;
 
     } catch (Exception e) {
         log.error("Error creating question: {}", e.getMessage());
@@ -83,6 +89,7 @@ public class QuestionService {
            }
         }
         List<Question> savedQuestions = questionRepository.saveAll(questions);
+        catalogSearchService.indexQuestions(savedQuestions);
         return savedQuestions;
        } catch (Exception e) {
           throw new RuntimeException("Failed to create bulk questions", e);
@@ -117,7 +124,9 @@ public class QuestionService {
                     existingQuestion.getAnswers().add(answer);
                 }
             }
-            return questionRepository.save(existingQuestion);
+            Question savedQuestion = questionRepository.save(existingQuestion);
+            catalogSearchService.indexQuestions(List.of(savedQuestion));
+            return savedQuestion;
         } catch (Exception e) {
             log.error("Error updating question: {}", e.getMessage());
             throw new RuntimeException("Failed to update question", e);
@@ -129,6 +138,7 @@ public class QuestionService {
              var existingQuestion = questionRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Question not found with id: " + id));
              questionRepository.delete(existingQuestion);
+             catalogSearchService.removeQuestion(id);
              return true;
         } catch (Exception e) {
             log.error("Error deleting question: {}", e.getMessage());
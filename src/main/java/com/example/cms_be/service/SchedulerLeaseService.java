@@ -0,0 +1,42 @@
+package com.example.cms_be.service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+import org.springframework.stereotype.Service;
+
+import com.example.cms_be.repository.SchedulerLeaseRepository;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Cluster-wide mutual exclusion for schedulers whose work spans several transactions or
+ * blocking calls, where a transaction-scoped advisory lock would keep a transaction (and a
+ * pooled connection) open for the whole run. Each acquire is one autocommitted upsert;
+ * the holder renews by acquiring again and must finish its work within the lease duration.
+ */
+@Service
+@Slf4j
+@RequiredArgsConstructor
+public class SchedulerLeaseService {
+
+    private final SchedulerLeaseRepository schedulerLeaseRepository;
+
+    private final String nodeId = UUID.randomUUID().toString();
+
+    public boolean tryAcquire(String name, Duration duration) {
+        LocalDateTime now = LocalDateTime.now();
+        return schedulerLeaseRepository.tryAcquire(name, nodeId, now, now.plus(duration)) > 0;
+    }
+
+    public void release(String name) {
+        try {
+            schedulerLeaseRepository.release(name, nodeId);
+        } catch (Exception e) {
+            // The lease simply runs out
+            log.warn("Failed to release scheduler lease {}: {}", name, e.getMessage());
+        }
+    }
+}
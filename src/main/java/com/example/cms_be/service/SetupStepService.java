@@ -16,6 +16,7 @@ import lombok.extern.slf4j.Slf4j;
 public class SetupStepService {
     private final SetupStepRepository setupStepRepository;
     private final LabRepository labRepository;
+    private final LabTemplateCache labTemplateCache;
     public List<SetupStep> getLabSetupSteps(Integer labId) {
         try {
             return setupStepRepository.findByLabIdOrderByStepOrder(labId);
@@ -39,6 +40,7 @@ public class SetupStepService {
             setupStep.setStepOrder(nextOrder);
             
             SetupStep createdStep = setupStepRepository.save(setupStep);
+            labTemplateCache.evict(lab.getId());
             log.info("Setup step created successfully with ID: {}", createdStep.getId());
             return createdStep;
         } catch (Exception e) {
@@ -65,6 +67,8 @@ public class SetupStepService {
 
             setupStepRepository.save(fromStep);
             setupStepRepository.save(toStep);
+            evictLabTemplate(fromStep);
+            evictLabTemplate(toStep);
 
             log.info("Swapped order of setup steps {} and {}", fromStepId, toStepId);
         } catch (Exception e) {
@@ -102,6 +106,7 @@ public class SetupStepService {
             }
 
             SetupStep updatedStep = setupStepRepository.save(existingStep);
+            evictLabTemplate(existingStep);
             log.info("Setup step updated successfully with ID: {}", updatedStep.getId());
             return updatedStep;
         } catch (Exception e) {
@@ -129,6 +134,7 @@ public class SetupStepService {
 
             // Cập nhật lại step order cho các step sau
             reorderStepsAfterDeletion(labId, deletedOrder);
+            labTemplateCache.evict(labId);
 
             log.info("Setup step deleted with ID: {}", id);
             return true;
@@ -158,7 +164,12 @@ public class SetupStepService {
        }
     }
 
-   
+    private void evictLabTemplate(SetupStep step) {
+        if (step.getLab() != null) {
+            labTemplateCache.evict(step.getLab().getId());
+        }
+    }
+
     private Integer getNextStepOrder(Integer labId) {
     try {
             List<SetupStep> existingSteps = setupStepRepository.findByLabIdOrderByStepOrder(labId);
@@ -23,8 +23,13 @@ import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
 
 @Service
 @Slf4j
@@ -35,6 +40,8 @@ public class SubmissionService {
     private final AnswerRepository answerRepository;
     private final QuestionRepository questionRepository;
     private final ValidationProducer validationProducer;
+    private final CourseUserStatsService courseUserStatsService;
+    private final LabSessionNotifier labSessionNotifier;
 
     @Transactional
     public void submitQuestion(Integer labSessionId, Integer questionId, Integer userAnswerId) {
@@ -82,10 +89,13 @@ public class SubmissionService {
         }
 
         submissionRepository.save(submission);
+        if (submission.isCorrect()) {
+            courseUserStatsService.recordCorrectAnswer(userLabSession);
+        }
     }
 
     private void sendValidationRequest(UserLabSession userLabSession, Question question, Integer submissionId) {
-        String vmName = "vm-" + userLabSession.getId();
+        String vmName = userLabSession.resolveVmName();
         String namespace = userLabSession.getLab().getNamespace();
         String podName = userLabSession.getPodName();
 
@@ -111,36 +121,64 @@ public class SubmissionService {
 
     @Transactional
     public void processValidationResponse(ValidationResponse response) {
-        log.info("📥 Processing validation response: labSessionId={}, questionId={}, isCorrect={}",
-                response.getLabSessionId(), response.getQuestionId(), response.isCorrect());
-
-        Optional<Submission> submissionOpt = submissionRepository
-                .findByLabSessionAndQuestionAndStatus(
-                        response.getLabSessionId(),
-                        response.getQuestionId(),
-                        SubmissionStatus.SUBMISSION_PENDING
-                );
-
-        if (submissionOpt.isEmpty()) {
-            log.warn("⚠️ No pending submission found for labSessionId={}, questionId={}",
-                    response.getLabSessionId(), response.getQuestionId());
-            return;
+        processValidationResponses(List.of(response));
+    }
+
+    // Applies a whole batch in one transaction: pending submissions of every session in the
+    // batch are loaded with a single query and matched in memory by (session, question).
+    @Transactional
+    public int processValidationResponses(List<ValidationResponse> responses) {
+        if (responses.isEmpty()) {
+            return 0;
+        }
+        Set<Integer> labSessionIds = responses.stream()
+                .map(ValidationResponse::getLabSessionId)
+                .collect(Collectors.toSet());
+
+        Map<String, Submission> pendingByKey = new HashMap<>();
+        for (Submission pending : submissionRepository.findByLabSessionsAndStatus(
+                labSessionIds, SubmissionStatus.SUBMISSION_PENDING)) {
+            if (pending.getQuestion() != null) {
+                pendingByKey.put(submissionKey(pending.getUserLabSession().getId(), pending.getQuestion().getId()), pending);
+            }
         }
 
-        Submission submission = submissionOpt.get();
+        List<Submission> updated = new ArrayList<>();
+        for (ValidationResponse response : responses) {
+            log.info("📥 Processing validation response: labSessionId={}, questionId={}, isCorrect={}",
+                    response.getLabSessionId(), response.getQuestionId(), response.isCorrect());
 
-        if (response.isCorrect()) {
-            submission.setStatus(SubmissionStatus.SUBMISSION_SUCCESS);
-            submission.setCorrect(true);
-        } else {
-            submission.setStatus(SubmissionStatus.SUBMISSION_FAILED);
-            submission.setCorrect(false);
+            Submission submission = pendingByKey.remove(submissionKey(response.getLabSessionId(), response.getQuestionId()));
+            if (submission == null) {
+                log.warn("⚠️ No pending submission found for labSessionId={}, questionId={}",
+                        response.getLabSessionId(), response.getQuestionId());
+                continue;
+            }
+
+            if (response.isCorrect()) {
+                submission.setStatus(SubmissionStatus.SUBMISSION_SUCCESS);
+                submission.setCorrect(true);
+            } else {
+                submission.setStatus(SubmissionStatus.SUBMISSION_FAILED);
+                submission.setCorrect(false);
+            }
+            updated.add(submission);
         }
 
-        submissionRepository.save(submission);
+        submissionRepository.saveAll(updated);
+        for (Submission submission : updated) {
+            if (submission.isCorrect()) {
+                courseUserStatsService.recordCorrectAnswer(submission.getUserLabSession());
+            }
+            labSessionNotifier.validationCompleted(submission);
+            log.info("✅ Submission updated: id={}, status={}, isCorrect={}",
+                    submission.getId(), submission.getStatus(), submission.isCorrect());
+        }
+        return updated.size();
+    }
 
-        log.info("✅ Submission updated: id={}, status={}, isCorrect={}",
-                submission.getId(), submission.getStatus(), submission.isCorrect());
+    private String submissionKey(Integer labSessionId, Integer questionId) {
+        return labSessionId + ":" + questionId;
     }
 
     public String getQuestionSubmissionStatus(Integer labSessionId, Integer questionId) {
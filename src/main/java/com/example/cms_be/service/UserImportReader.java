@@ -0,0 +1,168 @@
+package com.example.cms_be.service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Pulls one record at a time from a CSV (header row required) or NDJSON upload so an import
+ * never holds more than the current batch in memory. Field names are normalized
+ * ("first_name", "First Name" and "firstName" all become "firstname").
+ */
+class UserImportReader implements AutoCloseable {
+
+    record Record(long line, Map<String, String> fields, String parseError) {}
+
+    private static final char BOM = '\uFEFF';
+
+    private final BufferedReader reader;
+    private final boolean ndjson;
+    private final ObjectMapper objectMapper;
+    private List<String> header;
+    private long line;
+
+    UserImportReader(InputStream input, boolean ndjson, ObjectMapper objectMapper) {
+        this.reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8));
+        this.ndjson = ndjson;
+        this.objectMapper = objectMapper;
+    }
+
+    /** Returns the next record, or null at end of input. */
+    Record next() throws IOException {
+        return ndjson ? nextJson() : nextCsv();
+    }
+
+    private Record nextJson() throws IOException {
+        String text;
+        do {
+            text = reader.readLine();
+            line++;
+            if (text == null) {
+                return null;
+            }
+        } while (text.isBlank());
+
+        try {
+            JsonNode node = objectMapper.readTree(stripBom(text));
+            if (!node.isObject()) {
+                return new Record(line, Map.of(), "Dong khong phai JSON object");
+            }
+            Map<String, String> fields = new HashMap<>();
+            Iterator<Map.Entry<String, JsonNode>> it = node.fields();
+            while (it.hasNext()) {
+                Map.Entry<String, JsonNode> field = it.next();
+                if (!field.getValue().isNull()) {
+                    fields.put(normalize(field.getKey()), field.getValue().asText());
+                }
+            }
+            return new Record(line, fields, null);
+        } catch (JsonProcessingException e) {
+            return new Record(line, Map.of(), "JSON khong hop le: " + e.getOriginalMessage());
+        }
+    }
+
+    private Record nextCsv() throws IOException {
+        if (header == null) {
+            List<String> columns = readCsvRecord();
+            if (columns == null) {
+                return null;
+            }
+            columns.set(0, stripBom(columns.get(0)));
+            header = columns.stream().map(UserImportReader::normalize).toList();
+        }
+        List<String> values;
+        long recordLine;
+        do {
+            recordLine = line + 1;
+            values = readCsvRecord();
+            if (values == null) {
+                return null;
+            }
+        } while (values.size() == 1 && values.get(0).isBlank());
+
+        if (values.size() != header.size()) {
+            return new Record(recordLine, Map.of(), "So cot (" + values.size() + ") khong khop header (" + header.size() + ")");
+        }
+        Map<String, String> fields = new HashMap<>();
+        for (int i = 0; i < header.size(); i++) {
+            String value = values.get(i).trim();
+            if (!value.isEmpty()) {
+                fields.put(header.get(i), value);
+            }
+        }
+        return new Record(recordLine, fields, null);
+    }
+
+    // RFC 4180: quoted fields may contain commas, doubled quotes and line breaks
+    private List<String> readCsvRecord() throws IOException {
+        String text = reader.readLine();
+        if (text == null) {
+            return null;
+        }
+        line++;
+        List<String> values = new ArrayList<>();
+        StringBuilder current = new StringBuilder();
+        boolean quoted = false;
+        int i = 0;
+        while (true) {
+            if (i == text.length()) {
+                if (!quoted) {
+                    break;
+                }
+                String continuation = reader.readLine();
+                if (continuation == null) {
+                    break;
+                }
+                line++;
+                current.append('\n');
+                text = continuation;
+                i = 0;
+                continue;
+            }
+            char c = text.charAt(i++);
+            if (quoted) {
+                if (c == '"' && i < text.length() && text.charAt(i) == '"') {
+                    current.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    current.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                values.add(current.toString());
+                current.setLength(0);
+            } else {
+                current.append(c);
+            }
+        }
+        values.add(current.toString());
+        return values;
+    }
+
+    private static String stripBom(String value) {
+        return !value.isEmpty() && value.charAt(0) == BOM ? value.substring(1) : value;
+    }
+
+    private static String normalize(String name) {
+        return name.replaceAll("[\\s_-]", "").toLowerCase();
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+}
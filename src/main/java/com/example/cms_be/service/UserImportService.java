@@ -0,0 +1,299 @@
+package com.example.cms_be.service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.dao.DataAccessException;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.TransactionException;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.example.cms_be.dto.user.UserImportError;
+import com.example.cms_be.dto.user.UserImportResult;
+import com.example.cms_be.model.Role;
+import com.example.cms_be.model.User;
+import com.example.cms_be.repository.RoleRepository;
+import com.example.cms_be.repository.UserRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Bulk account creation from a CSV or NDJSON stream. Rows are read and processed one batch at a
+ * time: uniqueness is pre-checked and roles are resolved with one query each per batch, BCrypt
+ * hashing fans out over a bounded fork-join pool (hashing dominates the cost of an import), and
+ * each batch is written in its own transaction so Hibernate sends it as JDBC batches. If a batch
+ * still fails at the database, its rows are retried one by one to attribute the error.
+ */
+@Service
+@Slf4j
+public class UserImportService {
+
+    private final UserRepository userRepository;
+    private final RoleRepository roleRepository;
+    private final PasswordEncoder passwordEncoder;
+    private final CatalogSearchService catalogSearchService;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectMapper objectMapper;
+    private final ForkJoinPool hashingPool;
+    private final int batchSize;
+    private final int maxReportedErrors;
+
+    public UserImportService(UserRepository userRepository,
+                             RoleRepository roleRepository,
+                             PasswordEncoder passwordEncoder,
+                             CatalogSearchService catalogSearchService,
+                             TransactionTemplate transactionTemplate,
+                             ObjectMapper objectMapper,
+                             @Value("${app.user-import.hash-parallelism:0}") int hashParallelism,
+                             @Value("${app.user-import.batch-size:500}") int batchSize,
+                             @Value("${app.user-import.max-reported-errors:1000}") int maxReportedErrors) {
+        this.userRepository = userRepository;
+        this.roleRepository = roleRepository;
+        this.passwordEncoder = passwordEncoder;
+        this.catalogSearchService = catalogSearchService;
+        this.transactionTemplate = transactionTemplate;
+        this.objectMapper = objectMapper;
+        this.hashingPool = new ForkJoinPool(hashParallelism > 0
+                ? hashParallelism : Runtime.getRuntime().availableProcessors());
+        this.batchSize = batchSize;
+        this.maxReportedErrors = maxReportedErrors;
+    }
+
+    @PreDestroy
+    void shutdown() {
+        hashingPool.shutdown();
+    }
+
+    public UserImportResult importUsers(InputStream input, boolean ndjson, String defaultRoleName) throws IOException {
+        long start = System.currentTimeMillis();
+        ImportReport report = new ImportReport();
+        try (UserImportReader reader = new UserImportReader(input, ndjson, objectMapper)) {
+            List<PendingUser> batch = new ArrayList<>(batchSize);
+            UserImportReader.Record record;
+            while ((record = reader.next()) != null) {
+                report.totalRows++;
+                PendingUser pending = toPendingUser(record, report);
+                if (pending != null) {
+                    batch.add(pending);
+                }
+                if (batch.size() >= batchSize) {
+                    processBatch(batch, defaultRoleName, report);
+                    batch.clear();
+                }
+            }
+            if (!batch.isEmpty()) {
+                processBatch(batch, defaultRoleName, report);
+            }
+        }
+        long durationMs = System.currentTimeMillis() - start;
+        log.info("User import finished: rows={}, created={}, failed={}, took={}ms",
+                report.totalRows, report.created, report.failed, durationMs);
+        return new UserImportResult(report.totalRows, report.created, report.failed,
+                report.errors, report.failed > report.errors.size(), durationMs);
+    }
+
+    private PendingUser toPendingUser(UserImportReader.Record record, ImportReport report) {
+        if (record.parseError() != null) {
+            report.fail(record.line(), null, record.parseError());
+            return null;
+        }
+        Map<String, String> fields = record.fields();
+        String username = fields.get("username");
+        if (username == null) {
+            report.fail(record.line(), null, "Thieu username");
+            return null;
+        }
+        if (fields.get("password") == null) {
+            report.fail(record.line(), username, "Thieu password");
+            return null;
+        }
+
+        PendingUser pending = new PendingUser();
+        pending.line = record.line();
+        pending.username = username;
+        pending.rawPassword = fields.get("password");
+        pending.email = fields.get("email");
+        pending.phoneNumber = fields.getOrDefault("phonenumber", fields.get("phone"));
+        pending.firstName = fields.get("firstname");
+        pending.lastName = fields.get("lastname");
+        pending.roleName = fields.getOrDefault("role", fields.get("rolename"));
+        try {
+            String roleId = fields.get("roleid");
+            pending.roleId = roleId != null ? Integer.valueOf(roleId) : null;
+            pending.isActive = parseBoolean(fields.getOrDefault("isactive", fields.get("active")));
+        } catch (IllegalArgumentException e) {
+            report.fail(record.line(), username, e.getMessage());
+            return null;
+        }
+        return pending;
+    }
+
+    private Boolean parseBoolean(String value) {
+        if (value == null) {
+            return true;
+        }
+        return switch (value.toLowerCase()) {
+            case "true", "1", "yes" -> true;
+            case "false", "0", "no" -> false;
+            default -> throw new IllegalArgumentException("Gia tri isActive khong hop le: " + value);
+        };
+    }
+
+    private void processBatch(List<PendingUser> batch, String defaultRoleName, ImportReport report) {
+        List<PendingUser> accepted = rejectDuplicates(batch, report);
+        if (accepted.isEmpty()) {
+            return;
+        }
+
+        Map<Integer, Role> rolesById = new HashMap<>();
+        Map<String, Role> rolesByName = new HashMap<>();
+        Set<Integer> roleIds = new HashSet<>();
+        Set<String> roleNames = new HashSet<>();
+        roleNames.add(defaultRoleName);
+        for (PendingUser pending : accepted) {
+            if (pending.roleId != null) {
+                roleIds.add(pending.roleId);
+            } else if (pending.roleName != null) {
+                roleNames.add(pending.roleName);
+            }
+        }
+        if (!roleIds.isEmpty()) {
+            roleRepository.findAllById(roleIds).forEach(role -> rolesById.put(role.getId(), role));
+        }
+        roleRepository.findByNameIn(roleNames).forEach(role -> rolesByName.put(role.getName(), role));
+
+        List<PendingUser> resolved = new ArrayList<>(accepted.size());
+        for (PendingUser pending : accepted) {
+            pending.role = pending.roleId != null ? rolesById.get(pending.roleId)
+                    : rolesByName.get(pending.roleName != null ? pending.roleName : defaultRoleName);
+            if (pending.role == null) {
+                report.fail(pending.line, pending.username, "Khong tim thay role: "
+                        + (pending.roleId != null ? pending.roleId : Objects.requireNonNullElse(pending.roleName, defaultRoleName)));
+            } else {
+                resolved.add(pending);
+            }
+        }
+
+        List<ForkJoinTask<String>> hashes = new ArrayList<>(resolved.size());
+        for (PendingUser pending : resolved) {
+            hashes.add(hashingPool.submit(() -> passwordEncoder.encode(pending.rawPassword)));
+        }
+        for (int i = 0; i < resolved.size(); i++) {
+            resolved.get(i).encodedPassword = hashes.get(i).join();
+            resolved.get(i).rawPassword = null;
+        }
+
+        try {
+            transactionTemplate.executeWithoutResult(status -> saveAll(resolved));
+            report.created += resolved.size();
+        } catch (DataAccessException | TransactionException e) {
+            log.warn("User import batch of {} rows failed, retrying row by row: {}",
+                    resolved.size(), NestedExceptionUtils.getMostSpecificCause(e).getMessage());
+            for (PendingUser pending : resolved) {
+                try {
+                    transactionTemplate.executeWithoutResult(status -> saveAll(List.of(pending)));
+                    report.created++;
+                } catch (DataAccessException | TransactionException rowError) {
+                    report.fail(pending.line, pending.username,
+                            NestedExceptionUtils.getMostSpecificCause(rowError).getMessage());
+                }
+            }
+        }
+    }
+
+    // Usernames, emails and phone numbers are unique; conflicts with existing rows and
+    // with earlier rows of the same batch are reported instead of failing the whole batch.
+    private List<PendingUser> rejectDuplicates(List<PendingUser> batch, ImportReport report) {
+        Set<String> usernames = new HashSet<>();
+        Set<String> emails = new HashSet<>();
+        Set<String> phoneNumbers = new HashSet<>();
+        for (PendingUser pending : batch) {
+            usernames.add(pending.username);
+            if (pending.email != null) {
+                emails.add(pending.email);
+            }
+            if (pending.phoneNumber != null) {
+                phoneNumbers.add(pending.phoneNumber);
+            }
+        }
+        Set<String> takenUsernames = new HashSet<>(userRepository.findExistingUsernames(usernames));
+        Set<String> takenEmails = emails.isEmpty() ? new HashSet<>() : new HashSet<>(userRepository.findExistingEmails(emails));
+        Set<String> takenPhoneNumbers = phoneNumbers.isEmpty() ? new HashSet<>()
+                : new HashSet<>(userRepository.findExistingPhoneNumbers(phoneNumbers));
+
+        List<PendingUser> accepted = new ArrayList<>(batch.size());
+        for (PendingUser pending : batch) {
+            if (!takenUsernames.add(pending.username)) {
+                report.fail(pending.line, pending.username, "Username da ton tai");
+            } else if (pending.email != null && !takenEmails.add(pending.email)) {
+                report.fail(pending.line, pending.username, "Email da ton tai: " + pending.email);
+            } else if (pending.phoneNumber != null && !takenPhoneNumbers.add(pending.phoneNumber)) {
+                report.fail(pending.line, pending.username, "So dien thoai da ton tai: " + pending.phoneNumber);
+            } else {
+                accepted.add(pending);
+            }
+        }
+        return accepted;
+    }
+
+    // Entities are rebuilt on every attempt so a failed batch never leaves stale generated ids behind
+    private void saveAll(List<PendingUser> pendingUsers) {
+        List<User> users = pendingUsers.stream()
+                .map(pending -> User.builder()
+                        .username(pending.username)
+                        .password(pending.encodedPassword)
+                        .email(pending.email)
+                        .phoneNumber(pending.phoneNumber)
+                        .firstName(pending.firstName)
+                        .lastName(pending.lastName)
+                        .isActive(pending.isActive)
+                        .role(pending.role)
+                        .build())
+                .toList();
+        userRepository.saveAll(users);
+        users.forEach(catalogSearchService::indexUser);
+    }
+
+    private static final class PendingUser {
+        private long line;
+        private String username;
+        private String rawPassword;
+        private String encodedPassword;
+        private String email;
+        private String phoneNumber;
+        private String firstName;
+        private String lastName;
+        private Boolean isActive;
+        private Integer roleId;
+        private String roleName;
+        private Role role;
+    }
+
+    private final class ImportReport {
+        private long totalRows;
+        private long created;
+        private long failed;
+        private final List<UserImportError> errors = new ArrayList<>();
+
+        void fail(long line, String username, String error) {
+            failed++;
+            if (errors.size() < maxReportedErrors) {
+                errors.add(new UserImportError(line, username, error));
+            }
+        }
+    }
+}
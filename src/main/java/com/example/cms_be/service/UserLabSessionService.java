@@ -2,10 +2,25 @@ package com.example.cms_be.service;
 
 import java.io.IOException;
 import java.nio.file.AccessDeniedException;
+import java.time.Duration;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
+import com.example.cms_be.constant.LabSessionStatus;
+import com.example.cms_be.dto.LabSessionHistoryCursor;
+import com.example.cms_be.dto.LabSessionHistoryPage;
+import com.example.cms_be.dto.LabSessionHistoryProjection;
 import com.example.cms_be.dto.LabSessionHistoryResponse;
+import com.example.cms_be.dto.lab.BulkLabSessionResponse;
+import com.example.cms_be.dto.lab.BulkLabSessionResult;
+import com.example.cms_be.dto.lab.InstanceTypeDTO;
+import com.example.cms_be.dto.lab.LabEnrollmentProjection;
 import com.example.cms_be.dto.lab.LabSessionCleanupRequest;
 import com.example.cms_be.kafka.LabSessionCleanupProducer;
 
@@ -13,12 +28,14 @@ import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.interceptor.TransactionAspectSupport;
 
 import com.example.cms_be.model.CourseLab;
 import com.example.cms_be.model.CourseUser;
 import com.example.cms_be.model.Lab;
 import com.example.cms_be.model.User;
 import com.example.cms_be.model.UserLabSession;
+import com.example.cms_be.model.WarmVm;
 import com.example.cms_be.repository.CourseLabRepository;
 import com.example.cms_be.repository.CourseUserRepository;
 import com.example.cms_be.repository.LabRepository;
@@ -40,14 +57,28 @@ public class UserLabSessionService {
     private final UserLabSessionRepository userLabSessionRepository;
     private final LabOrchestrationService orchestrationService;
     private final CourseLabRepository courseLabRepository;
-    private final String COMPLETED_STATUS = "COMPLETED";
-    private final String RUNNING_STATUS = "RUNNING";
+    private final String COMPLETED_STATUS = LabSessionStatus.COMPLETED.name();
+    private final String RUNNING_STATUS = LabSessionStatus.RUNNING.name();
+    private final String PENDING_STATUS = LabSessionStatus.PENDING.name();
+    private final String QUEUED_STATUS = LabSessionStatus.QUEUED.name();
+    private final String ROLE_STUDENT = "ROLE_STUDENT";
     private final LabSessionCleanupProducer cleanupProducer;
+    private final CourseUserStatsService courseUserStatsService;
+    private final LabCapacityService labCapacityService;
+    private final LabTemplateCache labTemplateCache;
+    private final WarmPoolService warmPoolService;
+    private final LabSessionNotifier labSessionNotifier;
 
     public Page<UserLabSession> getUserLabSessionPagination(Integer userId, String keyword, Pageable pageable) {
         return userLabSessionRepository.findByUserIdAndKeyword(userId, keyword, pageable);
     }
 
+    // The session row and its provisioning request (outbox) commit or roll back together.
+    // Duplicates are prevented by the partial unique index: concurrent starts for the same
+    // user and lab collapse into the one row that wins the insert.
+    // A READY warm VM is claimed first; otherwise the session is provisioned cold, or parked
+    // as QUEUED when the cluster is full and started by the waiting room.
+    @Transactional
     public UserLabSession createAndStartSession(Integer labId, Integer userId) throws IOException {
         try {
             Lab lab = labRepository.findById(labId)
@@ -56,29 +87,52 @@ public class UserLabSessionService {
                 .orElseThrow(() -> new EntityNotFoundException("Khong tim thay User voi ID: " + userId));
             CourseLab courseLab = courseLabRepository.findByLabId(labId)
                 .orElseThrow(() -> new EntityNotFoundException("Khong tim thay CourseLab voi Lab ID: " + labId));
-            boolean isEnrolled = courseUserRepository.existsByUserAndCourseId(user, courseLab.getCourse());
-            if (!isEnrolled) {
-                throw new AccessDeniedException("Nguoi dung chua dang ky khoa hoc nay.");
-            }
+            CourseUser courseUser = courseUserRepository.findByUserAndCourse(user, courseLab.getCourse())
+                .orElseThrow(() -> new AccessDeniedException("Nguoi dung chua dang ky khoa hoc nay."));
 
-            Optional<UserLabSession> existingSession = userLabSessionRepository.findNonCompletedSessionByUserAndLab(userId, labId, COMPLETED_STATUS);
-            if (existingSession.isPresent()) {
-                log.warn("User {} da co session chua hoan thanh cho lab {}. Tu choi tao moi.", userId, labId);
-                throw new IllegalStateException("Ban dang co mot phien lab chua hoan thanh. Vui long hoan thanh hoac huy phien truoc khi tao moi.");
-            }
+            // A warm VM already holds its capacity reservation, which passes to the session
+            Optional<WarmVm> warmVm = warmPoolService.claim(labId);
+            boolean admitted = warmVm.isPresent() || labCapacityService.tryReserve(labTemplateCache.get(labId).instanceType());
 
+            LocalDateTime now = LocalDateTime.now();
             UserLabSession session = new UserLabSession();
             session.setLab(lab);
-            session.setSetupStartedAt(LocalDateTime.now());
-            session.setStatus("PENDING");
-            CourseUser courseUser = courseUserRepository.findByUserAndCourse(user, courseLab.getCourse())
-                .orElseThrow(() -> new EntityNotFoundException("Khong tim thay ban ghi dang ky khoa hoc (CourseUser) tuong ung."));
             session.setCourseUser(courseUser);
-
-            UserLabSession savedSession = userLabSessionRepository.save(session);
+            session.setCreatedAt(now);
+            if (warmVm.isPresent()) {
+                session.setVmName(warmVm.get().getVmName());
+                session.setPodName(warmVm.get().getPodName());
+                session.setSetupStartedAt(now);
+                session.setSetupCompletedAt(now);
+                session.setStatus(RUNNING_STATUS);
+                if (lab.getEstimatedTime() != null && lab.getEstimatedTime() > 0) {
+                    session.setExpiresAt(now.plusMinutes(lab.getEstimatedTime()));
+                }
+            } else if (admitted) {
+                session.setSetupStartedAt(now);
+                session.setStatus(PENDING_STATUS);
+            } else {
+                session.setQueuedAt(now);
+                session.setQueuePriority(LabWaitingRoomService.queuePriorityOf(lab));
+                session.setStatus(QUEUED_STATUS);
+            }
+            Optional<UserLabSession> inserted = userLabSessionRepository.insertIfNoActiveSession(session);
+            if (inserted.isEmpty()) {
+                return existingSessionFor(userId, labId);
+            }
+            UserLabSession savedSession = inserted.get();
             log.info("Created UserLabSession {} for user {}", savedSession.getId(), userId);
-
-            orchestrationService.provisionAndSetupLabWithEagerLoading(savedSession);
+            courseUserStatsService.recordAttempt(courseUser.getId());
+
+            if (warmVm.isPresent()) {
+                courseUserStatsService.recordActivity(courseUser.getId(), savedSession.getSetupCompletedAt());
+                warmPoolService.recordTimeToReady("warm", Duration.ZERO);
+                log.info("Session {} started on warm VM {}", savedSession.getId(), savedSession.getVmName());
+            } else if (admitted) {
+                orchestrationService.provisionAndSetupLabWithEagerLoading(savedSession);
+            } else {
+                log.info("Cluster is at capacity, session {} queued for lab {}", savedSession.getId(), labId);
+            }
 
             return savedSession;
         } catch (IllegalStateException e) {
@@ -88,26 +142,122 @@ public class UserLabSessionService {
         }
     }
 
+    // Lost the insert to an existing session: nothing of this attempt may persist (the warm VM
+    // claim and the capacity reservation are undone by the rollback).
+    private UserLabSession existingSessionFor(Integer userId, Integer labId) {
+        TransactionAspectSupport.currentTransactionStatus().setRollbackOnly();
+        Optional<UserLabSession> existingSession = userLabSessionRepository.findNonCompletedSessionByUserAndLab(userId, labId, COMPLETED_STATUS);
+        if (existingSession.isPresent() && QUEUED_STATUS.equals(existingSession.get().getStatus())) {
+            log.info("User {} is already queued for lab {} with session {}", userId, labId, existingSession.get().getId());
+            return existingSession.get();
+        }
+        log.warn("User {} da co session chua hoan thanh cho lab {}. Tu choi tao moi.", userId, labId);
+        throw new IllegalStateException("Ban dang co mot phien lab chua hoan thanh. Vui long hoan thanh hoac huy phien truoc khi tao moi.");
+    }
+
+    /**
+     * Starts the lab for many users at once: one query checks enrollment and existing
+     * sessions for the whole list, one multi-row INSERT creates the sessions, and the
+     * provisioning requests go to the outbox as a single batch.
+     */
+    @Transactional
+    public BulkLabSessionResponse createSessionsInBulk(Integer labId, List<Integer> userIds) {
+        CourseLab courseLab = courseLabRepository.findByLabId(labId)
+            .orElseThrow(() -> new EntityNotFoundException("Khong tim thay CourseLab voi Lab ID: " + labId));
+        Integer courseId = courseLab.getCourse().getId();
+
+        boolean wholeCourse = userIds == null || userIds.isEmpty();
+        List<LabEnrollmentProjection> enrollments = wholeCourse
+            ? userLabSessionRepository.findLabEnrollmentsByRole(labId, courseId, ROLE_STUDENT, COMPLETED_STATUS)
+            : userLabSessionRepository.findLabEnrollmentsByUserIds(labId, courseId, new LinkedHashSet<>(userIds), COMPLETED_STATUS);
+
+        Map<Integer, LabEnrollmentProjection> enrollmentByUserId = new HashMap<>();
+        enrollments.forEach(enrollment -> enrollmentByUserId.put(enrollment.getUserId(), enrollment));
+        Collection<Integer> requestedUserIds = wholeCourse
+            ? enrollmentByUserId.keySet()
+            : new LinkedHashSet<>(userIds);
+
+        InstanceTypeDTO instanceType = labTemplateCache.get(labId).instanceType();
+        List<Integer> courseUserIdsToCreate = new ArrayList<>();
+        List<Integer> courseUserIdsToQueue = new ArrayList<>();
+        for (LabEnrollmentProjection enrollment : enrollments) {
+            if (Boolean.TRUE.equals(enrollment.getHasActiveSession())) {
+                continue;
+            }
+            if (labCapacityService.tryReserve(instanceType)) {
+                courseUserIdsToCreate.add(enrollment.getCourseUserId());
+            } else {
+                courseUserIdsToQueue.add(enrollment.getCourseUserId());
+            }
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        Map<Integer, Integer> sessionIdByCourseUserId = new HashMap<>();
+        if (!courseUserIdsToCreate.isEmpty()) {
+            userLabSessionRepository.insertSessions(labId, courseUserIdsToCreate, PENDING_STATUS, now, now, null, 0)
+                .forEach(created -> sessionIdByCourseUserId.put(created.getCourseUserId(), created.getId()));
+            orchestrationService.provisionSessions(labId, List.copyOf(sessionIdByCourseUserId.values()));
+            // Rows skipped by ON CONFLICT got a session from a concurrent start; hand their reservation back
+            courseUserIdsToCreate.stream()
+                .filter(courseUserId -> !sessionIdByCourseUserId.containsKey(courseUserId))
+                .forEach(courseUserId -> labCapacityService.releaseAfterCommit(instanceType));
+        }
+        Map<Integer, Integer> queuedIdByCourseUserId = new HashMap<>();
+        if (!courseUserIdsToQueue.isEmpty()) {
+            userLabSessionRepository.insertSessions(labId, courseUserIdsToQueue, QUEUED_STATUS, now, null, now,
+                    LabWaitingRoomService.queuePriorityOf(courseLab.getLab()))
+                .forEach(created -> queuedIdByCourseUserId.put(created.getCourseUserId(), created.getId()));
+        }
+        List<Integer> touchedCourseUserIds = new ArrayList<>(courseUserIdsToCreate);
+        touchedCourseUserIds.addAll(courseUserIdsToQueue);
+        courseUserStatsService.refreshEnrollments(touchedCourseUserIds);
+
+        List<BulkLabSessionResult> results = new ArrayList<>(requestedUserIds.size());
+        for (Integer userId : requestedUserIds) {
+            LabEnrollmentProjection enrollment = enrollmentByUserId.get(userId);
+            if (enrollment == null) {
+                results.add(new BulkLabSessionResult(userId, BulkLabSessionResult.NOT_ENROLLED, null, null));
+            } else if (Boolean.TRUE.equals(enrollment.getHasActiveSession())
+                    || (!queuedIdByCourseUserId.containsKey(enrollment.getCourseUserId())
+                        && !sessionIdByCourseUserId.containsKey(enrollment.getCourseUserId()))) {
+                results.add(new BulkLabSessionResult(userId, BulkLabSessionResult.SKIPPED_ACTIVE_SESSION, null, null));
+            } else if (queuedIdByCourseUserId.containsKey(enrollment.getCourseUserId())) {
+                results.add(new BulkLabSessionResult(userId, BulkLabSessionResult.QUEUED,
+                    queuedIdByCourseUserId.get(enrollment.getCourseUserId()), null));
+            } else {
+                Integer sessionId = sessionIdByCourseUserId.get(enrollment.getCourseUserId());
+                results.add(new BulkLabSessionResult(userId, BulkLabSessionResult.CREATED, sessionId,
+                    orchestrationService.buildSocketUrl("vm-" + sessionId)));
+            }
+        }
+
+        int created = sessionIdByCourseUserId.size();
+        log.info("Bulk start for lab {}: {} requested, {} sessions created, {} queued",
+            labId, requestedUserIds.size(), created, queuedIdByCourseUserId.size());
+        return new BulkLabSessionResponse(labId, requestedUserIds.size(), created, queuedIdByCourseUserId.size(),
+            results.size() - created - queuedIdByCourseUserId.size(), results);
+    }
+
+    // Idempotent: a duplicate ready event, or one for a session that was already submitted or
+    // expired, does not match the PENDING condition and is ignored.
     @Transactional
     public void activateSession(Integer labSessionId, String podName) {
         try {
             log.info("Activating session {} with podName {}", labSessionId, podName);
 
-            UserLabSession session = userLabSessionRepository.findById(labSessionId)
-                .orElseThrow(() -> new EntityNotFoundException("Khong tim thay UserLabSession voi ID: " + labSessionId));
-
-            session.setStatus(RUNNING_STATUS);
-            session.setPodName(podName);
-            session.setSetupCompletedAt(LocalDateTime.now());
-
-            Integer estimatedTimeMinutes = session.getLab().getEstimatedTime();
-            if (estimatedTimeMinutes != null && estimatedTimeMinutes > 0) {
-                LocalDateTime expiresAt = LocalDateTime.now().plusMinutes(estimatedTimeMinutes);
-                session.setExpiresAt(expiresAt);
-                log.info("Session {} expires at: {}", labSessionId, expiresAt);
+            Optional<UserLabSession> activated = userLabSessionRepository.transitionToRunning(labSessionId,
+                LabSessionStatus.sourcesOf(LabSessionStatus.RUNNING), RUNNING_STATUS, podName, LocalDateTime.now());
+            if (activated.isEmpty()) {
+                log.warn("Session {} is not PENDING (missing, already running or completed), ready event ignored", labSessionId);
+                return;
             }
 
-            userLabSessionRepository.save(session);
+            UserLabSession session = activated.get();
+            labSessionNotifier.sessionStatusChanged(session);
+            if (session.getSetupStartedAt() != null) {
+                warmPoolService.recordTimeToReady("cold", Duration.between(session.getSetupStartedAt(), session.getSetupCompletedAt()));
+            }
+            courseUserStatsService.recordActivity(session.getCourseUser().getId(), session.getSetupCompletedAt());
             log.info("Session {} activated successfully. Status: {}, PodName: {}, ExpiresAt: {}", 
                 labSessionId, session.getStatus(), session.getPodName(), session.getExpiresAt());
 
@@ -117,24 +267,44 @@ public class UserLabSessionService {
         }
     }
 
+    // Only the caller whose conditional update wins releases capacity and queues the cleanup,
+    // so a submit racing expiry (or a double submit) cannot send a second cleanup request.
+    @Transactional
     public void submitSession(Integer labSessionId) {
         try {
             log.info("Submitting session {}...", labSessionId);
 
-            UserLabSession session = userLabSessionRepository.findById(labSessionId)
-                    .orElseThrow(() -> new EntityNotFoundException("Khong tim thay UserLabSession voi ID: " + labSessionId));
-            String vmName = "vm-" + session.getId();
-            String namespace = session.getLab().getNamespace();
+            LocalDateTime now = LocalDateTime.now();
+            Optional<UserLabSession> completed = userLabSessionRepository.transitionToCompleted(labSessionId,
+                    LabSessionStatus.sourcesOf(LabSessionStatus.COMPLETED, LabSessionStatus.PENDING, LabSessionStatus.RUNNING),
+                    COMPLETED_STATUS, now);
+            boolean holdsCapacity = completed.isPresent();
+            if (completed.isEmpty()) {
+                completed = userLabSessionRepository.transitionToCompleted(labSessionId,
+                        LabSessionStatus.sourcesOf(LabSessionStatus.COMPLETED, LabSessionStatus.QUEUED),
+                        COMPLETED_STATUS, now);
+            }
+            if (completed.isEmpty()) {
+                if (!userLabSessionRepository.existsById(labSessionId)) {
+                    throw new EntityNotFoundException("Khong tim thay UserLabSession voi ID: " + labSessionId);
+                }
+                log.info("Session {} was already completed, nothing to do.", labSessionId);
+                return;
+            }
 
-            session.setStatus(COMPLETED_STATUS);
-            session.setExpiresAt(LocalDateTime.now());
-            userLabSessionRepository.save(session);
+            UserLabSession session = completed.get();
+            labSessionNotifier.sessionStatusChanged(session);
+            courseUserStatsService.recordCompletion(session);
             log.info("Session {} status updated to COMPLETED.", labSessionId);
+            if (!holdsCapacity) {
+                return;
+            }
+            labCapacityService.releaseAfterCommit(labTemplateCache.get(session.getLab().getId()).instanceType());
 
             LabSessionCleanupRequest cleanupRequest = LabSessionCleanupRequest.builder()
                     .labSessionId(labSessionId)
-                    .vmName(vmName)
-                    .namespace(namespace)
+                    .vmName(session.resolveVmName())
+                    .namespace(session.getLab().getNamespace())
                     .build();
 
             cleanupProducer.sendCleanupRequest(cleanupRequest);
@@ -163,6 +333,9 @@ public class UserLabSessionService {
         }
     }
 
+    // The delete carries the @Version check, so it fails instead of removing a session that
+    // changed state (e.g. was activated) after it was read.
+    @Transactional
     public void deleteSession(Integer labSessionId) {
         try {
             log.info("Deleting session {}...", labSessionId);
@@ -171,11 +344,26 @@ public class UserLabSessionService {
                 .orElseThrow(() -> new EntityNotFoundException(
                     "Khong tim thay UserLabSession voi ID: " + labSessionId));
 
-            if (COMPLETED_STATUS.equals(session.getStatus())) {
+            LabSessionStatus status = LabSessionStatus.of(session.getStatus());
+            if (status == LabSessionStatus.COMPLETED) {
                 throw new IllegalStateException("Khong the xoa phien lab da hoan thanh.");
             }
 
+            Integer courseUserId = session.getCourseUser().getId();
+            Integer labId = session.getLab().getId();
+            LabSessionCleanupRequest cleanupRequest = LabSessionCleanupRequest.builder()
+                    .labSessionId(labSessionId)
+                    .vmName(session.resolveVmName())
+                    .namespace(session.getLab().getNamespace())
+                    .build();
             userLabSessionRepository.delete(session);
+            userLabSessionRepository.flush();
+            courseUserStatsService.recordAttemptRemoved(courseUserId);
+            if (status.holdsCapacity()) {
+                labCapacityService.releaseAfterCommit(labTemplateCache.get(labId).instanceType());
+                // A VM was requested for this session; without this it keeps running with no row
+                cleanupProducer.sendCleanupRequest(cleanupRequest);
+            }
             log.info("Session {} deleted successfully.", labSessionId);
 
         } catch (Exception e) {
@@ -184,14 +372,27 @@ public class UserLabSessionService {
         }
     }
 
-    public Page<LabSessionHistoryResponse> getListLabHistory(String keyword, Integer userId, Pageable pageable) {
-        return userLabSessionRepository.findHistoryByUserId(keyword, userId, pageable)
-                .map(session -> new LabSessionHistoryResponse(
-                        session.getId(),
-                        session.getLab().getTitle(),
-                        session.getStatus(),
-                        session.getSetupStartedAt(),
-                        session.getSetupCompletedAt()
-                ));
+    public LabSessionHistoryPage getListLabHistory(Integer userId, String keyword, LocalDateTime from, LocalDateTime to,
+                                                   String cursor, int pageSize, boolean includeTotal) {
+        String normalizedKeyword = keyword == null || keyword.isBlank() ? null : keyword.trim();
+        LabSessionHistoryCursor after = cursor == null || cursor.isBlank() ? null : LabSessionHistoryCursor.decode(cursor);
+
+        // One extra row tells whether another page exists without counting
+        List<LabSessionHistoryProjection> rows = userLabSessionRepository.findHistoryPage(userId, normalizedKeyword, from, to,
+                after != null ? after.createdAt() : null, after != null ? after.id() : null, pageSize + 1);
+        boolean hasMore = rows.size() > pageSize;
+        List<LabSessionHistoryResponse> data = rows.stream()
+                .limit(pageSize)
+                .map(row -> new LabSessionHistoryResponse(row.getSessionId(), row.getLabTitle(), row.getStatus(),
+                        row.getStartAt(), row.getCompletedAt(), row.getCreatedAt()))
+                .toList();
+
+        String nextCursor = null;
+        if (hasMore) {
+            LabSessionHistoryResponse last = data.get(data.size() - 1);
+            nextCursor = new LabSessionHistoryCursor(last.createdAt(), last.sessionId()).encode();
+        }
+        Long totalItems = includeTotal ? userLabSessionRepository.countHistory(userId, normalizedKeyword, from, to) : null;
+        return new LabSessionHistoryPage(data, nextCursor, hasMore, totalItems);
     }
 }
\ No newline at end of file
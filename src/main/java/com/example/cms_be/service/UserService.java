@@ -4,6 +4,7 @@ import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
+import org.springframework.util.StringUtils;
 
 import com.example.cms_be.dto.user.CreateUserRequest;
 import com.example.cms_be.dto.user.UserDTO;
@@ -11,6 +12,7 @@ import com.example.cms_be.model.Role;
 import com.example.cms_be.model.User;
 import com.example.cms_be.repository.RoleRepository;
 import com.example.cms_be.repository.UserRepository;
+import com.example.cms_be.security.jwt.VerifiedTokenCache;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -23,10 +25,14 @@ public class UserService {
     private final UserRepository userRepository;
     private final RoleRepository roleRepository;
     private final PasswordEncoder passwordEncoder;
+    private final CatalogSearchService catalogSearchService;
+    private final VerifiedTokenCache verifiedTokenCache;
 
     public Page<UserDTO> getAllUsersWithPagination(Pageable pageable, Boolean isActive, String search) {
         try {
-            Page<User> userPage = userRepository.findWithFilters(search, isActive, pageable);
+            Page<User> userPage = !StringUtils.hasText(search)
+                    ? userRepository.findWithFilters(search, isActive, pageable)
+                    : userRepository.searchWithFilters(search.trim(), isActive, pageable);
             return userPage.map(this::convertToDTO);
         } catch (Exception e) {
             log.error("Error fetching users with pagination: {}", e.getMessage());
@@ -36,7 +42,9 @@ public class UserService {
 
     public Page<UserDTO> getUsersByCourseId(Integer courseId, String search, Boolean isActive, Pageable pageable) {
         try {
-            Page<User> usersInCourse = userRepository.findUsersByCourseId(courseId, search, isActive, pageable);
+            Page<User> usersInCourse = !StringUtils.hasText(search)
+                    ? userRepository.findUsersByCourseId(courseId, search, isActive, pageable)
+                    : userRepository.searchUsersByCourseId(courseId, search.trim(), isActive, pageable);
             return usersInCourse.map(this::convertToDTO);
         } catch (Exception e) {
             log.error("Error fetching users by course ID {}: {}", courseId, e.getMessage());
@@ -46,7 +54,9 @@ public class UserService {
 
     public Page<UserDTO> getUsersNotInCourse(Integer courseId, String roleName, String search, Boolean isActive, Pageable pageable) {
         try {
-            Page<User> usersInCourse = userRepository.findUsersNotInCourseId(courseId, roleName, search, isActive, pageable);
+            Page<User> usersInCourse = !StringUtils.hasText(search)
+                    ? userRepository.findUsersNotInCourseId(courseId, roleName, search, isActive, pageable)
+                    : userRepository.searchUsersNotInCourseId(courseId, roleName, search.trim(), isActive, pageable);
             return usersInCourse.map(this::convertToDTO);
         } catch (Exception e) {
             log.error("Error fetching users by course ID {}: {}", courseId, e.getMessage());
@@ -72,7 +82,9 @@ public class UserService {
                 user.setRole(role);
             }
 
-            return userRepository.save(user);
+            User savedUser = userRepository.save(user);
+            catalogSearchService.indexUser(savedUser);
+            return savedUser;
         } catch (Exception e) {
             log.error("Error creating user: {}", e.getMessage());
             throw new RuntimeException("Failed to create user", e);
@@ -112,7 +124,10 @@ public class UserService {
                 existingUser.setPhoneNumber(userUpdate.getPhoneNumber());
             }
 
-            return userRepository.save(existingUser);
+            User savedUser = userRepository.save(existingUser);
+            catalogSearchService.indexUser(savedUser);
+            verifiedTokenCache.invalidateUser(id);
+            return savedUser;
         } catch (Exception e) {
             log.error("Error updating user with ID {}: {}", id, e.getMessage());
             throw new RuntimeException("Failed to update user", e);
@@ -122,6 +137,8 @@ public class UserService {
     public Boolean deleteUser(Integer id) {
         try {
             userRepository.deleteById(id);
+            catalogSearchService.removeUser(id);
+            verifiedTokenCache.invalidateUser(id);
             return true;
         } catch (Exception e) {
             log.error("Error deleting user with ID {}: {}", id, e.getMessage());
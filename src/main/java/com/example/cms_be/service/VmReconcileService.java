@@ -0,0 +1,359 @@
+package com.example.cms_be.service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.example.cms_be.constant.LabSessionStatus;
+import com.example.cms_be.dto.lab.InstanceTypeDTO;
+import com.example.cms_be.dto.lab.LabSessionCleanupRequest;
+import com.example.cms_be.dto.lab.SessionVmProjection;
+import com.example.cms_be.kafka.LabSessionCleanupProducer;
+import com.example.cms_be.model.UserLabSession;
+import com.example.cms_be.repository.LabRepository;
+import com.example.cms_be.repository.UserLabSessionRepository;
+
+import io.kubernetes.client.openapi.ApiClient;
+import io.kubernetes.client.openapi.ApiException;
+import io.kubernetes.client.openapi.models.V1ObjectMeta;
+import io.kubernetes.client.util.generic.dynamic.DynamicKubernetesApi;
+import io.kubernetes.client.util.generic.dynamic.DynamicKubernetesListObject;
+import io.kubernetes.client.util.generic.dynamic.DynamicKubernetesObject;
+import io.kubernetes.client.util.generic.options.ListOptions;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Brings lab VMs in the cluster and PENDING/RUNNING sessions back in line. For every lab
+ * namespace the VM objects are listed page by page (metadata only) and matched by name against
+ * the sessions ("vm-{id}" or a claimed warm VM) and the warm pool: VMs nobody owns get a batched
+ * cleanup request, and RUNNING sessions whose VM is no longer in the cluster are completed.
+ * Anything younger than the grace period is left alone so in-flight provisioning is not touched.
+ */
+@Service
+@Slf4j
+public class VmReconcileService {
+
+    private static final String LEASE_NAME = "vm-reconciler";
+    private static final String SESSION_VM_PREFIX = "vm-";
+    private static final String RUNNING_STATUS = LabSessionStatus.RUNNING.name();
+    private static final String COMPLETED_STATUS = LabSessionStatus.COMPLETED.name();
+    private static final List<String> ACTIVE_STATUSES = List.of(LabSessionStatus.PENDING.name(), RUNNING_STATUS);
+    private static final String REASON_ORPHAN = "orphan-vm";
+    private static final String REASON_MISSING = "missing-vm";
+
+    private final DynamicKubernetesApi vmApi;
+    private final SchedulerLeaseService schedulerLeaseService;
+    private final TransactionTemplate transactionTemplate;
+    private final LabRepository labRepository;
+    private final UserLabSessionRepository userLabSessionRepository;
+    private final LabSessionCleanupProducer cleanupProducer;
+    private final LabCapacityService labCapacityService;
+    private final LabTemplateCache labTemplateCache;
+    private final LabSessionNotifier labSessionNotifier;
+    private final CourseUserStatsService courseUserStatsService;
+    private final MeterRegistry meterRegistry;
+    private final int pageSize;
+    private final long graceMinutes;
+    private final String labelSelector;
+    private final Duration leaseDuration;
+
+    public VmReconcileService(ApiClient apiClient,
+                              SchedulerLeaseService schedulerLeaseService,
+                              TransactionTemplate transactionTemplate,
+                              LabRepository labRepository,
+                              UserLabSessionRepository userLabSessionRepository,
+                              LabSessionCleanupProducer cleanupProducer,
+                              LabCapacityService labCapacityService,
+                              LabTemplateCache labTemplateCache,
+                              LabSessionNotifier labSessionNotifier,
+                              CourseUserStatsService courseUserStatsService,
+                              MeterRegistry meterRegistry,
+                              @Value("${lab.vm-reconciler.group:kubevirt.io}") String group,
+                              @Value("${lab.vm-reconciler.version:v1}") String version,
+                              @Value("${lab.vm-reconciler.plural:virtualmachines}") String plural,
+                              @Value("${lab.vm-reconciler.page-size:500}") int pageSize,
+                              @Value("${lab.vm-reconciler.grace-minutes:10}") long graceMinutes,
+                              @Value("${lab.vm-reconciler.label-selector:}") String labelSelector,
+                              @Value("${lab.vm-reconciler.lease-ms:600000}") long leaseMs) {
+        // DynamicKubernetesApi registers the Gson adapters that fill DynamicKubernetesObject#getRaw
+        this.vmApi = new DynamicKubernetesApi(group, version, plural, apiClient);
+        this.schedulerLeaseService = schedulerLeaseService;
+        this.transactionTemplate = transactionTemplate;
+        this.labRepository = labRepository;
+        this.userLabSessionRepository = userLabSessionRepository;
+        this.cleanupProducer = cleanupProducer;
+        this.labCapacityService = labCapacityService;
+        this.labTemplateCache = labTemplateCache;
+        this.labSessionNotifier = labSessionNotifier;
+        this.courseUserStatsService = courseUserStatsService;
+        this.meterRegistry = meterRegistry;
+        this.pageSize = pageSize;
+        this.graceMinutes = graceMinutes;
+        this.labelSelector = labelSelector;
+        this.leaseDuration = Duration.ofMillis(leaseMs);
+    }
+
+    /**
+     * One pass over all lab namespaces. A {@link SchedulerLeaseService} lease keeps it to one
+     * node at a time without holding a connection: it is renewed before every namespace and the
+     * pass stops if it was lost. Returns the number of VMs and sessions acted on, or -1 when
+     * another node is already reconciling.
+     */
+    public int reconcile() {
+        if (!schedulerLeaseService.tryAcquire(LEASE_NAME, leaseDuration)) {
+            return -1;
+        }
+        try {
+            return reconcileAllNamespaces();
+        } finally {
+            schedulerLeaseService.release(LEASE_NAME);
+        }
+    }
+
+    private int reconcileAllNamespaces() {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        int acted = 0;
+        for (String namespace : labRepository.findDistinctNamespaces()) {
+            if (namespace == null || namespace.isBlank()) {
+                continue;
+            }
+            if (!schedulerLeaseService.tryAcquire(LEASE_NAME, leaseDuration)) {
+                log.warn("VM reconciliation lease lost before namespace {}, stopping this pass", namespace);
+                break;
+            }
+            try {
+                acted += reconcileNamespace(namespace);
+            } catch (ApiException e) {
+                // Without a complete listing no session may be completed for this namespace
+                log.warn("Skipping VM reconciliation of namespace {}: Kubernetes API returned {} {}",
+                        namespace, e.getCode(), e.getResponseBody());
+            } catch (Exception e) {
+                log.error("VM reconciliation of namespace {} failed: {}", namespace, e.getMessage(), e);
+            }
+        }
+        sample.stop(Timer.builder("lab.vm-reconciler.run")
+                .description("Duration of one VM reconciliation pass over all lab namespaces")
+                .register(meterRegistry));
+        return acted;
+    }
+
+    private int reconcileNamespace(String namespace) throws ApiException {
+        LocalDateTime listStartedAt = LocalDateTime.now();
+        OffsetDateTime orphanCutoff = OffsetDateTime.now().minusMinutes(graceMinutes);
+        boolean selective = !labelSelector.isBlank();
+        Set<String> vmNames = new HashSet<>();
+        int orphans = 0;
+        String continueToken = null;
+        do {
+            DynamicKubernetesListObject page = listVmPage(namespace, labelSelector, continueToken);
+            List<String> candidates = new ArrayList<>();
+            for (DynamicKubernetesObject vm : page.getItems()) {
+                V1ObjectMeta metadata = vm.getMetadata();
+                if (metadata == null || metadata.getName() == null) {
+                    continue;
+                }
+                if (!selective) {
+                    vmNames.add(metadata.getName());
+                }
+                if (metadata.getDeletionTimestamp() == null
+                        && metadata.getCreationTimestamp() != null
+                        && metadata.getCreationTimestamp().isBefore(orphanCutoff)
+                        && isManagedVmName(metadata.getName())) {
+                    candidates.add(metadata.getName());
+                }
+            }
+            orphans += cleanupOrphans(namespace, candidates);
+            continueToken = continueOf(page);
+        } while (continueToken != null);
+
+        // The selector only narrows which VMs may be deleted. A session's VM that lacks the
+        // selected labels still exists, so the missing-VM check needs the unfiltered listing.
+        if (selective) {
+            do {
+                DynamicKubernetesListObject page = listVmPage(namespace, "", continueToken);
+                for (DynamicKubernetesObject vm : page.getItems()) {
+                    if (vm.getMetadata() != null && vm.getMetadata().getName() != null) {
+                        vmNames.add(vm.getMetadata().getName());
+                    }
+                }
+                continueToken = continueOf(page);
+            } while (continueToken != null);
+        }
+
+        int completed = completeSessionsWithoutVm(namespace, vmNames, listStartedAt.minusMinutes(graceMinutes));
+        if (orphans > 0 || completed > 0) {
+            log.info("VM reconciliation of namespace {}: vms={}, orphanCleanups={}, sessionsCompleted={}",
+                    namespace, vmNames.size(), orphans, completed);
+        }
+        return orphans + completed;
+    }
+
+    // Metadata-only page of VMs; a blank selector lists all of them
+    private DynamicKubernetesListObject listVmPage(String namespace, String selector, String continueToken) throws ApiException {
+        ListOptions options = new ListOptions();
+        options.setLimit(pageSize);
+        options.setContinue(continueToken);
+        options.setPartialObjectMetadataListRequest(true);
+        if (!selector.isBlank()) {
+            options.setLabelSelector(selector);
+        }
+        return vmApi.list(namespace, options).throwsApiException().getObject();
+    }
+
+    private String continueOf(DynamicKubernetesListObject page) {
+        String continueToken = page.getMetadata() != null ? page.getMetadata().getContinue() : null;
+        return continueToken != null && !continueToken.isEmpty() ? continueToken : null;
+    }
+
+    private int cleanupOrphans(String namespace, List<String> candidates) {
+        if (candidates.isEmpty()) {
+            return 0;
+        }
+        List<Integer> sessionIds = new ArrayList<>();
+        for (String vmName : candidates) {
+            Integer sessionId = sessionIdOf(vmName);
+            if (sessionId != null) {
+                sessionIds.add(sessionId);
+            }
+        }
+        // IN () is not valid SQL; no session has id 0
+        List<Integer> idParam = sessionIds.isEmpty() ? List.of(0) : sessionIds;
+        Set<String> owned = new HashSet<>(userLabSessionRepository.findOwnedVmNames(idParam, candidates, ACTIVE_STATUSES));
+
+        List<String> orphans = candidates.stream().filter(vmName -> !owned.contains(vmName)).toList();
+        if (orphans.isEmpty()) {
+            return 0;
+        }
+
+        Map<Integer, Integer> labIdBySession = new HashMap<>();
+        if (!sessionIds.isEmpty()) {
+            userLabSessionRepository.findSessionVms(sessionIds)
+                    .forEach(session -> labIdBySession.put(session.getId(), session.getLabId()));
+        }
+        List<LabSessionCleanupRequest> requests = orphans.stream()
+                .map(vmName -> LabSessionCleanupRequest.builder()
+                        .labSessionId(sessionIdOf(vmName))
+                        .vmName(vmName)
+                        .namespace(namespace)
+                        .build())
+                .toList();
+        transactionTemplate.executeWithoutResult(status -> cleanupProducer.sendCleanupRequests(requests));
+
+        for (String vmName : orphans) {
+            Integer sessionId = sessionIdOf(vmName);
+            recordReclaimed(REASON_ORPHAN, sessionId != null ? labIdBySession.get(sessionId) : warmVmLabIdOf(vmName));
+        }
+        meterRegistry.counter("lab.vm-reconciler.orphans").increment(orphans.size());
+        log.warn("Queued cleanup of {} orphan VMs in namespace {}: {}", orphans.size(), namespace, orphans);
+        return orphans.size();
+    }
+
+    private int completeSessionsWithoutVm(String namespace, Set<String> vmNames, LocalDateTime runningSince) {
+        int completed = 0;
+        int afterId = 0;
+        List<SessionVmProjection> page;
+        do {
+            page = userLabSessionRepository.findSessionVmsInNamespace(namespace, RUNNING_STATUS, runningSince, afterId, pageSize);
+            List<Integer> missing = page.stream()
+                    .filter(session -> !vmNames.contains(session.getVmName() != null
+                            ? session.getVmName() : SESSION_VM_PREFIX + session.getId()))
+                    .map(SessionVmProjection::getId)
+                    .toList();
+            if (!missing.isEmpty()) {
+                List<Integer> labIds = transactionTemplate.execute(status -> completeMissing(missing));
+                if (labIds != null) {
+                    labIds.forEach(labId -> recordReclaimed(REASON_MISSING, labId));
+                    completed += labIds.size();
+                }
+            }
+            if (!page.isEmpty()) {
+                afterId = page.get(page.size() - 1).getId();
+            }
+        } while (page.size() == pageSize);
+        return completed;
+    }
+
+    // Same conditional transition as a submit, so a session that finished meanwhile is skipped
+    private List<Integer> completeMissing(List<Integer> sessionIds) {
+        LocalDateTime now = LocalDateTime.now();
+        List<Integer> labIds = new ArrayList<>();
+        for (Integer sessionId : sessionIds) {
+            userLabSessionRepository.transitionToCompleted(sessionId, List.of(RUNNING_STATUS), COMPLETED_STATUS, now)
+                    .ifPresent(session -> {
+                        completeWithoutVm(session);
+                        labIds.add(session.getLab().getId());
+                    });
+        }
+        meterRegistry.counter("lab.vm-reconciler.missing-vms").increment(labIds.size());
+        return labIds;
+    }
+
+    private void completeWithoutVm(UserLabSession session) {
+        labCapacityService.releaseAfterCommit(labTemplateCache.get(session.getLab().getId()).instanceType());
+        courseUserStatsService.recordCompletion(session);
+        labSessionNotifier.sessionStatusChanged(session);
+        log.warn("Session {} completed: its VM {} no longer exists", session.getId(), session.resolveVmName());
+    }
+
+    private void recordReclaimed(String reason, Integer labId) {
+        if (labId == null) {
+            return;
+        }
+        try {
+            InstanceTypeDTO instanceType = labTemplateCache.get(labId).instanceType();
+            incrementReclaimed(reason, "cpu", instanceType.getCpuCores());
+            incrementReclaimed(reason, "memory", instanceType.getMemoryGb());
+            incrementReclaimed(reason, "storage", instanceType.getStorageGb());
+        } catch (Exception e) {
+            log.debug("Cannot resolve instance type of lab {} for reclaimed capacity: {}", labId, e.getMessage());
+        }
+    }
+
+    private void incrementReclaimed(String reason, String resource, Integer amount) {
+        if (amount != null && amount > 0) {
+            meterRegistry.counter("lab.vm-reconciler.reclaimed", "resource", resource, "reason", reason).increment(amount);
+        }
+    }
+
+    // Only VMs this backend names are touched: "vm-{sessionId}" and warm pool VMs
+    private boolean isManagedVmName(String vmName) {
+        return sessionIdOf(vmName) != null || vmName.startsWith(WarmPoolService.WARM_VM_PREFIX);
+    }
+
+    private Integer sessionIdOf(String vmName) {
+        if (!vmName.startsWith(SESSION_VM_PREFIX)) {
+            return null;
+        }
+        try {
+            return Integer.valueOf(vmName.substring(SESSION_VM_PREFIX.length()));
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    // Warm VMs are named "warm-{labId}-{suffix}"
+    private Integer warmVmLabIdOf(String vmName) {
+        if (!vmName.startsWith(WarmPoolService.WARM_VM_PREFIX)) {
+            return null;
+        }
+        String rest = vmName.substring(WarmPoolService.WARM_VM_PREFIX.length());
+        int dash = rest.indexOf('-');
+        try {
+            return Integer.valueOf(dash > 0 ? rest.substring(0, dash) : rest);
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,226 @@
+package com.example.cms_be.service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.example.cms_be.dto.lab.LabProvisioningTemplate;
+import com.example.cms_be.dto.lab.LabSessionCleanupRequest;
+import com.example.cms_be.dto.lab.WarmPoolScheduleRequest;
+import com.example.cms_be.dto.lab.WarmPoolTargetProjection;
+import com.example.cms_be.kafka.LabSessionCleanupProducer;
+import com.example.cms_be.model.Lab;
+import com.example.cms_be.model.LabWarmPoolSchedule;
+import com.example.cms_be.model.WarmVm;
+import com.example.cms_be.repository.LabRepository;
+import com.example.cms_be.repository.LabWarmPoolScheduleRepository;
+import com.example.cms_be.repository.WarmVmRepository;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.persistence.EntityNotFoundException;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Pool of lab VMs provisioned ahead of demand. A session start claims a READY VM in one
+ * statement and is RUNNING immediately; the refill cycle keeps each lab at its target size
+ * (lab.warm_pool_size, raised by scheduled windows such as a class starting at 9:00).
+ * Warm VMs hold cluster capacity from the moment they are requested, and a claimed VM hands
+ * its reservation over to the session.
+ */
+@Service
+@Slf4j
+@RequiredArgsConstructor
+public class WarmPoolService {
+
+    public static final String WARM_VM_PREFIX = "warm-";
+    private static final String PROVISIONING_STATUS = "PROVISIONING";
+    private static final String READY_STATUS = "READY";
+    private static final long REFILL_LOCK_KEY = 0x5741524d504f4f4cL;
+
+    private final WarmVmRepository warmVmRepository;
+    private final LabWarmPoolScheduleRepository scheduleRepository;
+    private final LabRepository labRepository;
+    private final LabTemplateCache labTemplateCache;
+    private final LabCapacityService labCapacityService;
+    private final LabOrchestrationService orchestrationService;
+    private final LabSessionCleanupProducer cleanupProducer;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${lab.warm-pool.max-provision-per-cycle:20}")
+    private int maxProvisionPerCycle;
+
+    @Value("${lab.warm-pool.schedule-lead-minutes:10}")
+    private long scheduleLeadMinutes;
+
+    @Value("${lab.warm-pool.provision-timeout-minutes:15}")
+    private long provisionTimeoutMinutes;
+
+    // Must run inside the caller's transaction: the claimed row is gone only if the session commits
+    @Transactional(propagation = Propagation.MANDATORY)
+    public Optional<WarmVm> claim(Integer labId) {
+        Optional<WarmVm> claimed = warmVmRepository.claimReady(labId);
+        meterRegistry.counter("lab.warm-pool.claims", "result", claimed.isPresent() ? "hit" : "miss").increment();
+        claimed.ifPresent(vm -> log.info("Claimed warm VM {} for lab {}", vm.getVmName(), labId));
+        return claimed;
+    }
+
+    public void recordTimeToReady(String source, Duration duration) {
+        Timer.builder("lab.session.time-to-ready")
+                .description("Time from session start until the lab VM is usable")
+                .tag("source", source)
+                .register(meterRegistry)
+                .record(duration);
+    }
+
+    @Transactional
+    public void markReady(String vmName, String podName) {
+        Optional<WarmVm> warmVm = warmVmRepository.findByVmName(vmName);
+        if (warmVm.isEmpty()) {
+            log.warn("Ready event for unknown warm VM {}, it was probably trimmed or timed out", vmName);
+            return;
+        }
+        WarmVm vm = warmVm.get();
+        if (!PROVISIONING_STATUS.equals(vm.getStatus())) {
+            return;
+        }
+        vm.setStatus(READY_STATUS);
+        vm.setPodName(podName);
+        vm.setReadyAt(LocalDateTime.now());
+        Timer.builder("lab.warm-pool.provision")
+                .description("Time for a warm VM to become READY")
+                .register(meterRegistry)
+                .record(Duration.between(vm.getCreatedAt(), vm.getReadyAt()));
+        log.info("Warm VM {} for lab {} is ready", vmName, vm.getLab().getId());
+    }
+
+    /**
+     * One refill cycle across all labs. Guarded by an advisory lock so only one node runs it;
+     * returns the number of VMs requested, or -1 when another node holds the lock.
+     */
+    @Transactional
+    public int refill() {
+        if (!warmVmRepository.tryAcquireRefillLock(REFILL_LOCK_KEY)) {
+            return -1;
+        }
+        LocalDateTime now = LocalDateTime.now();
+        expireStuckVms(now);
+
+        int budget = maxProvisionPerCycle;
+        List<WarmPoolTargetProjection> targets = warmVmRepository.findPoolTargets(now, now.plusMinutes(scheduleLeadMinutes));
+        for (WarmPoolTargetProjection target : targets) {
+            long current = target.getCurrentSize();
+            int desired = target.getTargetSize();
+            if (current > desired) {
+                trim(target.getLabId(), (int) (current - desired));
+            } else if (current < desired && budget > 0) {
+                budget -= provision(target.getLabId(), (int) Math.min(desired - current, budget), now);
+            }
+        }
+        return maxProvisionPerCycle - budget;
+    }
+
+    private int provision(Integer labId, int count, LocalDateTime now) {
+        LabProvisioningTemplate template = labTemplateCache.get(labId);
+        Lab lab = labRepository.getReferenceById(labId);
+        int provisioned = 0;
+        for (int i = 0; i < count; i++) {
+            // Warm VMs never push out real sessions: stop as soon as the cluster is full
+            if (!labCapacityService.tryReserve(template.instanceType())) {
+                log.info("Cluster is at capacity, warm pool for lab {} stays {} VMs short", labId, count - i);
+                break;
+            }
+            WarmVm vm = new WarmVm();
+            vm.setLab(lab);
+            vm.setVmName(WARM_VM_PREFIX + labId + "-" + UUID.randomUUID().toString().substring(0, 8));
+            vm.setStatus(PROVISIONING_STATUS);
+            vm.setCreatedAt(now);
+            warmVmRepository.save(vm);
+            orchestrationService.provisionWarmVm(template, vm.getVmName());
+            provisioned++;
+        }
+        if (provisioned > 0) {
+            log.info("Requested {} warm VMs for lab {}", provisioned, labId);
+        }
+        return provisioned;
+    }
+
+    // Surplus READY VMs go first (newest first); PROVISIONING ones are left to finish
+    private void trim(Integer labId, int surplus) {
+        List<WarmVm> ready = warmVmRepository.findByLabIdAndStatusOrderByReadyAtDesc(labId, READY_STATUS);
+        ready.stream().limit(surplus).forEach(vm -> discard(vm, "surplus"));
+    }
+
+    private void expireStuckVms(LocalDateTime now) {
+        warmVmRepository.findByStatusAndCreatedAtBefore(PROVISIONING_STATUS, now.minusMinutes(provisionTimeoutMinutes))
+                .forEach(vm -> discard(vm, "provisioning timed out"));
+    }
+
+    private void discard(WarmVm vm, String reason) {
+        Integer labId = vm.getLab().getId();
+        LabProvisioningTemplate template = labTemplateCache.get(labId);
+        cleanupProducer.sendCleanupRequest(LabSessionCleanupRequest.builder()
+                .vmName(vm.getVmName())
+                .namespace(template.namespace())
+                .build());
+        warmVmRepository.delete(vm);
+        labCapacityService.releaseAfterCommit(template.instanceType());
+        meterRegistry.counter("lab.warm-pool.discarded", "reason", reason).increment();
+        log.info("Discarded warm VM {} for lab {}: {}", vm.getVmName(), labId, reason);
+    }
+
+    @Transactional
+    public void setPoolSize(Integer labId, Integer size) {
+        Lab lab = labRepository.findById(labId)
+                .orElseThrow(() -> new EntityNotFoundException("Khong tim thay Lab voi ID: " + labId));
+        lab.setWarmPoolSize(size);
+        labRepository.save(lab);
+    }
+
+    @Transactional(readOnly = true)
+    public Map<String, Object> getPoolStatus(Integer labId) {
+        Lab lab = labRepository.findById(labId)
+                .orElseThrow(() -> new EntityNotFoundException("Khong tim thay Lab voi ID: " + labId));
+        List<WarmVm> vms = warmVmRepository.findByLabIdOrderByCreatedAt(labId);
+        Map<String, Object> status = new LinkedHashMap<>();
+        status.put("labId", labId);
+        status.put("warmPoolSize", lab.getWarmPoolSize() != null ? lab.getWarmPoolSize() : 0);
+        status.put("ready", vms.stream().filter(vm -> READY_STATUS.equals(vm.getStatus())).count());
+        status.put("provisioning", vms.stream().filter(vm -> PROVISIONING_STATUS.equals(vm.getStatus())).count());
+        status.put("schedules", scheduleRepository.findByLabIdOrderByStartsAt(labId));
+        return status;
+    }
+
+    @Transactional
+    public LabWarmPoolSchedule addSchedule(Integer labId, WarmPoolScheduleRequest request) {
+        if (!request.endsAt().isAfter(request.startsAt())) {
+            throw new IllegalArgumentException("endsAt phai sau startsAt");
+        }
+        Lab lab = labRepository.findById(labId)
+                .orElseThrow(() -> new EntityNotFoundException("Khong tim thay Lab voi ID: " + labId));
+        LabWarmPoolSchedule schedule = new LabWarmPoolSchedule();
+        schedule.setLab(lab);
+        schedule.setStartsAt(request.startsAt());
+        schedule.setEndsAt(request.endsAt());
+        schedule.setTargetSize(request.targetSize());
+        return scheduleRepository.save(schedule);
+    }
+
+    @Transactional
+    public void deleteSchedule(Integer labId, Integer scheduleId) {
+        LabWarmPoolSchedule schedule = scheduleRepository.findById(scheduleId)
+                .filter(s -> s.getLab().getId().equals(labId))
+                .orElseThrow(() -> new EntityNotFoundException("Khong tim thay lich warm pool voi ID: " + scheduleId));
+        scheduleRepository.delete(schedule);
+    }
+}
@@ -0,0 +1,79 @@
+package com.example.cms_be.config;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.example.cms_be.model.OutboxEvent;
+import com.example.cms_be.model.Subject;
+import com.example.cms_be.repository.OutboxEventRepository;
+import com.example.cms_be.repository.SubjectRepository;
+import com.example.cms_be.service.OutboxService;
+import com.example.cms_be.support.PostgresIntegrationTest;
+
+import jakarta.persistence.EntityManagerFactory;
+
+class JpaBatchingConfigTest extends PostgresIntegrationTest {
+
+    private static final int ROWS = 120;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+    @Autowired
+    private SubjectRepository subjectRepository;
+    @Autowired
+    private OutboxEventRepository outboxEventRepository;
+    @Autowired
+    private OutboxService outboxService;
+
+    @Test
+    void saveAllIsSentAsJdbcBatches() {
+        String prefix = UUID.randomUUID().toString().substring(0, 8);
+        List<Subject> subjects = new ArrayList<>(ROWS);
+        for (int i = 0; i < ROWS; i++) {
+            subjects.add(Subject.builder().title("Subject " + i).code(prefix + "-" + i).isActive(true).build());
+        }
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        transactionTemplate.executeWithoutResult(status -> subjectRepository.saveAll(subjects));
+
+        assertThat(statistics.getEntityInsertCount()).isEqualTo(ROWS);
+        // One statement per batch of 50 plus the pooled sequence calls, instead of one per row
+        assertThat(statistics.getPrepareStatementCount()).isLessThan(ROWS / 10);
+        subjectRepository.deleteAllInBatch(subjects);
+    }
+
+    @Test
+    void outboxIdsFollowEnqueueOrder() {
+        String prefix = UUID.randomUUID().toString();
+        Map<String, String> payloads = new LinkedHashMap<>();
+        for (int i = 0; i < 5; i++) {
+            payloads.put(prefix + "-" + i, "payload-" + i);
+        }
+
+        transactionTemplate.executeWithoutResult(status -> outboxService.enqueueAll("outbox-order-test", payloads));
+        transactionTemplate.executeWithoutResult(status -> outboxService.enqueue("outbox-order-test", prefix + "-5", "payload-5"));
+
+        List<OutboxEvent> events = outboxEventRepository.findAll().stream()
+                .filter(event -> event.getMessageKey() != null && event.getMessageKey().startsWith(prefix))
+                .sorted(Comparator.comparing(OutboxEvent::getId))
+                .toList();
+        assertThat(events).extracting(OutboxEvent::getMessageKey)
+                .containsExactly(prefix + "-0", prefix + "-1", prefix + "-2", prefix + "-3", prefix + "-4", prefix + "-5");
+        outboxEventRepository.deleteAllInBatch(events);
+    }
+}
@@ -0,0 +1,67 @@
+package com.example.cms_be.config;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.runner.ApplicationContextRunner;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.kafka.config.ConcurrentKafkaListenerContainerFactory;
+
+import com.zaxxer.hikari.HikariDataSource;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class VirtualThreadConfigTest {
+
+    private final ApplicationContextRunner contextRunner = new ApplicationContextRunner()
+            .withUserConfiguration(VirtualThreadConfig.class)
+            .withBean("labListenerFactory", ConcurrentKafkaListenerContainerFactory.class,
+                    ConcurrentKafkaListenerContainerFactory::new)
+            .withBean(HikariDataSource.class, HikariDataSource::new)
+            .withBean(MeterRegistry.class, SimpleMeterRegistry::new);
+
+    @Test
+    void kafkaListenersRunOnVirtualThreads() {
+        contextRunner.withPropertyValues("spring.threads.virtual.enabled=true").run(context -> {
+            ConcurrentKafkaListenerContainerFactory<?, ?> factory =
+                    context.getBean(ConcurrentKafkaListenerContainerFactory.class);
+            AsyncTaskExecutor executor = factory.getContainerProperties().getListenerTaskExecutor();
+            assertThat(executor).isNotNull();
+
+            CompletableFuture<Thread> listenerThread = new CompletableFuture<>();
+            executor.execute(() -> listenerThread.complete(Thread.currentThread()));
+
+            Thread thread = listenerThread.get(5, TimeUnit.SECONDS);
+            assertThat(thread.isVirtual()).isTrue();
+            assertThat(thread.getName()).startsWith("labListenerFactory-");
+        });
+    }
+
+    @Test
+    void hikariPoolIsSizedFromProperties() {
+        contextRunner.withPropertyValues(
+                "spring.threads.virtual.enabled=true",
+                "app.datasource.virtual-threads.max-pool-size=24",
+                "app.datasource.virtual-threads.connection-timeout-ms=1500").run(context -> {
+            HikariDataSource dataSource = context.getBean(HikariDataSource.class);
+            assertThat(dataSource.getMaximumPoolSize()).isEqualTo(24);
+            assertThat(dataSource.getMinimumIdle()).isEqualTo(24);
+            assertThat(dataSource.getConnectionTimeout()).isEqualTo(1500L);
+            assertThat(context).hasSingleBean(VirtualThreadConfig.PinnedThreadMonitor.class);
+        });
+    }
+
+    @Test
+    void platformThreadsLeaveEverythingUntouched() {
+        contextRunner.run(context -> {
+            assertThat(context).doesNotHaveBean(VirtualThreadConfig.PinnedThreadMonitor.class);
+            assertThat(context.getBean(ConcurrentKafkaListenerContainerFactory.class)
+                    .getContainerProperties().getListenerTaskExecutor()).isNull();
+            assertThat(context.getBean(HikariDataSource.class).getConnectionTimeout()).isEqualTo(30_000L);
+        });
+    }
+}
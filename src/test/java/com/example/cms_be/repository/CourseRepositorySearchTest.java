@@ -0,0 +1,55 @@
+package com.example.cms_be.repository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+
+import com.example.cms_be.model.Course;
+import com.example.cms_be.support.PostgresIntegrationTest;
+
+class CourseRepositorySearchTest extends PostgresIntegrationTest {
+
+    @Test
+    void keywordSearchRanksWholeWordMatchesFirst() {
+        String suffix = UUID.randomUUID().toString().substring(0, 8);
+        Course ethernet = course("Ethernet Basics " + suffix);
+        Course networking = course("Networking Fundamentals " + suffix);
+        Course netAdmin = course("Cloud Net Admin " + suffix);
+        Course unrelated = course("Database Design " + suffix);
+        Set<Integer> seeded = Set.of(ethernet.getId(), networking.getId(), netAdmin.getId(), unrelated.getId());
+
+        Page<Course> page = courseRepository.searchWithFilters("net", null, null, PageRequest.of(0, 1000));
+
+        List<Integer> ranked = page.getContent().stream()
+                .map(Course::getId)
+                .filter(seeded::contains)
+                .toList();
+        assertThat(ranked).containsExactly(netAdmin.getId(), networking.getId(), ethernet.getId());
+        assertThat(page.getTotalElements()).isGreaterThanOrEqualTo(3);
+    }
+
+    @Test
+    void searchIsCaseInsensitiveAndRespectsTheActiveFilter() {
+        String suffix = UUID.randomUUID().toString().substring(0, 8);
+        Course active = course("Kubernetes Operators " + suffix);
+        Course inactive = course("Kubernetes Storage " + suffix);
+        inactive.setIsActive(false);
+        courseRepository.save(inactive);
+
+        assertThat(idsMatching("OPERATORS " + suffix.toUpperCase(), true)).containsExactly(active.getId());
+        assertThat(idsMatching("storage " + suffix, true)).isEmpty();
+        assertThat(idsMatching("storage " + suffix, null)).containsExactly(inactive.getId());
+    }
+
+    private List<Integer> idsMatching(String keyword, Boolean isActive) {
+        return courseRepository.searchWithFilters(keyword, isActive, null, PageRequest.of(0, 10))
+                .map(Course::getId)
+                .getContent();
+    }
+}
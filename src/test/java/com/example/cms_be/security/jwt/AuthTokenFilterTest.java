@@ -0,0 +1,116 @@
+package com.example.cms_be.security.jwt;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.List;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.example.cms_be.security.service.UserDetailsImpl;
+import com.example.cms_be.security.service.UserDetailsServiceImpl;
+import com.nimbusds.jwt.SignedJWT;
+
+class AuthTokenFilterTest {
+
+    private static final String SECRET = "test-secret-0123456789abcdef0123456789abcdef0123456789abcdef0123456789";
+
+    private JwtUtils jwtUtils;
+    private UserDetailsServiceImpl userDetailsService;
+    private VerifiedTokenCache verifiedTokenCache;
+    private AuthTokenFilter filter;
+    private UserDetailsImpl student;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        JwtUtils realJwtUtils = new JwtUtils();
+        ReflectionTestUtils.setField(realJwtUtils, "jwtSecret", SECRET);
+        ReflectionTestUtils.setField(realJwtUtils, "jwtExpirationMs", 3_600_000L);
+        realJwtUtils.initVerifier();
+        jwtUtils = spy(realJwtUtils);
+
+        verifiedTokenCache = new VerifiedTokenCache();
+        ReflectionTestUtils.setField(verifiedTokenCache, "maxSize", 100);
+
+        student = UserDetailsImpl.builder()
+                .id(7)
+                .username("student7")
+                .email("student7@example.com")
+                .enabled(true)
+                .authorities(List.of(new SimpleGrantedAuthority("ROLE_STUDENT")))
+                .build();
+        userDetailsService = mock(UserDetailsServiceImpl.class);
+        when(userDetailsService.loadUserByUsername("student7")).thenReturn(student);
+
+        filter = new AuthTokenFilter(jwtUtils, userDetailsService, verifiedTokenCache);
+        ReflectionTestUtils.setField(filter, "dbPrincipalTtlMs", 300_000L);
+    }
+
+    @AfterEach
+    void clearContext() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void secondRequestWithSameTokenSkipsVerificationAndLookup() throws Exception {
+        String token = tokenFor(student);
+
+        assertThat(authenticate(token)).isEqualTo(student);
+        assertThat(authenticate(token)).isEqualTo(student);
+
+        verify(jwtUtils, times(1)).verifySignatureAndExpiry(any(SignedJWT.class));
+        verify(userDetailsService, times(1)).loadUserByUsername("student7");
+    }
+
+    @Test
+    void tamperedSignatureIsNotServedFromCache() throws Exception {
+        String token = tokenFor(student);
+        assertThat(authenticate(token)).isEqualTo(student);
+
+        String tampered = token.substring(0, token.lastIndexOf('.') + 1) + "AAAA" + token.substring(token.lastIndexOf('.') + 5);
+
+        assertThat(authenticate(tampered)).isNull();
+        verify(jwtUtils, times(2)).verifySignatureAndExpiry(any(SignedJWT.class));
+        verify(userDetailsService, times(1)).loadUserByUsername("student7");
+    }
+
+    @Test
+    void invalidatedUserIsLoadedAgain() throws Exception {
+        String token = tokenFor(student);
+        authenticate(token);
+
+        verifiedTokenCache.invalidateUser(student.getId());
+        authenticate(token);
+
+        verify(jwtUtils, times(2)).verifySignatureAndExpiry(any(SignedJWT.class));
+        verify(userDetailsService, times(2)).loadUserByUsername("student7");
+    }
+
+    private String tokenFor(UserDetailsImpl user) {
+        return jwtUtils.generateToken(new UsernamePasswordAuthenticationToken(user, null, user.getAuthorities()), false);
+    }
+
+    private Object authenticate(String token) throws Exception {
+        SecurityContextHolder.clearContext();
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/courses");
+        request.setServletPath("/api/courses");
+        request.addHeader("Authorization", "Bearer " + token);
+        filter.doFilterInternal(request, new MockHttpServletResponse(), new MockFilterChain());
+        var authentication = SecurityContextHolder.getContext().getAuthentication();
+        return authentication != null ? authentication.getPrincipal() : null;
+    }
+}
@@ -0,0 +1,99 @@
+package com.example.cms_be.security.jwt;
+
+import static org.assertj.core.api.Assertions.assertThatCode;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.List;
+import java.util.Optional;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.simp.stomp.StompCommand;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+
+import com.example.cms_be.repository.UserLabSessionRepository;
+import com.example.cms_be.security.service.UserDetailsImpl;
+
+class StompAuthChannelInterceptorTest {
+
+    private static final UserDetailsImpl STUDENT = user(7, "ROLE_STUDENT");
+    private static final UserDetailsImpl LECTURER = user(8, "ROLE_LECTURER");
+
+    private StompAuthChannelInterceptor interceptor;
+    private final MessageChannel channel = mock(MessageChannel.class);
+
+    @BeforeEach
+    void setUp() {
+        UserLabSessionRepository userLabSessionRepository = mock(UserLabSessionRepository.class);
+        when(userLabSessionRepository.findOwnerUserId(100)).thenReturn(Optional.of(7));
+        when(userLabSessionRepository.findOwnerUserId(200)).thenReturn(Optional.of(9));
+        interceptor = new StompAuthChannelInterceptor(mock(AuthTokenFilter.class), userLabSessionRepository);
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"/topic/users/7/lab-sessions", "/topic/lab-sessions/100", "/topic/backing-images"})
+    void studentMaySubscribeToOwnDestinations(String destination) {
+        assertThatCode(() -> subscribe(STUDENT, destination)).doesNotThrowAnyException();
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {
+            "/topic/users/9/lab-sessions",
+            "/topic/lab-sessions/200",
+            "/topic/lab-sessions/999",
+            "/topic/lab-sessions/*",
+            "/topic/users/*/lab-sessions",
+            "/topic/users/7/*",
+            "/topic/**",
+            "/topic/lab-sessions/10?",
+            "/topic/lab-sessions/{id}",
+            "/topic/users/7",
+            "/topic/unknown",
+            "/app/anything"
+    })
+    void studentIsDeniedEverythingElse(String destination) {
+        assertThatThrownBy(() -> subscribe(STUDENT, destination)).isInstanceOf(AccessDeniedException.class);
+    }
+
+    @Test
+    void staffMayFollowAnySessionButNoWildcards() {
+        assertThatCode(() -> subscribe(LECTURER, "/topic/lab-sessions/200")).doesNotThrowAnyException();
+        assertThatThrownBy(() -> subscribe(LECTURER, "/topic/lab-sessions/*")).isInstanceOf(AccessDeniedException.class);
+        assertThatThrownBy(() -> subscribe(LECTURER, "/topic/users/7/lab-sessions")).isInstanceOf(AccessDeniedException.class);
+    }
+
+    @Test
+    void unauthenticatedSubscribeIsDenied() {
+        StompHeaderAccessor accessor = StompHeaderAccessor.create(StompCommand.SUBSCRIBE);
+        accessor.setDestination("/topic/backing-images");
+        Message<byte[]> message = MessageBuilder.createMessage(new byte[0], accessor.getMessageHeaders());
+
+        assertThatThrownBy(() -> interceptor.preSend(message, channel)).isInstanceOf(AccessDeniedException.class);
+    }
+
+    private void subscribe(UserDetailsImpl user, String destination) {
+        StompHeaderAccessor accessor = StompHeaderAccessor.create(StompCommand.SUBSCRIBE);
+        accessor.setDestination(destination);
+        accessor.setUser(new UsernamePasswordAuthenticationToken(user, null, user.getAuthorities()));
+        interceptor.preSend(MessageBuilder.createMessage(new byte[0], accessor.getMessageHeaders()), channel);
+    }
+
+    private static UserDetailsImpl user(int id, String role) {
+        return UserDetailsImpl.builder()
+                .id(id)
+                .username("user" + id)
+                .enabled(true)
+                .authorities(List.of(new SimpleGrantedAuthority(role)))
+                .build();
+    }
+}
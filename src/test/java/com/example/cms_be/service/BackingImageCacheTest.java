@@ -0,0 +1,151 @@
+package com.example.cms_be.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+
+import com.example.cms_be.dto.BackingImageDTO;
+import com.example.cms_be.dto.BackingImageEvent;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import io.kubernetes.client.openapi.ApiClient;
+import io.kubernetes.client.util.ClientBuilder;
+
+/**
+ * Runs the informer against a minimal fake API server: the list returns one image that is still
+ * downloading, and the watch streams one MODIFIED event for it before staying open.
+ */
+class BackingImageCacheTest {
+
+    private static final String NAMESPACE = "longhorn-system";
+    private static final String RESOURCE_PATH = "/apis/longhorn.io/v1beta2/namespaces/" + NAMESPACE + "/backingimages";
+
+    private HttpServer server;
+    private ExecutorService serverExecutor;
+    private final CountDownLatch shutdown = new CountDownLatch(1);
+    private SimpMessagingTemplate messagingTemplate;
+    private BackingImageCache cache;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        serverExecutor = Executors.newCachedThreadPool();
+        server.setExecutor(serverExecutor);
+        server.createContext(RESOURCE_PATH, this::handle);
+        server.start();
+
+        ApiClient client = new ClientBuilder()
+                .setBasePath("http://127.0.0.1:" + server.getAddress().getPort())
+                .build();
+        client.setReadTimeout(0);
+        messagingTemplate = mock(SimpMessagingTemplate.class);
+        cache = new BackingImageCache(client, messagingTemplate, NAMESPACE, true);
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (cache != null) {
+            cache.stop();
+        }
+        shutdown.countDown();
+        server.stop(0);
+        serverExecutor.shutdownNow();
+    }
+
+    @Test
+    void servesReadsFromTheInformerAndPushesChanges() throws Exception {
+        cache.start();
+
+        awaitSynced();
+        verify(messagingTemplate, timeout(5000)).convertAndSend(eq(BackingImageCache.TOPIC),
+                argThat((BackingImageEvent event) -> BackingImageEvent.ADDED.equals(event.type())
+                        && event.image().getDownloadProgress() == 40));
+        verify(messagingTemplate, timeout(5000)).convertAndSend(eq(BackingImageCache.TOPIC),
+                argThat((BackingImageEvent event) -> BackingImageEvent.UPDATED.equals(event.type())
+                        && "ready".equals(event.image().getState())));
+
+        List<BackingImageDTO> images = cache.getAll();
+        assertThat(images).hasSize(1);
+        BackingImageDTO image = images.get(0);
+        assertThat(image.getName()).isEqualTo("ubuntu-22");
+        assertThat(image.getUuid()).isEqualTo("uid-ubuntu");
+        assertThat(image.getState()).isEqualTo("ready");
+        assertThat(image.getDownloadProgress()).isEqualTo(100);
+        assertThat(image.getSize()).isEqualTo(2_147_483_648L);
+        assertThat(image.getCreatedFrom()).isEqualTo("download");
+    }
+
+    @Test
+    void listsFromTheApiWhenTheInformerIsNotRunning() throws Exception {
+        assertThat(cache.isSynced()).isFalse();
+
+        List<BackingImageDTO> images = cache.listFromApi();
+
+        assertThat(images).extracting(BackingImageDTO::getName, BackingImageDTO::getState)
+                .containsExactly(tuple("ubuntu-22", "in-progress"));
+    }
+
+    private void awaitSynced() throws InterruptedException {
+        Instant deadline = Instant.now().plus(Duration.ofSeconds(10));
+        while (!cache.isSynced() && Instant.now().isBefore(deadline)) {
+            Thread.sleep(20);
+        }
+        assertThat(cache.isSynced()).isTrue();
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        String query = exchange.getRequestURI().getQuery();
+        exchange.getResponseHeaders().add("Content-Type", "application/json");
+        if (query != null && query.contains("watch=true")) {
+            exchange.sendResponseHeaders(200, 0);
+            OutputStream body = exchange.getResponseBody();
+            String event = "{\"type\":\"MODIFIED\",\"object\":"
+                    + backingImage("101", "ready", 100, 2_147_483_648L) + "}\n";
+            body.write(event.getBytes(StandardCharsets.UTF_8));
+            body.flush();
+            try {
+                // Keep the watch open like a real API server until the test ends
+                shutdown.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            exchange.close();
+            return;
+        }
+        byte[] list = ("{\"apiVersion\":\"longhorn.io/v1beta2\",\"kind\":\"BackingImageList\","
+                + "\"metadata\":{\"resourceVersion\":\"100\"},\"items\":["
+                + backingImage("100", "in-progress", 40, 0) + "]}").getBytes(StandardCharsets.UTF_8);
+        exchange.sendResponseHeaders(200, list.length);
+        exchange.getResponseBody().write(list);
+        exchange.close();
+    }
+
+    private String backingImage(String resourceVersion, String state, int progress, long size) {
+        return "{\"apiVersion\":\"longhorn.io/v1beta2\",\"kind\":\"BackingImage\","
+                + "\"metadata\":{\"name\":\"ubuntu-22\",\"namespace\":\"" + NAMESPACE + "\",\"uid\":\"uid-ubuntu\","
+                + "\"resourceVersion\":\"" + resourceVersion + "\"},"
+                + "\"spec\":{\"sourceType\":\"download\"},"
+                + "\"status\":{\"currentState\":\"" + state + "\",\"progress\":" + progress + ",\"size\":" + size + "}}";
+    }
+}
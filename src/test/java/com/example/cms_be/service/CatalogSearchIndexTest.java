@@ -0,0 +1,66 @@
+package com.example.cms_be.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import com.example.cms_be.service.CatalogSearchIndex.Entry;
+import com.example.cms_be.service.CatalogSearchIndex.Source;
+
+class CatalogSearchIndexTest {
+
+    @Test
+    void ranksExactTokensFirstThenShorterLabels() {
+        CatalogSearchIndex index = new CatalogSearchIndex();
+        index.upsert(entry(1, "Networking Fundamentals"), "Networking Fundamentals");
+        index.upsert(entry(2, "Cloud Net Admin"), "Cloud Net Admin");
+        index.upsert(entry(3, "Net"), "Net");
+        index.upsert(entry(4, "Netflix Architecture Deep Dive"), "Netflix Architecture Deep Dive");
+        index.upsert(entry(5, "Database Design"), "Database Design");
+
+        assertThat(ids(index.search("net", 10, entry -> true))).containsExactly(3, 2, 1, 4);
+        assertThat(ids(index.search("net", 2, entry -> true))).containsExactly(3, 2);
+    }
+
+    @Test
+    void everyQueryTokenMustMatchAndTheFilterApplies() {
+        CatalogSearchIndex index = new CatalogSearchIndex();
+        index.upsert(new Entry(1, "Lập trình mạng", true, null, null), "Lập trình mạng");
+        index.upsert(new Entry(2, "Lập trình web", false, null, null), "Lập trình web");
+        index.upsert(new Entry(3, "Mạng máy tính", true, null, null), "Mạng máy tính");
+
+        assertThat(ids(index.search("lap mang", 10, entry -> true))).containsExactly(1);
+        assertThat(ids(index.search("trinh", 10, Entry::active))).containsExactly(1);
+        index.remove(1);
+        assertThat(ids(index.search("lap mang", 10, entry -> true))).isEmpty();
+    }
+
+    @Test
+    void shortPrefixOverLargeIndexStillReturnsExactMatchesFirst() {
+        List<Source> sources = new ArrayList<>();
+        for (int i = 1; i <= 100_000; i++) {
+            String label = "student" + i + " Nguyen Van " + i;
+            sources.add(new Source(entry(i, label), label));
+        }
+        sources.add(new Source(entry(200_001, "S Tran"), "S Tran"));
+        CatalogSearchIndex index = new CatalogSearchIndex();
+        index.replaceAll(sources);
+
+        List<Entry> hits = index.search("s", 5, entry -> true);
+
+        assertThat(hits).hasSize(5);
+        assertThat(hits.get(0).id()).isEqualTo(200_001);
+        assertThat(ids(index.search("student99999", 5, entry -> true))).containsExactly(99_999);
+    }
+
+    private static Entry entry(int id, String label) {
+        return new Entry(id, label, true, null, null);
+    }
+
+    private static List<Integer> ids(List<Entry> entries) {
+        return entries.stream().map(Entry::id).toList();
+    }
+}
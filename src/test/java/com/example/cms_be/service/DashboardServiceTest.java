@@ -0,0 +1,69 @@
+package com.example.cms_be.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import com.example.cms_be.dto.course.DashboardDTO;
+import com.example.cms_be.model.Course;
+import com.example.cms_be.model.CourseUser;
+import com.example.cms_be.model.Role;
+import com.example.cms_be.repository.CourseUserStatsRepository;
+import com.example.cms_be.support.PostgresIntegrationTest;
+
+/**
+ * The dashboard is a single ranked query over the course_user_stats read model: students only,
+ * ordered by score, then completed labs, then completion rate.
+ */
+class DashboardServiceTest extends PostgresIntegrationTest {
+
+    @Autowired
+    private DashboardService dashboardService;
+    @Autowired
+    private CourseUserStatsService courseUserStatsService;
+    @Autowired
+    private CourseUserStatsRepository courseUserStatsRepository;
+
+    @Test
+    void ranksStudentsFromTheStatsReadModel() {
+        String suffix = UUID.randomUUID().toString().substring(0, 8);
+        Course course = course("Dashboard course " + suffix);
+        Role student = role("ROLE_STUDENT");
+        LocalDateTime activity = LocalDateTime.of(2026, 3, 1, 10, 15, 30);
+
+        CourseUser steady = enroll(user("steady-" + suffix, student), course);
+        CourseUser efficient = enroll(user("efficient-" + suffix, student), course);
+        CourseUser idle = enroll(user("idle-" + suffix, student), course);
+        enroll(user("lecturer-" + suffix, role("ROLE_LECTURER")), course);
+
+        courseUserStatsService.refreshEnrollments(List.of(steady.getId(), efficient.getId()));
+        courseUserStatsRepository.applyDelta(steady.getId(), 4, 2, 3, activity);
+        courseUserStatsRepository.applyDelta(efficient.getId(), 2, 2, 3, activity.plusDays(1));
+
+        List<DashboardDTO> dashboard = dashboardService.getDashboard(course.getId());
+
+        assertThat(dashboard)
+                .extracting(DashboardDTO::getRank, DashboardDTO::getUsername, DashboardDTO::getTotalScore,
+                        DashboardDTO::getCompletedLabs, DashboardDTO::getTotalAttempts, DashboardDTO::getCompletionRate)
+                .containsExactly(
+                        tuple(1, "efficient-" + suffix, 30, 2, 2, 100.0),
+                        tuple(2, "steady-" + suffix, 30, 2, 4, 50.0),
+                        tuple(3, "idle-" + suffix, 0, 0, 0, 0.0));
+        assertThat(dashboard.get(1).getFullName()).isEqualTo("First steady-" + suffix);
+        assertThat(dashboard.get(1).getLastActivityAt()).isEqualTo("2026-03-01T10:15:30");
+        assertThat(dashboard.get(2).getLastActivityAt()).isNull();
+    }
+
+    @Test
+    void emptyCourseHasAnEmptyDashboard() {
+        Course course = course("Empty dashboard " + UUID.randomUUID());
+
+        assertThat(dashboardService.getDashboard(course.getId())).isEmpty();
+    }
+}
@@ -0,0 +1,123 @@
+package com.example.cms_be.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.clearInvocations;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.bean.override.mockito.MockitoSpyBean;
+
+import com.example.cms_be.constant.LabSessionStatus;
+import com.example.cms_be.model.CourseUser;
+import com.example.cms_be.model.Lab;
+import com.example.cms_be.model.UserLabSession;
+import com.example.cms_be.repository.UserLabSessionRepository;
+import com.example.cms_be.support.PostgresIntegrationTest;
+
+/**
+ * A student submitting at the moment the expiry job picks up the same overdue session: exactly
+ * one of them may complete it, so the stats move once, one cleanup request is queued and the
+ * capacity is handed back once.
+ */
+class LabSessionCompletionRaceTest extends PostgresIntegrationTest {
+
+    private static final int ROUNDS = 25;
+
+    @Autowired
+    private UserLabSessionService userLabSessionService;
+    @Autowired
+    private LabSessionExpiryService labSessionExpiryService;
+    @Autowired
+    private CourseUserStatsService courseUserStatsService;
+    @Autowired
+    private UserLabSessionRepository userLabSessionRepository;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @MockitoSpyBean
+    private LabCapacityService labCapacityService;
+
+    private Lab lab;
+    private CourseUser courseUser;
+
+    @BeforeEach
+    void setUp() {
+        String suffix = UUID.randomUUID().toString().substring(0, 8);
+        var course = course("Race course " + suffix);
+        lab = lab("Race lab " + suffix, instanceType("race-" + suffix));
+        courseLab(course, lab);
+        courseUser = enroll(user("race-" + suffix, role("ROLE_STUDENT")), course);
+        courseUserStatsService.refreshEnrollments(List.of(courseUser.getId()));
+    }
+
+    @Test
+    void submitRacingExpiryCompletesTheSessionOnce() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            for (int round = 1; round <= ROUNDS; round++) {
+                UserLabSession session = overdueRunningSession();
+                clearInvocations(labCapacityService);
+
+                CountDownLatch start = new CountDownLatch(1);
+                Future<?> submit = executor.submit(() -> {
+                    start.await();
+                    userLabSessionService.submitSession(session.getId());
+                    return null;
+                });
+                Future<Integer> expire = executor.submit(() -> {
+                    start.await();
+                    return labSessionExpiryService.expireDueSessions(50);
+                });
+                start.countDown();
+                submit.get(30, TimeUnit.SECONDS);
+                int expired = expire.get(30, TimeUnit.SECONDS);
+
+                assertThat(expired).isBetween(0, 1);
+                assertThat(userLabSessionRepository.findById(session.getId()))
+                        .get().extracting(UserLabSession::getStatus).isEqualTo(LabSessionStatus.COMPLETED.name());
+                assertThat(completedLabs()).isEqualTo(round);
+                assertThat(cleanupRequestsFor(session)).isEqualTo(1);
+                verify(labCapacityService, times(1)).releaseAfterCommit(any());
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private UserLabSession overdueRunningSession() {
+        LocalDateTime now = LocalDateTime.now();
+        UserLabSession session = new UserLabSession();
+        session.setLab(lab);
+        session.setCourseUser(courseUser);
+        session.setCreatedAt(now.minusHours(2));
+        session.setSetupStartedAt(now.minusHours(2));
+        session.setSetupCompletedAt(now.minusHours(2));
+        session.setExpiresAt(now.minusMinutes(1));
+        session.setStatus(LabSessionStatus.RUNNING.name());
+        return userLabSessionRepository.save(session);
+    }
+
+    private int completedLabs() {
+        return jdbcTemplate.queryForObject(
+                "SELECT completed_labs FROM course_user_stats WHERE course_user_id = ?", Integer.class, courseUser.getId());
+    }
+
+    private int cleanupRequestsFor(UserLabSession session) {
+        return jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM outbox WHERE topic = 'lab-session-cleanup-requests' AND message_key = ?",
+                Integer.class, session.resolveVmName());
+    }
+}
@@ -0,0 +1,75 @@
+package com.example.cms_be.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.UUID;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import com.example.cms_be.dto.user.UserImportResult;
+import com.example.cms_be.support.PostgresIntegrationTest;
+
+import jakarta.persistence.EntityManagerFactory;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Throughput of a bulk import with the production password encoder and real JDBC batching.
+ * Excluded from the default build; run with {@code mvn test -Pbenchmark}. The row count can be
+ * changed with {@code -Dbenchmark.user-import.rows=N}.
+ */
+@Tag("benchmark")
+@Slf4j
+class UserImportBenchmarkTest extends PostgresIntegrationTest {
+
+    private static final int ROWS = Integer.getInteger("benchmark.user-import.rows", 10_000);
+
+    @Autowired
+    private UserImportService userImportService;
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private final String prefix = "bench-" + UUID.randomUUID().toString().substring(0, 8) + "-";
+
+    @AfterEach
+    void deleteImportedUsers() {
+        jdbcTemplate.update("DELETE FROM users WHERE username LIKE ?", prefix + "%");
+    }
+
+    @Test
+    void importsUsersInJdbcBatches() throws Exception {
+        role("ROLE_STUDENT");
+        StringBuilder csv = new StringBuilder("username,password,email,firstName,lastName\n");
+        for (int i = 0; i < ROWS; i++) {
+            csv.append(prefix).append(i).append(",Secret#").append(i)
+                    .append(',').append(prefix).append(i).append("@bench.local,First,Student").append(i).append('\n');
+        }
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        UserImportResult result = userImportService.importUsers(
+                new ByteArrayInputStream(csv.toString().getBytes(StandardCharsets.UTF_8)), false, "ROLE_STUDENT");
+
+        double rowsPerSecond = result.created() * 1000.0 / Math.max(1, result.durationMs());
+        log.info("Imported {} users in {}ms: {} rows/s, {} JDBC statements prepared, {} CPUs",
+                result.created(), result.durationMs(), String.format("%.1f", rowsPerSecond),
+                statistics.getPrepareStatementCount(), Runtime.getRuntime().availableProcessors());
+
+        assertThat(result.created()).isEqualTo(ROWS);
+        assertThat(result.failed()).isZero();
+        Integer stored = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM users WHERE username LIKE ?",
+                Integer.class, prefix + "%");
+        assertThat(stored).isEqualTo(ROWS);
+        // Batched: a handful of statements per 500-row batch instead of one INSERT per row
+        assertThat(statistics.getPrepareStatementCount()).isLessThan(ROWS / 10);
+    }
+}
@@ -0,0 +1,72 @@
+package com.example.cms_be.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.example.cms_be.dto.user.UserImportError;
+import com.example.cms_be.dto.user.UserImportResult;
+import com.example.cms_be.model.Role;
+import com.example.cms_be.repository.RoleRepository;
+import com.example.cms_be.repository.UserRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Row validation and duplicate handling of the import, without a database. Throughput is
+ * measured against PostgreSQL by {@link UserImportBenchmarkTest}.
+ */
+class UserImportServiceTest {
+
+    private static final int BATCH_SIZE = 500;
+
+    private UserImportService userImportService;
+
+    @BeforeEach
+    void setUp() {
+        UserRepository userRepository = mock(UserRepository.class);
+        RoleRepository roleRepository = mock(RoleRepository.class);
+        when(userRepository.findExistingUsernames(anyCollection())).thenReturn(List.of());
+        when(userRepository.findExistingEmails(anyCollection())).thenReturn(List.of());
+        when(roleRepository.findByNameIn(anyCollection()))
+                .thenReturn(List.of(Role.builder().id(3).name("ROLE_STUDENT").build()));
+
+        userImportService = new UserImportService(userRepository, roleRepository, new BCryptPasswordEncoder(4),
+                mock(CatalogSearchService.class), new TransactionTemplate(mock(PlatformTransactionManager.class)),
+                new ObjectMapper(), 4, BATCH_SIZE, 1000);
+    }
+
+    @AfterEach
+    void tearDown() {
+        userImportService.shutdown();
+    }
+
+    @Test
+    void reportsInvalidAndDuplicateRowsWithoutFailingTheBatch() throws Exception {
+        String csv = "username,password,email\n"
+                + "alice,pw1,alice@example.com\n"
+                + "bob,,bob@example.com\n"
+                + "alice,pw2,alice2@example.com\n"
+                + "carol,pw3,alice@example.com\n"
+                + "dave,pw4,dave@example.com\n";
+
+        UserImportResult result = userImportService.importUsers(
+                new ByteArrayInputStream(csv.getBytes(StandardCharsets.UTF_8)), false, "ROLE_STUDENT");
+
+        assertThat(result.created()).isEqualTo(2);
+        assertThat(result.failed()).isEqualTo(3);
+        assertThat(result.errors()).extracting(UserImportError::username)
+                .containsExactlyInAnyOrder("bob", "alice", "carol");
+    }
+}
@@ -0,0 +1,109 @@
+package com.example.cms_be.support;
+
+import java.time.LocalDateTime;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import com.example.cms_be.model.Course;
+import com.example.cms_be.model.CourseLab;
+import com.example.cms_be.model.CourseUser;
+import com.example.cms_be.model.InstanceType;
+import com.example.cms_be.model.Lab;
+import com.example.cms_be.model.Role;
+import com.example.cms_be.model.User;
+import com.example.cms_be.repository.CourseLabRepository;
+import com.example.cms_be.repository.CourseRepository;
+import com.example.cms_be.repository.CourseUserRepository;
+import com.example.cms_be.repository.InstanceTypeRepository;
+import com.example.cms_be.repository.LabRepository;
+import com.example.cms_be.repository.RoleRepository;
+import com.example.cms_be.repository.UserRepository;
+
+/**
+ * Full application context against a real PostgreSQL (the native queries use window functions,
+ * pg_trgm, ON CONFLICT and SKIP LOCKED). One container is shared by every subclass so the cached
+ * Spring context keeps a live datasource; tests are skipped when no Docker daemon is available.
+ * Test data uses unique names, so classes do not depend on a clean database.
+ */
+@SpringBootTest
+@Testcontainers(disabledWithoutDocker = true)
+public abstract class PostgresIntegrationTest {
+
+    @ServiceConnection
+    static final PostgreSQLContainer<?> POSTGRES = new PostgreSQLContainer<>("postgres:16-alpine");
+
+    static {
+        POSTGRES.start();
+    }
+
+    @Autowired
+    protected RoleRepository roleRepository;
+    @Autowired
+    protected UserRepository userRepository;
+    @Autowired
+    protected InstanceTypeRepository instanceTypeRepository;
+    @Autowired
+    protected LabRepository labRepository;
+    @Autowired
+    protected CourseRepository courseRepository;
+    @Autowired
+    protected CourseLabRepository courseLabRepository;
+    @Autowired
+    protected CourseUserRepository courseUserRepository;
+
+    protected Role role(String name) {
+        return roleRepository.findByName(name)
+                .orElseGet(() -> roleRepository.save(Role.builder().name(name).build()));
+    }
+
+    protected User user(String username, Role role) {
+        return userRepository.save(User.builder()
+                .username(username)
+                .email(username + "@test.local")
+                .firstName("First")
+                .lastName(username)
+                .password("{noop}secret")
+                .isActive(true)
+                .role(role)
+                .build());
+    }
+
+    protected InstanceType instanceType(String name) {
+        return instanceTypeRepository.save(InstanceType.builder()
+                .name(name)
+                .cpuCores(1)
+                .memoryGb(1)
+                .storageGb(10)
+                .build());
+    }
+
+    protected Lab lab(String title, InstanceType instanceType) {
+        return labRepository.save(Lab.builder()
+                .title(title)
+                .namespace("test-ns")
+                .estimatedTime(60)
+                .isActive(true)
+                .instanceType(instanceType)
+                .build());
+    }
+
+    protected Course course(String title) {
+        return courseRepository.save(Course.builder().title(title).isActive(true).build());
+    }
+
+    protected CourseLab courseLab(Course course, Lab lab) {
+        return courseLabRepository.save(CourseLab.builder().course(course).lab(lab).build());
+    }
+
+    protected CourseUser enroll(User user, Course course) {
+        CourseUser courseUser = new CourseUser();
+        courseUser.setUser(user);
+        courseUser.setCourse(course);
+        courseUser.setCreatedAt(LocalDateTime.now());
+        return courseUserRepository.save(courseUser);
+    }
+}